@@ -1,5 +1,7 @@
 package com.demo.appa;
 
+import com.demo.appa.observability.CallOutcome;
+import com.demo.appa.observability.GrpcErrorClassifier;
 import com.demo.grpc.DemoServiceGrpc;
 import com.demo.grpc.WorkRequest;
 import com.demo.grpc.WorkReply;
@@ -15,6 +17,7 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Scenario 1: Baseline - No resilience patterns.
@@ -28,7 +31,7 @@ import javax.annotation.PreDestroy;
  * Use this to understand the COST of not having resilience patterns.
  */
 @Component
-@ConditionalOnExpression("'${resilience.enabled:false}' == 'false' && '${retry.enabled:false}' == 'false'")
+@ConditionalOnExpression("'${resilience.enabled:false}' == 'false' && '${retry.enabled:false}' == 'false' && '${reactive.enabled:false}' == 'false'")
 public class AppABaseline implements AppAPort {
     private static final Logger logger = LoggerFactory.getLogger(AppABaseline.class);
 
@@ -38,8 +41,12 @@ public class AppABaseline implements AppAPort {
     @Autowired
     private MetricsService metricsService;
 
+    @Autowired
+    private GrpcErrorClassifier classifier;
+
     private ManagedChannel channel;
     private DemoServiceGrpc.DemoServiceBlockingStub blockingStub;
+    private DemoServiceGrpc.DemoServiceFutureStub futureStub;
 
     @PostConstruct
     public void init() {
@@ -53,6 +60,7 @@ public class AppABaseline implements AppAPort {
                 .usePlaintext()
                 .build();
         blockingStub = DemoServiceGrpc.newBlockingStub(channel);
+        futureStub = DemoServiceGrpc.newFutureStub(channel);
     }
 
     @PreDestroy
@@ -63,6 +71,7 @@ public class AppABaseline implements AppAPort {
         }
     }
 
+    @Override
     public WorkResult callWork(String requestId) {
         long startTime = System.currentTimeMillis();
         ErrorCode errorCode = ErrorCode.UNKNOWN;
@@ -82,7 +91,7 @@ public class AppABaseline implements AppAPort {
             long latency = System.currentTimeMillis() - startTime;
 
             errorCode = ErrorCode.SUCCESS;
-            metricsService.recordCall("Work", latency, null, null);
+            metricsService.recordCall("Work", latency, CallOutcome.SUCCESS);
             metricsService.recordDownstreamCall(latency, errorCode);
 
             return new WorkResult(
@@ -96,10 +105,11 @@ public class AppABaseline implements AppAPort {
             // In Scenario 1 (FAIL_RATE=0.3), 30% of calls fail here and return immediately.
             // In Scenario 2 (retry enabled), these same errors get retried → 30% drops to ~3%.
             long latency = System.currentTimeMillis() - startTime;
-            errorCode = ErrorCode.fromGrpcStatus(e.getStatus().getCode());
+            CallOutcome outcome = classifier.classify(e);
+            errorCode = outcome.errorCode();
             logger.error("gRPC call failed: {} -> {}", e.getStatus(), errorCode, e);
 
-            metricsService.recordCall("Work", latency, e, null);
+            metricsService.recordCall("Work", latency, outcome);
             metricsService.recordDownstreamCall(latency, errorCode);
 
             return new WorkResult(
@@ -110,10 +120,11 @@ public class AppABaseline implements AppAPort {
             );
         } catch (Exception e) {
             long latency = System.currentTimeMillis() - startTime;
-            errorCode = ErrorCode.UNKNOWN;
+            CallOutcome outcome = classifier.classify(e);
+            errorCode = outcome.errorCode();
             logger.error("Unexpected error calling B service: {}", errorCode, e);
 
-            metricsService.recordCall("Work", latency, e, null);
+            metricsService.recordCall("Work", latency, outcome);
             metricsService.recordDownstreamCall(latency, errorCode);
 
             return new WorkResult(
@@ -127,4 +138,36 @@ public class AppABaseline implements AppAPort {
         }
     }
 
+    @Override
+    public CompletableFuture<WorkResult> callWorkAsync(String requestId) {
+        long startTime = System.currentTimeMillis();
+        metricsService.incrementInflight();
+
+        WorkRequest request = WorkRequest.newBuilder()
+                .setId(requestId)
+                .build();
+
+        // LEARNING: Same unprotected call as callWork(), but on the future stub.
+        // No thread waits for B here - yet nothing caps how many futures pile up either.
+        // Non-blocking removes thread exhaustion, NOT overload (still no deadline/bulkhead).
+        return GrpcFutures.toCompletableFuture(futureStub.work(request))
+                .handle((reply, error) -> {
+                    long latency = System.currentTimeMillis() - startTime;
+                    if (error == null) {
+                        metricsService.recordCall("Work", latency, CallOutcome.SUCCESS);
+                        metricsService.recordDownstreamCall(latency, ErrorCode.SUCCESS);
+                        return new WorkResult(reply.getOk(), reply.getCode(), latency, ErrorCode.SUCCESS);
+                    }
+
+                    Throwable cause = GrpcFutures.unwrap(error);
+                    CallOutcome outcome = classifier.classify(cause);
+                    ErrorCode errorCode = outcome.errorCode();
+                    logger.error("gRPC call failed: {}", errorCode, cause);
+                    metricsService.recordCall("Work", latency, outcome);
+                    metricsService.recordDownstreamCall(latency, errorCode);
+                    return new WorkResult(false, errorCode.name(), latency, errorCode);
+                })
+                .whenComplete((result, error) -> metricsService.decrementInflight());
+    }
+
 }
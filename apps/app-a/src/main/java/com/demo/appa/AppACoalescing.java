@@ -0,0 +1,192 @@
+package com.demo.appa;
+
+import io.grpc.Deadline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-flight coalescing in front of whichever AppAPort is active.
+ *
+ * LEARNING: During a retry storm, a client often re-sends a request id while the
+ * original call is still in flight. Without coalescing each copy takes its own
+ * bulkhead permit and its own trip to B - duplicate work competing for the very
+ * permits (maxInflight) that are scarcest under overload. B's idempotency cache
+ * only dedups AFTER the first call completes, so it can't help here.
+ *
+ * With coalescing, the first caller for a request id (the leader) makes the call;
+ * everyone arriving while it is in flight waits on the leader's future:
+ * - putIfAbsent() decides the leader atomically, no lock held around the call
+ * - remove(key, flight) on completion only removes OUR entry, never a newer one
+ * - every caller (leader included) gets its own copy() of the shared result, so one
+ *   caller cancelling can't cancel the result for the others
+ * - the delegate's call is cancelled only when the LAST interested caller cancels
+ *   (e.g. every client disconnected), so cancellation still reaches the port -
+ *   which cancels the RPC if it supports that (AppAReactive). A blocking caller
+ *   never cancels, so its call always runs to completion
+ *
+ * @Primary: controllers get this bean; the delegate is the scenario port selected by
+ * resilience/retry/reactive.enabled (Spring never injects a bean into itself).
+ */
+@Component
+@Primary
+@ConditionalOnExpression("'${coalescing.enabled:false}' == 'true'")
+public class AppACoalescing implements AppAPort {
+    private static final Logger logger = LoggerFactory.getLogger(AppACoalescing.class);
+
+    @Autowired
+    private AppAPort delegate;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    private final ConcurrentHashMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    public AppACoalescing() {
+    }
+
+    /** For tests: no Spring context. */
+    AppACoalescing(AppAPort delegate, MetricsService metricsService) {
+        this.delegate = delegate;
+        this.metricsService = metricsService;
+    }
+
+    @PostConstruct
+    public void init() {
+        logger.info("Request coalescing enabled in front of {}", delegate.getClass().getSimpleName());
+        metricsService.registerCoalescingInflight(inFlight);
+    }
+
+    @Override
+    public WorkResult callWork(String requestId) {
+        return callWork(requestId, null);
+    }
+
+    @Override
+    public CompletableFuture<WorkResult> callWorkAsync(String requestId) {
+        return callWorkAsync(requestId, null);
+    }
+
+    // Waiters share the leader's call, so the leader's request deadline applies to them.
+    @Override
+    public WorkResult callWork(String requestId, @Nullable Deadline requestDeadline) {
+        Flight mine = new Flight();
+        while (true) {
+            Flight leader = inFlight.putIfAbsent(requestId, mine);
+            if (leader == null) {
+                break;
+            }
+            CompletableFuture<WorkResult> shared = leader.join();
+            if (shared != null) {
+                metricsService.recordCoalescedHit();
+                // Ports never complete exceptionally (every outcome is a WorkResult),
+                // unless the leader hit an unexpected runtime error - rethrown here too.
+                return shared.join();
+            }
+            inFlight.remove(requestId, leader);   // every caller cancelled it: start afresh
+        }
+
+        WorkResult result;
+        try {
+            result = delegate.callWork(requestId, requestDeadline);
+        } catch (RuntimeException e) {
+            inFlight.remove(requestId, mine);
+            mine.result.completeExceptionally(e);
+            throw e;
+        }
+        // Remove before completing: callers arriving after completion start a fresh call
+        inFlight.remove(requestId, mine);
+        mine.result.complete(result);
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<WorkResult> callWorkAsync(String requestId, @Nullable Deadline requestDeadline) {
+        Flight mine = new Flight();
+        while (true) {
+            Flight leader = inFlight.putIfAbsent(requestId, mine);
+            if (leader == null) {
+                break;
+            }
+            CompletableFuture<WorkResult> shared = leader.join();
+            if (shared != null) {
+                metricsService.recordCoalescedHit();
+                return shared;
+            }
+            inFlight.remove(requestId, leader);
+        }
+
+        CompletableFuture<WorkResult> call;
+        try {
+            call = delegate.callWorkAsync(requestId, requestDeadline);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((result, error) -> {
+            inFlight.remove(requestId, mine);
+            if (error != null) {
+                mine.result.completeExceptionally(error);
+            } else {
+                mine.result.complete(result);
+            }
+        });
+        mine.started(call);
+        return mine.view();
+    }
+
+    /** Request ids with a call in flight (for tests). */
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /** One shared call and the callers still interested in it. */
+    private static final class Flight {
+        final CompletableFuture<WorkResult> result = new CompletableFuture<>();
+        private final AtomicInteger callers = new AtomicInteger(1);   // the leader
+        private volatile CompletableFuture<WorkResult> call;
+
+        /** Join as one more caller; null if every caller already cancelled (call is going away). */
+        @Nullable
+        CompletableFuture<WorkResult> join() {
+            int n;
+            do {
+                n = callers.get();
+                if (n == 0) {
+                    return null;
+                }
+            } while (!callers.compareAndSet(n, n + 1));
+            return view();
+        }
+
+        /** The leader's call to the delegate, cancelled if every caller already left. */
+        void started(CompletableFuture<WorkResult> call) {
+            this.call = call;
+            if (callers.get() == 0) {
+                call.cancel(true);
+            }
+        }
+
+        /** One caller's copy: cancelling it withdraws that caller only. */
+        CompletableFuture<WorkResult> view() {
+            CompletableFuture<WorkResult> view = result.copy();
+            view.whenComplete((r, error) -> {
+                if (view.isCancelled() && callers.decrementAndGet() == 0) {
+                    CompletableFuture<WorkResult> started = call;
+                    if (started != null) {
+                        started.cancel(true);
+                    }
+                }
+            });
+            return view;
+        }
+    }
+}
@@ -1,5 +1,42 @@
 package com.demo.appa;
 
+import io.grpc.Deadline;
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+
 public interface AppAPort {
     WorkResult callWork(String requestId);
+
+    /**
+     * Non-blocking variant of {@link #callWork(String)}.
+     *
+     * LEARNING: The blocking variant parks the caller's thread for the whole RPC
+     * (up to the deadline, plus retries). This variant returns immediately and
+     * completes the future from a gRPC callback, so a slow B costs a pending future
+     * instead of a Tomcat worker thread. Protection semantics (breaker, bulkhead,
+     * metrics) are identical to the blocking variant.
+     */
+    CompletableFuture<WorkResult> callWorkAsync(String requestId);
+
+    /**
+     * {@link #callWork(String)} under an end-to-end request deadline, set at ingress.
+     *
+     * LEARNING: b.deadline.ms bounds ONE attempt; with retries a request can wait
+     * several of them plus backoff. The request deadline bounds the whole call:
+     * each attempt gets at most the time that remains, and no retry starts once the
+     * caller would have given up. Ports without a deadline of their own ignore it.
+     *
+     * @param requestDeadline when the caller stops waiting; null = per-attempt deadline only
+     */
+    default WorkResult callWork(String requestId, @Nullable Deadline requestDeadline) {
+        return callWork(requestId);
+    }
+
+    /**
+     * Non-blocking variant of {@link #callWork(String, Deadline)}.
+     */
+    default CompletableFuture<WorkResult> callWorkAsync(String requestId, @Nullable Deadline requestDeadline) {
+        return callWorkAsync(requestId);
+    }
 }
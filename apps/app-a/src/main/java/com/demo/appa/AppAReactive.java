@@ -0,0 +1,286 @@
+package com.demo.appa;
+
+import com.demo.appa.observability.CallOutcome;
+import com.demo.appa.observability.ClassifiedException;
+import com.demo.appa.observability.GrpcErrorClassifier;
+import com.demo.appa.retry.RetryDecisionPolicy;
+import com.demo.grpc.DemoServiceGrpc;
+import com.demo.grpc.WorkReply;
+import com.demo.grpc.WorkRequest;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reactive variant of the full resilience stack (Scenario 3 & 4 patterns on Reactor).
+ *
+ * LEARNING: Same protection layers as AppAResilient, expressed as Reactor operators:
+ * 1. CircuitBreakerOperator - rejects on subscribe when OPEN (no network, no permit)
+ * 2. BulkheadOperator       - caps concurrent subscriptions (maxInflight)
+ * 3. RetryOperator          - re-subscribes the gRPC call; backoff is a timer, not a sleep
+ * 4. gRPC async stub        - reply delivered by callback, cancellation propagates to B
+ *
+ * Operators are applied innermost-first with transformDeferred(), so at subscription
+ * time the order is CB → bulkhead → retry → network (cheapest first, as in AppAResilient).
+ * A full bulkhead is not a failure of B: the breaker ignores BulkheadFullException.
+ *
+ * Why reactive? No layer ever parks a thread. Paired with the WebFlux handler
+ * (spring.main.web-application-type=reactive), a few Netty event-loop threads can
+ * serve the whole Scenario 3 overload: waiting requests cost memory, not threads.
+ */
+@Component
+@ConditionalOnExpression("'${reactive.enabled:false}' == 'true'")
+public class AppAReactive implements AppAPort {
+    private static final Logger logger = LoggerFactory.getLogger(AppAReactive.class);
+
+    @Value("${b.service.url}")
+    private String bServiceUrl;
+
+    @Value("${b.deadline.ms:800}")
+    private long deadlineMs;
+
+    @Value("${b.inflight.max:10}")
+    private int maxInflight;
+
+    @Value("${b.channel.pool.size:1}")
+    private int channelPoolSize;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Autowired
+    private CircuitBreakerConfig breakerConfig;
+
+    @Autowired
+    private RetryDecisionPolicy retryPolicy;
+
+    @Autowired
+    private GrpcErrorClassifier classifier;
+
+    private List<ManagedChannel> channels;
+    private List<DemoServiceGrpc.DemoServiceStub> stubs;
+    private final AtomicInteger roundRobin = new AtomicInteger(0);
+    private CircuitBreaker circuitBreaker;
+    private Bulkhead bulkhead;
+    private Retry retry;
+
+    @PostConstruct
+    public void init() {
+        logger.info("ReactiveBClient initialized: url={}, deadlineMs={}, maxInflight={}, channelPoolSize={}",
+                bServiceUrl, deadlineMs, maxInflight, channelPoolSize);
+
+        // Same channel pool + keepalive as AppAResilient (see its LEARNING notes).
+        channels = new ArrayList<>(channelPoolSize);
+        stubs = new ArrayList<>(channelPoolSize);
+        for (int i = 0; i < channelPoolSize; i++) {
+            ManagedChannel ch = ManagedChannelBuilder.forTarget(bServiceUrl)
+                    .usePlaintext()
+                    .keepAliveTime(30, TimeUnit.SECONDS)
+                    .keepAliveTimeout(10, TimeUnit.SECONDS)
+                    .keepAliveWithoutCalls(true)
+                    .build();
+            channels.add(ch);
+            stubs.add(DemoServiceGrpc.newStub(ch));
+        }
+
+        metricsService.registerChannelPoolSize(channelPoolSize);
+
+        // LEARNING: Resilience4j Bulkhead with maxWaitDuration=0 behaves like
+        // Semaphore.tryAcquire(): a full bulkhead rejects immediately (QUEUE_FULL).
+        bulkhead = Bulkhead.of("B", BulkheadConfig.custom()
+                .maxConcurrentCalls(maxInflight)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+
+        // Same breaker configuration as AppAResilient (b.breaker.*, see BreakerConfig).
+        circuitBreaker = CircuitBreakerRegistry.of(reactiveBreakerConfig(breakerConfig)).circuitBreaker("B");
+
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.State state = event.getStateTransition().getToState();
+            int stateCode = switch (state) {
+                case CLOSED -> 0;
+                case OPEN -> 1;
+                case HALF_OPEN -> 2;
+                default -> 0;
+            };
+            metricsService.setBreakerState(stateCode);
+            logger.info("Circuit breaker B state -> {} ({})", state, stateCode);
+        });
+
+        // Same retry gating as AppAResilient: protection events are never retried, and
+        // each attempt's failure is classified once (work() maps it to a ClassifiedException).
+        RetryConfig retryConfig = RetryConfig.custom()
+                .maxAttempts(3)
+                .waitDuration(Duration.ofMillis(50))
+                .retryOnException(e -> retryPolicy.shouldRetry(classifier.classify(e)))
+                .build();
+        retry = Retry.of("app-a-reactive-retry", retryConfig);
+        if (retryPolicy.getBudget() != null) {
+            metricsService.registerRetryBudget(retryPolicy.getBudget());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        logger.info("Shutting down ReactiveBClient gRPC channel pool (size={})", channelPoolSize);
+        if (channels != null) {
+            channels.forEach(ManagedChannel::shutdown);
+        }
+    }
+
+    @Override
+    public WorkResult callWork(String requestId) {
+        return callWorkReactive(requestId).block();
+    }
+
+    @Override
+    public CompletableFuture<WorkResult> callWorkAsync(String requestId) {
+        // Cancelling this future cancels the subscription, which cancels the RPC.
+        return callWorkReactive(requestId).toFuture();
+    }
+
+    /**
+     * Lazy, cancellable call to B: nothing happens until subscription.
+     * Never errors - every outcome (including protection events) becomes a WorkResult.
+     */
+    public Mono<WorkResult> callWorkReactive(String requestId) {
+        return Mono.defer(() -> {
+            long startTime = System.currentTimeMillis();
+            WorkRequest request = WorkRequest.newBuilder()
+                    .setId(requestId)
+                    .build();
+            DemoServiceGrpc.DemoServiceStub stub =
+                    stubs.get(Math.abs(roundRobin.getAndIncrement() % channelPoolSize));
+
+            Mono<WorkReply> attempts = work(stub, request)
+                    .transformDeferred(RetryOperator.of(retry))
+                    // Inside the bulkhead: only counted once a permit is held
+                    .doOnSubscribe(s -> metricsService.incrementInflight())
+                    .doFinally(signal -> metricsService.decrementInflight());
+            return protect(attempts, bulkhead, circuitBreaker)
+                    .map(reply -> onReply(reply, startTime))
+                    .onErrorResume(e -> Mono.just(onFailure(e, startTime, requestId)));
+        });
+    }
+
+    /**
+     * CB → bulkhead around the (retried) call, outermost first at subscription time.
+     * The breaker wraps the bulkhead, so it sees its BulkheadFullException - which
+     * reactiveBreakerConfig() ignores.
+     */
+    static <T> Mono<T> protect(Mono<T> call, Bulkhead bulkhead, CircuitBreaker circuitBreaker) {
+        return call
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    /**
+     * LEARNING: CircuitBreakerOperator records every error as a failure, including a
+     * BulkheadFullException from the operator it wraps. Counted, overload alone (a
+     * burst past maxInflight, B perfectly healthy) would trip the breaker OPEN.
+     * Ignored exceptions release the permission without touching the failure rate -
+     * what AppAResilient does by hand when its bulkhead is full.
+     */
+    static CircuitBreakerConfig reactiveBreakerConfig(CircuitBreakerConfig config) {
+        return CircuitBreakerConfig.from(config)
+                .ignoreExceptions(BulkheadFullException.class)
+                .build();
+    }
+
+    /**
+     * One attempt: async stub call with a fresh deadline, re-issued on every subscription
+     * (which is what lets RetryOperator retry it).
+     */
+    private Mono<WorkReply> work(DemoServiceGrpc.DemoServiceStub stub, WorkRequest request) {
+        return Mono.<WorkReply>create(sink -> stub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS)
+                .work(request, new ClientResponseObserver<WorkRequest, WorkReply>() {
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<WorkRequest> requestStream) {
+                        sink.onCancel(() -> requestStream.cancel("Cancelled by subscriber", null));
+                    }
+
+                    @Override
+                    public void onNext(WorkReply reply) {
+                        sink.success(reply);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        sink.error(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        sink.success();
+                    }
+                }))
+                .onErrorMap(classifier::classified);
+    }
+
+    private WorkResult onReply(WorkReply reply, long startTime) {
+        long latency = System.currentTimeMillis() - startTime;
+        retryPolicy.onSuccess();
+        metricsService.recordCall("Work", latency, CallOutcome.SUCCESS);
+        metricsService.recordDownstreamCall(latency, ErrorCode.SUCCESS);
+        return new WorkResult(reply.getOk(), reply.getCode(), latency, ErrorCode.SUCCESS);
+    }
+
+    private WorkResult onFailure(Throwable e, long startTime, String requestId) {
+        // LEARNING: Protection events surface as exceptions from the operators.
+        // Map them to the same metrics/ErrorCodes AppAResilient records.
+        CallOutcome outcome = classifier.classify(e);
+        if (outcome == CallOutcome.CIRCUIT_OPEN) {
+            logger.warn("Circuit breaker OPEN for request {}", requestId);
+            metricsService.recordCall("Work", 0, outcome);
+            metricsService.recordDownstreamCall(0, ErrorCode.CIRCUIT_OPEN);
+            return new WorkResult(false, ErrorCode.CIRCUIT_OPEN.name(), 0, ErrorCode.CIRCUIT_OPEN);
+        }
+        if (outcome == CallOutcome.BULKHEAD_REJECTED) {
+            logger.warn("Bulkhead full (QUEUE_FULL) for request {}", requestId);
+            metricsService.recordCall("Work", 0, outcome);
+            metricsService.recordDownstreamCall(0, ErrorCode.QUEUE_FULL);
+            return new WorkResult(false, ErrorCode.QUEUE_FULL.name(), 0, ErrorCode.QUEUE_FULL);
+        }
+
+        long latency = System.currentTimeMillis() - startTime;
+        ErrorCode errorCode = outcome.errorCode();
+        Throwable cause = e instanceof ClassifiedException ? e.getCause() : e;
+        if (cause instanceof StatusRuntimeException sre) {
+            logger.error("gRPC call failed: {} -> {}, requestId={}", sre.getStatus(), errorCode, requestId);
+        } else {
+            logger.error("Unexpected error calling B service, requestId={}", requestId, cause);
+        }
+        metricsService.recordCall("Work", latency, outcome);
+        metricsService.recordDownstreamCall(latency, errorCode);
+        return new WorkResult(false, errorCode.name(), latency, errorCode);
+    }
+}
@@ -2,8 +2,10 @@
  * Scenario 3 & 4: Full resilience pattern stack.
  *
  * LEARNING: Protection layers are checked in order of cost (cheapest first):
+ * 0. Result cache (opt-in, ~100ns) - repeat request ids answered without any protection layer
  * 1. Circuit Breaker (~1μs, in-memory state check) - CHEAPEST, shed load before network
- * 2. Bulkhead (~1μs, semaphore CAS) - Cap concurrent requests to prevent thread exhaustion
+ *    (+ adaptive throttle, opt-in: sheds the share of calls B is refusing)
+ * 2. Bulkhead (~1μs, CAS) - Cap concurrent requests (fixed or adaptive limit, see limit/)
  * 3. gRPC call with Deadline + Retry - MOST EXPENSIVE, actual network I/O
  * 4. CB result recording - Update sliding window for future trip decisions
  *
@@ -15,24 +17,52 @@
  */
 package com.demo.appa;
 
+import com.demo.appa.batch.MicroBatcher;
+import com.demo.appa.breaker.BreakerScope;
+import com.demo.appa.breaker.ChannelBreakers;
+import com.demo.appa.breaker.CircuitOpenException;
+import com.demo.appa.breaker.GlobalBreaker;
+import com.demo.appa.breaker.LatencySloTrigger;
+import com.demo.appa.cache.ResultCache;
+import com.demo.appa.hedge.HedgeBudget;
+import com.demo.appa.hedge.Hedger;
+import com.demo.appa.limit.BulkheadFullException;
+import com.demo.appa.limit.ConcurrencyLimiter;
+import com.demo.appa.limit.FixedConcurrencyLimiter;
+import com.demo.appa.limit.GradientConcurrencyLimiter;
+import com.demo.appa.observability.CallOutcome;
+import com.demo.appa.observability.ClassifiedException;
+import com.demo.appa.observability.GrpcErrorClassifier;
+import com.demo.appa.observability.LatencyTracker;
+import com.demo.appa.pool.ChannelPicker;
+import com.demo.appa.pool.NettyChannelFactory;
+import com.demo.appa.pool.OutlierDetector;
+import com.demo.appa.retry.AsyncRetryExecutor;
 import com.demo.appa.retry.RetryDecisionPolicy;
+import com.demo.appa.stream.WorkStreamClient;
+import com.demo.appa.throttle.AdaptiveThrottle;
+import com.demo.grpc.BatchWorkReply;
+import com.demo.grpc.BatchWorkRequest;
 import com.demo.grpc.DemoServiceGrpc;
 import com.demo.grpc.WorkReply;
 import com.demo.grpc.WorkRequest;
-import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
-import io.github.resilience4j.retry.Retry;
-import io.github.resilience4j.retry.RetryConfig;
+import io.grpc.ConnectivityState;
+import io.grpc.Deadline;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
@@ -40,39 +70,181 @@ import javax.annotation.PreDestroy;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 
 @Component
-@ConditionalOnProperty(name = "resilience.enabled", havingValue = "true")
+@ConditionalOnExpression("'${resilience.enabled:false}' == 'true' && '${reactive.enabled:false}' == 'false'")
 public class AppAResilient implements AppAPort {
     private static final Logger logger = LoggerFactory.getLogger(AppAResilient.class);
 
+    // Outlier ejection: failure-rate window, and longest ejection as a multiple of the base
+    private static final int OUTLIER_WINDOW_CALLS = 20;
+    private static final long OUTLIER_MAX_EJECTION_MULTIPLIER = 32;
+
+    // Successful attempts needed before their p50 gates retries (request deadline)
+    private static final long ATTEMPT_LATENCY_MIN_SAMPLES = 20;
+
+    // Adaptive throttle: the window is a ring of this many buckets
+    private static final int THROTTLE_BUCKETS = 10;
+
     @Value("${b.service.url}")
     private String bServiceUrl;
 
     @Value("${b.deadline.ms:800}")
     private long deadlineMs;
 
+    @Value("${retry.backoff.base-ms:50}")
+    private long retryBaseDelayMs;
+
+    @Value("${retry.backoff.max-ms:1000}")
+    private long retryMaxDelayMs;
+
     @Value("${b.inflight.max:10}")
     private int maxInflight;
 
+    @Value("${b.inflight.limiter:fixed}")
+    private String limiterMode;
+
+    @Value("${b.inflight.adaptive.min:1}")
+    private int adaptiveMinLimit;
+
+    @Value("${b.inflight.adaptive.max:200}")
+    private int adaptiveMaxLimit;
+
+    @Value("${b.inflight.adaptive.window:10}")
+    private int adaptiveWindow;
+
     @Value("${b.channel.pool.size:1}")
     private int channelPoolSize;
 
+    @Value("${b.channel.transport:default}")
+    private String channelTransport;
+
+    @Value("${b.channel.netty.event-loop-threads:0}")
+    private int nettyEventLoopThreads;
+
+    @Value("${b.channel.netty.executor:default}")
+    private String nettyExecutor;
+
+    @Value("${b.channel.netty.executor-threads:4}")
+    private int nettyExecutorThreads;
+
+    @Value("${b.channel.netty.flow-control-window-bytes:1048576}")
+    private int nettyFlowControlWindowBytes;
+
+    @Value("${b.channel.netty.max-inbound-message-bytes:4194304}")
+    private int nettyMaxInboundMessageBytes;
+
+    @Value("${b.transport:unary}")
+    private String transport;
+
+    @Value("${b.batch.max.size:16}")
+    private int batchMaxSize;
+
+    @Value("${b.batch.max.delay.us:500}")
+    private long batchMaxDelayMicros;
+
+    @Value("${b.stream.per.channel:2}")
+    private int streamsPerChannel;
+
+    @Value("${b.cache.enabled:false}")
+    private boolean cacheEnabled;
+
+    @Value("${b.cache.max.bytes:16777216}")
+    private long cacheMaxBytes;
+
+    @Value("${b.cache.ttl.ms:60000}")
+    private long cacheTtlMs;
+
+    @Value("${b.breaker.scope:global}")
+    private String breakerScope;
+
+    @Value("${b.breaker.latency.enabled:false}")
+    private boolean breakerLatencyEnabled;
+
+    @Value("${b.breaker.latency.percentile:99}")
+    private double breakerLatencyPercentile;
+
+    @Value("${b.breaker.latency.slo-ms:150}")
+    private long breakerLatencySloMs;
+
+    @Value("${b.breaker.latency.window-ms:10000}")
+    private long breakerLatencyWindowMs;
+
+    @Value("${b.breaker.latency.min-samples:20}")
+    private long breakerLatencyMinSamples;
+
+    @Value("${b.throttle.enabled:false}")
+    private boolean throttleEnabled;
+
+    @Value("${b.throttle.k:2.0}")
+    private double throttleK;
+
+    @Value("${b.throttle.window.ms:10000}")
+    private long throttleWindowMs;
+
+    @Value("${b.outlier.enabled:false}")
+    private boolean outlierEnabled;
+
+    @Value("${b.outlier.consecutive.failures:5}")
+    private int outlierConsecutiveFailures;
+
+    @Value("${b.outlier.failure.rate.percent:50}")
+    private int outlierFailureRatePercent;
+
+    @Value("${b.outlier.base.ejection.ms:1000}")
+    private long outlierBaseEjectionMs;
+
+    @Value("${b.outlier.max.ejection.percent:50}")
+    private int outlierMaxEjectionPercent;
+
+    @Value("${b.hedge.enabled:false}")
+    private boolean hedgeEnabled;
+
+    @Value("${b.hedge.percentile:95}")
+    private double hedgePercentile;
+
+    @Value("${b.hedge.budget.percent:10}")
+    private int hedgeBudgetPercent;
+
+    @Value("${b.hedge.min.delay.ms:5}")
+    private long hedgeMinDelayMs;
+
+    @Autowired
+    private CircuitBreakerConfig breakerConfig;
+
     @Autowired
     private MetricsService metricsService;
 
     @Autowired
     private RetryDecisionPolicy retryPolicy;
 
+    @Autowired
+    private GrpcErrorClassifier classifier;
+
+    private NettyChannelFactory nettyChannels;
     private List<ManagedChannel> channels;
     private List<DemoServiceGrpc.DemoServiceBlockingStub> stubs;
-    private final AtomicInteger roundRobin = new AtomicInteger(0);
-    private Semaphore semaphore;
-    private CircuitBreaker circuitBreaker;
-    private Retry retry;
+    private List<DemoServiceGrpc.DemoServiceFutureStub> futureStubs;
+    private ChannelPicker picker;
+    private OutlierDetector outlierDetector;
+    private ConcurrencyLimiter limiter;
+    private BreakerScope breakers;
+    private AdaptiveThrottle throttle;
+    private AsyncRetryExecutor retry;
+    private ScheduledExecutorService retryScheduler;
+    private Hedger hedger;
+    private LatencyTracker attemptLatencies;
+    private ResultCache resultCache;
+    private MicroBatcher batcher;
+    private WorkStreamClient streamClient;
 
     @PostConstruct
     public void init() {
@@ -91,33 +263,89 @@ public class AppAResilient implements AppAPort {
         //   - pool=1 (Scenario 3): TCP RST kills ALL inflight RPCs → spike of 100s errors
         //   - pool=4 (Scenario 4): TCP RST kills only 1/4 of channels → smaller bursts
         //   - Each channel reconnects independently → graceful degradation
+        //
+        // b.channel.transport=netty: the pool is built on one shared Netty transport
+        // (epoll event loop group, chosen callback executor, explicit flow-control
+        // window, pooled allocator - see NettyChannelFactory) instead of gRPC defaults.
+        if ("netty".equalsIgnoreCase(channelTransport)) {
+            nettyChannels = new NettyChannelFactory(nettyEventLoopThreads, nettyExecutor, nettyExecutorThreads,
+                    nettyFlowControlWindowBytes, nettyMaxInboundMessageBytes);
+            logger.info("Channel transport: netty ({}), eventLoopThreads={}, executor={}, flowControlWindow={}, maxInboundMessage={}",
+                    nettyChannels.isEpoll() ? "epoll" : "nio", nettyEventLoopThreads, nettyExecutor,
+                    nettyFlowControlWindowBytes, nettyMaxInboundMessageBytes);
+        }
         channels = new ArrayList<>(channelPoolSize);
         stubs = new ArrayList<>(channelPoolSize);
+        futureStubs = new ArrayList<>(channelPoolSize);
         for (int i = 0; i < channelPoolSize; i++) {
-            ManagedChannel ch = ManagedChannelBuilder.forTarget(bServiceUrl)
+            ManagedChannelBuilder<?> builder = nettyChannels != null
+                    ? nettyChannels.forTarget(bServiceUrl)
+                    : ManagedChannelBuilder.forTarget(bServiceUrl);
+            ManagedChannel ch = builder
                     .usePlaintext()
                     .keepAliveTime(30, TimeUnit.SECONDS)
                     .keepAliveTimeout(10, TimeUnit.SECONDS)
                     .keepAliveWithoutCalls(true)
-                    .build();  // Retry is handled by Resilience4j (below)
+                    .build();  // Retry is handled by AsyncRetryExecutor (below)
             channels.add(ch);
             stubs.add(DemoServiceGrpc.newBlockingStub(ch));
+            futureStubs.add(DemoServiceGrpc.newFutureStub(ch));
         }
 
         metricsService.registerChannelPoolSize(channelPoolSize);
 
+        // LEARNING: Channel selection - power of two choices, least outstanding RPCs
+        // (see ChannelPicker). A channel whose connection is in TRANSIENT_FAILURE is
+        // skipped while any other channel is usable; getState(false) only reads the
+        // state, it never triggers a reconnect.
+        //
+        // b.outlier.enabled: channels that keep failing are also skipped, for an
+        // exponentially growing time (OutlierDetector) - milliseconds after the first
+        // failed calls, instead of the 10-40s keepalive needs to declare them dead.
+        if (outlierEnabled) {
+            outlierDetector = new OutlierDetector(channelPoolSize, outlierConsecutiveFailures,
+                    outlierFailureRatePercent, OUTLIER_WINDOW_CALLS,
+                    TimeUnit.MILLISECONDS.toNanos(outlierBaseEjectionMs),
+                    TimeUnit.MILLISECONDS.toNanos(outlierBaseEjectionMs * OUTLIER_MAX_EJECTION_MULTIPLIER),
+                    outlierMaxEjectionPercent, System::nanoTime, this::onChannelEjected);
+            metricsService.registerOutlierDetector(outlierDetector);
+            logger.info("Outlier ejection enabled: consecutiveFailures={}, failureRate={}%, baseEjectionMs={}, maxEjection={}%",
+                    outlierConsecutiveFailures, outlierFailureRatePercent, outlierBaseEjectionMs,
+                    outlierMaxEjectionPercent);
+        }
+        picker = new ChannelPicker(channelPoolSize,
+                i -> channels.get(i).getState(false) != ConnectivityState.TRANSIENT_FAILURE
+                        && (outlierDetector == null || !outlierDetector.isEjected(i))
+                        && breakers.isAvailable(i));
+        metricsService.registerChannelInflight(picker);
+
         // LEARNING: Bulkhead (semaphore) limits concurrent inflight requests.
         // Why? Without it, all client threads can block waiting for slow B → thread starvation.
         // With maxInflight=10: Only 10 requests wait for B; others rejected with QUEUE_FULL.
         // This CAPS the blast radius: slow downstream cannot consume all client threads.
-        semaphore = new Semaphore(maxInflight);
+        // tryAcquire() never blocks, so the bulkhead is also safe on virtual threads
+        // (execution.mode=virtual): nothing here parks while holding a monitor.
+        //
+        // b.inflight.limiter=adaptive: the limit starts at maxInflight and then follows
+        // B's RTT (GradientConcurrencyLimiter) - grows while B keeps up, shrinks as soon
+        // as B starts queueing, so the right number no longer has to be guessed.
+        if ("adaptive".equalsIgnoreCase(limiterMode)) {
+            limiter = new GradientConcurrencyLimiter(maxInflight, adaptiveMinLimit, adaptiveMaxLimit, adaptiveWindow);
+        } else {
+            limiter = new FixedConcurrencyLimiter(maxInflight);
+        }
+        metricsService.registerConcurrencyLimit(limiter);
+        logger.info("Bulkhead limiter: mode={}, initialLimit={}", limiterMode, limiter.getLimit());
 
         // LEARNING: Circuit Breaker prevents cascading failure and retry amplification.
-        // Configuration:
-        //   - slidingWindowSize=10: Track last 10 call results
+        // Configuration (defaults; b.breaker.* in application.yml, see BreakerConfig):
+        //   - slidingWindowSize=10: Track last 10 call results (window.type=time: seconds)
         //   - failureRateThreshold=50%: If ≥5 of 10 fail → trip OPEN
         //   - waitDurationInOpenState=5s: Stay OPEN for 5s (shed all load)
         //   - permittedNumberOfCallsInHalfOpenState=3: After 5s, allow 3 probe calls
+        //   - b.breaker.latency.enabled: ALSO trip when p99 of successful calls over a
+        //     time window exceeds the SLO (LatencySloTrigger) - a slow-but-answering B
+        //     opens the breaker before deadlines fire and threads pile up
         //
         // State machine:
         //   CLOSED (normal) → OPEN (shedding) → HALF_OPEN (probing) → CLOSED or OPEN
@@ -128,35 +356,79 @@ public class AppAResilient implements AppAPort {
         //   - CB trips OPEN → sheds load BEFORE retry happens → prevents amplification
         //   - Result: 83% of traffic returns CIRCUIT_OPEN (instant, no network) instead of
         //     waiting for slow B and retrying, which would make the problem worse
-        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
-                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
-                .slidingWindowSize(10)
-                .failureRateThreshold(50)
-                .waitDurationInOpenState(Duration.ofSeconds(5))
-                .permittedNumberOfCallsInHalfOpenState(3)
-                .build();
+        //
+        // b.breaker.scope=channel: one breaker per pool channel (see ChannelBreakers).
+        // Each attempt takes the permission of the channel it runs on; a_breaker_state
+        // gets one series per channel, and channel="all" reports OPEN only when every
+        // channel's breaker is open (the only time calls fail fast with CIRCUIT_OPEN).
+        // Not with b.transport=stream: stream messages are not tied to a pool channel.
+        boolean perChannel = "channel".equalsIgnoreCase(breakerScope);
+        if (perChannel && "stream".equalsIgnoreCase(transport)) {
+            logger.warn("b.breaker.scope=channel is not supported with b.transport=stream; using one breaker");
+            perChannel = false;
+        }
 
-        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
-        circuitBreaker = registry.circuitBreaker("B");
-
-        circuitBreaker.getEventPublisher().onStateTransition(event -> {
-            CircuitBreaker.State state = event.getStateTransition().getToState();
-            int stateCode = switch (state) {
-                case CLOSED -> 0;   // Normal operation
-                case OPEN -> 1;     // Shedding load (fast-fail)
-                case HALF_OPEN -> 2; // Probing recovery
-                default -> 0;
-            };
-            metricsService.setBreakerState(stateCode);
-            logger.info("Circuit breaker B state -> {} ({})", state, stateCode);
-        });
+        if (perChannel) {
+            CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.from(breakerConfig)
+                    // No traffic reaches an OPEN channel, so it must turn HALF_OPEN on its own
+                    .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                    .build());
+            ChannelBreakers channelBreakers = new ChannelBreakers(registry, "B", channelPoolSize,
+                    breakerLatencyEnabled ? this::newLatencyTrigger : null);
+            breakers = channelBreakers;
+            metricsService.registerChannelBreakerStates(channelPoolSize);
+            for (int i = 0; i < channelPoolSize; i++) {
+                int channel = i;
+                if (breakerLatencyEnabled) {
+                    metricsService.registerBreakerLatency(String.valueOf(i), channelBreakers.getLatencyTrigger(i));
+                }
+                channelBreakers.get(i).getEventPublisher().onStateTransition(event -> {
+                    CircuitBreaker.State state = event.getStateTransition().getToState();
+                    metricsService.setChannelBreakerState(channel, BreakerScope.stateCode(state));
+                    metricsService.setBreakerState(BreakerScope.stateCode(channelBreakers.getState()));
+                    logger.info("Circuit breaker B-{} state -> {}", channel, state);
+                });
+            }
+            logger.info("Circuit breakers: one per channel ({})", channelPoolSize);
+        } else {
+            CircuitBreaker circuitBreaker = CircuitBreakerRegistry.of(breakerConfig).circuitBreaker("B");
+            GlobalBreaker globalBreaker = new GlobalBreaker(circuitBreaker,
+                    breakerLatencyEnabled ? newLatencyTrigger() : null);
+            breakers = globalBreaker;
+            if (breakerLatencyEnabled) {
+                metricsService.registerBreakerLatency("all", globalBreaker.getLatencyTrigger());
+            }
+
+            circuitBreaker.getEventPublisher().onStateTransition(event -> {
+                CircuitBreaker.State state = event.getStateTransition().getToState();
+                int stateCode = BreakerScope.stateCode(state);
+                metricsService.setBreakerState(stateCode);
+                logger.info("Circuit breaker B state -> {} ({})", state, stateCode);
+            });
+        }
+        if (breakerLatencyEnabled) {
+            logger.info("Latency breaker enabled: p{} over {}ms > {}ms (min {} samples) opens the breaker",
+                    breakerLatencyPercentile, breakerLatencyWindowMs, breakerLatencySloMs, breakerLatencyMinSamples);
+        }
+
+        // LEARNING: Adaptive throttling (opt-in, b.throttle.enabled) - between the
+        // breaker's all-or-nothing states, reject each call locally with probability
+        // max(0, (requests - K × accepts) / (requests + 1)) over the window, so A sends
+        // B roughly K× what B has been accepting (see AdaptiveThrottle). Checked right
+        // after the breaker, before the bulkhead: a throttled call costs no permit.
+        if (throttleEnabled) {
+            throttle = new AdaptiveThrottle(throttleK, Duration.ofMillis(throttleWindowMs), THROTTLE_BUCKETS);
+            metricsService.registerThrottle(throttle);
+            logger.info("Adaptive throttle enabled: k={}, windowMs={}", throttleK, throttleWindowMs);
+        }
 
         // LEARNING: Retry with CRITICAL safety constraints (retry gating).
-        // Configuration same as Scenario 2 (maxAttempts=3, 50ms backoff), BUT:
+        // Configuration same as Scenario 2 (maxAttempts=3, jittered backoff from 50ms), BUT:
         //
         // CRITICAL: Protection events are NEVER retried:
         //   ❌ CIRCUIT_OPEN (CallNotPermittedException) → NO retry
         //   ❌ BULKHEAD_REJECTED → NO retry (checked via RetryDecisionPolicy)
+        //   ❌ THROTTLED → NO retry (rejected before the retry loop; never an attempt)
         //   ❌ TIMEOUT (DEADLINE_EXCEEDED) → NO retry
         //
         // Why this matters:
@@ -170,75 +442,178 @@ public class AppAResilient implements AppAPort {
         //   ✅ CONNECTION_FAILURE (UNAVAILABLE) → network glitch
         //
         // Result: Retry helps with transient errors but respects protection boundaries.
-        RetryConfig retryConfig = RetryConfig.custom()
-                .maxAttempts(3)
-                .waitDuration(Duration.ofMillis(50))
-                .retryOnException(e -> {
-                    // Do NOT retry CallNotPermittedException (circuit breaker rejection)
-                    if (e instanceof CallNotPermittedException) {
-                        return false;
-                    }
-                    return retryPolicy.shouldRetry(e, null);
-                })
-                .build();
-        retry = Retry.of("app-a-resilient-retry", retryConfig);
+
+        // Timer thread for callWorkAsync() backoff: schedules re-attempts, never blocks on B.
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "app-a-resilient-retry-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // Each attempt runs through classifier.attempt*(), so e is a ClassifiedException
+        // and classify() just reads its outcome: ONE classification per attempt.
+        // CallNotPermittedException or CircuitOpenException (no channel breaker permits
+        // the attempt) / BulkheadFullException (batch rejected at flush time) classify
+        // as CIRCUIT_OPEN / BULKHEAD_REJECTED → never retried.
+        // The breaker is asked first: once it has opened, a pending call stops retrying
+        // (and spends no retry budget) even though it got its permission earlier.
+        retry = new AsyncRetryExecutor(3,
+                Duration.ofMillis(retryBaseDelayMs), Duration.ofMillis(retryMaxDelayMs),
+                e -> breakers.allowsRetry() && retryPolicy.shouldRetry(classifier.classify(e)),
+                retryScheduler);
+        // retry.budget.enabled: retries across all calls capped at a % of successes
+        if (retryPolicy.getBudget() != null) {
+            metricsService.registerRetryBudget(retryPolicy.getBudget());
+        }
+
+        // LEARNING: Micro-batching (b.transport=batch) - concurrent calls are collected
+        // for up to batchMaxSize items or batchMaxDelay and sent as ONE BatchWork RPC.
+        // The breaker and bulkhead guard the batch (one permit per RPC on the wire);
+        // retry and ErrorCode mapping stay per item.
+        if ("batch".equalsIgnoreCase(transport)) {
+            batcher = new MicroBatcher(batchMaxSize, batchMaxDelayMicros, this::sendBatch, retryScheduler);
+            logger.info("Transport: batch (maxSize={}, maxDelayUs={})", batchMaxSize, batchMaxDelayMicros);
+        }
+
+        // LEARNING: Streaming (b.transport=stream) - each call is one message on a
+        // long-lived WorkStream instead of its own HTTP/2 stream. Breaker, bulkhead and
+        // retry still apply per call, exactly as on the unary path.
+        if ("stream".equalsIgnoreCase(transport)) {
+            List<Function<StreamObserver<WorkReply>, StreamObserver<WorkRequest>>> openers = new ArrayList<>();
+            for (ManagedChannel ch : channels) {
+                openers.add(DemoServiceGrpc.newStub(ch)::workStream);
+            }
+            streamClient = new WorkStreamClient(openers, streamsPerChannel, retryScheduler,
+                    metricsService::recordStreamReset);
+            logger.info("Transport: stream ({} streams per channel)", streamsPerChannel);
+        }
+
+        // LEARNING: Result cache (opt-in, b.cache.enabled) - B dedups retries too, but only
+        // after they have crossed the network and queued for B's single worker thread.
+        if (cacheEnabled) {
+            resultCache = new ResultCache(cacheMaxBytes, Duration.ofMillis(cacheTtlMs));
+            metricsService.registerResultCache(resultCache);
+            logger.info("Result cache enabled: maxBytes={}, ttlMs={}", cacheMaxBytes, cacheTtlMs);
+        }
+
+        // LEARNING: Hedging (opt-in, b.hedge.enabled) - cuts the tail a single stuck B pod
+        // causes. Delay = live p95 over the last 30s; hedges are capped at budget% of calls.
+        // Needs channel pool > 1: a hedge on the same channel rides the same connection
+        // to the same pod and waits behind the same stuck request.
+        // Successful attempt latency: a retry that can't finish before the request
+        // deadline is not started (see retryAllowed()).
+        attemptLatencies = new LatencyTracker(
+                Duration.ofSeconds(30), 6, Duration.ofMillis(100), 10 * deadlineMs);
+
+        if (hedgeEnabled) {
+            LatencyTracker latencies = new LatencyTracker(
+                    Duration.ofSeconds(30), 6, Duration.ofMillis(100), 10 * deadlineMs);
+            hedger = new Hedger(latencies, new HedgeBudget(hedgeBudgetPercent, 10),
+                    hedgePercentile, hedgeMinDelayMs, 100, metricsService::recordHedge);
+            metricsService.registerHedgeDelay(hedger);
+            logger.info("Hedging enabled: percentile=p{}, budget={}%, minDelayMs={}",
+                    hedgePercentile, hedgeBudgetPercent, hedgeMinDelayMs);
+            if (channelPoolSize < 2) {
+                logger.warn("Hedging with channel pool size {}: hedges share the primary's connection", channelPoolSize);
+            }
+        }
     }
 
     @PreDestroy
     public void shutdown() {
         logger.info("Shutting down ResilientBClient gRPC channel pool (size={})", channelPoolSize);
+        if (streamClient != null) {
+            streamClient.shutdown();
+        }
         if (channels != null) {
             channels.forEach(ManagedChannel::shutdown);
         }
+        if (nettyChannels != null) {
+            // The event loop group outlives every channel on it: give RPCs in flight a moment
+            awaitChannelTermination(5, TimeUnit.SECONDS);
+            nettyChannels.close();
+        }
+        if (retryScheduler != null) {
+            retryScheduler.shutdownNow();
+        }
+    }
+
+    private void awaitChannelTermination(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            for (ManagedChannel ch : channels) {
+                ch.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     @Override
     public WorkResult callWork(String requestId) {
+        return callWork(requestId, null);
+    }
+
+    @Override
+    public CompletableFuture<WorkResult> callWorkAsync(String requestId) {
+        return callWorkAsync(requestId, null);
+    }
+
+    @Override
+    public WorkResult callWork(String requestId, @Nullable Deadline requestDeadline) {
         // LEARNING: Protection layers checked in order of cost (CHEAPEST FIRST).
         // This ordering is CRITICAL for efficiency under overload.
 
+        // LAYER 0: Result cache (opt-in). A repeat of a completed request id never
+        // reaches B, so it must not consume breaker window slots or bulkhead permits.
+        WorkResult cached = cachedResult(requestId);
+        if (cached != null) {
+            return cached;
+        }
+
+        // b.transport=batch: breaker and bulkhead are applied per batch, at flush time.
+        // The future never fails (every outcome is a WorkResult).
+        if (batcher != null) {
+            return callWorkBatched(requestId, requestDeadline).join();
+        }
+
         // LAYER 1: Circuit Breaker check (~1μs, in-memory)
         // Why first? Cheapest operation. When CB is OPEN (shedding load), we reject
-        // requests instantly without touching semaphore, network, or any other resource.
+        // requests instantly without touching the bulkhead, network, or any other resource.
         // In Scenario 3, CB sheds 83% of traffic here → saves thread pool exhaustion.
-        if (!circuitBreaker.tryAcquirePermission()) {
-            logger.warn("Circuit breaker OPEN for request {}", requestId);
-            metricsService.recordCall("Work", 0, null, "CIRCUIT_OPEN");
-            metricsService.recordDownstreamCall(0, ErrorCode.CIRCUIT_OPEN);
-            return new WorkResult(false, ErrorCode.CIRCUIT_OPEN.name(), 0, ErrorCode.CIRCUIT_OPEN);
+        // b.breaker.scope=channel: passes unless every channel's breaker is open; the
+        // permission is then taken per attempt, on the channel the attempt picks.
+        if (!breakers.tryAcquire()) {
+            return circuitOpen(requestId);
         }
 
-        // LAYER 2: Bulkhead check (~1μs, semaphore CAS)
-        // Why second? Still cheap (compare-and-swap), but comes after CB so we don't
-        // waste semaphore permits on requests that would be CB-rejected anyway.
-        // If bulkhead is full (10 concurrent requests already inflight), reject immediately.
-        if (!semaphore.tryAcquire()) {
-            circuitBreaker.releasePermission();
-            logger.warn("Bulkhead full (QUEUE_FULL) for request {}", requestId);
-
-            // NEW: Use standard "BULKHEAD_REJECTED" reason for new metrics
-            metricsService.recordCall("Work", 0, null, "BULKHEAD_REJECTED");
-
-            // LEGACY: Keep QUEUE_FULL for backward compatibility
-            metricsService.recordDownstreamCall(0, ErrorCode.QUEUE_FULL);
+        // LAYER 1b: Adaptive throttle (opt-in) - sheds the share B is refusing
+        if (!throttleAllows()) {
+            breakers.release();
+            return throttled(requestId);
+        }
 
-            return new WorkResult(false, ErrorCode.QUEUE_FULL.name(), 0, ErrorCode.QUEUE_FULL);
+        // LAYER 2: Bulkhead check (~1μs, CAS)
+        // Why second? Still cheap (compare-and-swap), but comes after CB so we don't
+        // waste bulkhead permits on requests that would be CB-rejected anyway.
+        // If bulkhead is full (limit concurrent requests already inflight), reject immediately.
+        if (!limiter.tryAcquire()) {
+            breakers.release();
+            return bulkheadFull(requestId);
         }
 
         // LAYER 3: Actual gRPC call (MOST EXPENSIVE - network I/O)
-        // Now that CB and bulkhead passed, we've acquired a semaphore permit
+        // Now that CB and bulkhead passed, we've acquired a bulkhead permit
         // and can proceed with the expensive network operation.
         long startTime = System.currentTimeMillis();
+        AtomicLong rttNanos = new AtomicLong(-1);
         metricsService.incrementInflight();
-        ErrorCode errorCode = ErrorCode.UNKNOWN;
-
-        // LEARNING: Round-robin channel selection (Scenario 4: channel pool)
-        // With pool=4, requests distribute across 4 independent gRPC channels.
-        // If one channel's TCP connection RST, only ~25% of concurrent requests fail.
-        // Each channel reconnects independently → blast radius contained.
-        DemoServiceGrpc.DemoServiceBlockingStub stub =
-                stubs.get(Math.abs(roundRobin.getAndIncrement() % channelPoolSize));
 
+        // LEARNING: Channel pool (Scenario 4) - with pool=4, requests spread across 4
+        // independent gRPC channels. If one channel's TCP connection RST, only the calls
+        // on it fail, and each channel reconnects independently → blast radius contained.
+        // Each attempt picks its channel (ChannelPicker), so a retry can leave the
+        // channel whose attempt just failed.
         try {
             WorkRequest request = WorkRequest.newBuilder()
                     .setId(requestId)
@@ -247,47 +622,530 @@ public class AppAResilient implements AppAPort {
             // LEARNING: Deadline (timeout) + Retry inside bulkhead protection
             // - withDeadlineAfter(800ms): Cap max wait time. If B is slow (200ms in S3)
             //   and queue wait is high, request times out instead of waiting indefinitely.
-            // - retry.executeSupplier(): Wraps call with retry logic (up to 3 attempts)
+            // - retry.call(): Wraps call with retry logic (up to 3 attempts, jittered backoff)
             //
-            // CRITICAL ORDERING: Retry happens INSIDE semaphore protection.
+            // CRITICAL ORDERING: Retry happens INSIDE bulkhead protection.
             // This means retry attempts count against the bulkhead limit (good!).
-            // If retry happened OUTSIDE semaphore, retries could bypass bulkhead → defeats it.
-            WorkReply reply = retry.executeSupplier(() ->
-                stub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS)
-                    .work(request)
-            );
-
-            long latency = System.currentTimeMillis() - startTime;
-            errorCode = ErrorCode.SUCCESS;
-            circuitBreaker.onSuccess(latency, TimeUnit.MILLISECONDS);
-            metricsService.recordCall("Work", latency, null, null);
-            metricsService.recordDownstreamCall(latency, errorCode);
-
-            return new WorkResult(reply.getOk(), reply.getCode(), latency, errorCode);
-
-        } catch (StatusRuntimeException e) {
-            long latency = System.currentTimeMillis() - startTime;
-            errorCode = ErrorCode.fromGrpcStatus(e.getStatus().getCode());
-            logger.error("gRPC call failed: {} -> {}, requestId={}", e.getStatus(), errorCode, requestId);
-            circuitBreaker.onError(latency, TimeUnit.MILLISECONDS, e);
-            metricsService.recordCall("Work", latency, e, null);
-            metricsService.recordDownstreamCall(latency, errorCode);
-
-            return new WorkResult(false, errorCode.name(), latency, errorCode);
+            // If retry happened OUTSIDE the bulkhead, retries could bypass it → defeats it.
+            //
+            // Request deadline: each attempt's deadline is min(800ms, time left), and a
+            // failure with too little time left for another attempt is final.
+            WorkReply reply = retry.call(() -> classifier.attempt(() -> {
+                Deadline deadline = attemptDeadline(requestDeadline);
+                if (hedger != null) {
+                    return hedgedWork(request, breakers.pickChannel(picker, -1), deadline, requestDeadline, rttNanos);
+                }
+                if (streamClient != null) {
+                    return streamWork(request, deadline, rttNanos);
+                }
+                return blockingWork(request, breakers.pickChannel(picker, -1), deadline, requestDeadline, rttNanos);
+            }, retryAllowed(requestDeadline)));
 
-        } catch (Exception e) {
-            long latency = System.currentTimeMillis() - startTime;
-            errorCode = ErrorCode.UNKNOWN;
-            logger.error("Unexpected error calling B service, requestId={}", requestId, e);
-            circuitBreaker.onError(latency, TimeUnit.MILLISECONDS, e);
-            metricsService.recordCall("Work", latency, e, null);
-            metricsService.recordDownstreamCall(latency, errorCode);
+            return cacheResult(requestId, onReply(reply, startTime, rttNanos.get()));
 
-            return new WorkResult(false, errorCode.name(), latency, errorCode);
+        } catch (Exception e) {
+            return onFailure(e, startTime, requestId, requestDeadline);
 
         } finally {
-            semaphore.release();
             metricsService.decrementInflight();
         }
     }
+
+    @Override
+    public CompletableFuture<WorkResult> callWorkAsync(String requestId, @Nullable Deadline requestDeadline) {
+        // LEARNING: Same layer order as callWork() - CB, then bulkhead, then network.
+        // The only difference is WHEN the permit is released: on future completion
+        // instead of in a finally block, because no thread waits for the reply.
+        WorkResult cached = cachedResult(requestId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        if (batcher != null) {
+            return callWorkBatched(requestId, requestDeadline);
+        }
+
+        if (!breakers.tryAcquire()) {
+            return CompletableFuture.completedFuture(circuitOpen(requestId));
+        }
+
+        if (!throttleAllows()) {
+            breakers.release();
+            return CompletableFuture.completedFuture(throttled(requestId));
+        }
+
+        if (!limiter.tryAcquire()) {
+            breakers.release();
+            return CompletableFuture.completedFuture(bulkheadFull(requestId));
+        }
+
+        long startTime = System.currentTimeMillis();
+        AtomicLong rttNanos = new AtomicLong(-1);
+        metricsService.incrementInflight();
+        WorkRequest request = WorkRequest.newBuilder()
+                .setId(requestId)
+                .build();
+
+        CompletableFuture<WorkReply> reply;
+        try {
+            // LEARNING: Each attempt gets its own deadline (same as the blocking path);
+            // backoff between attempts runs on retryScheduler, so the permit is held
+            // by a pending future - not by a sleeping thread.
+            reply = retry.execute(() -> classifier.attemptAsync(() -> {
+                Deadline deadline = attemptDeadline(requestDeadline);
+                return streamClient != null
+                        ? recordRtt(streamClient.call(request, timeoutMs(deadline)), System.nanoTime(), rttNanos)
+                        : onChannel(breakers.pickChannel(picker, -1), requestDeadline, rttNanos, stub -> stub
+                                .withDeadline(deadline)
+                                .work(request));
+            }, retryAllowed(requestDeadline)));
+        } catch (Exception e) {
+            reply = CompletableFuture.failedFuture(e);
+        }
+
+        return reply
+                .handle((r, error) -> error == null
+                        ? cacheResult(requestId, onReply(r, startTime, rttNanos.get()))
+                        : onFailure(GrpcFutures.unwrap(error), startTime, requestId, requestDeadline))
+                .whenComplete((result, error) -> metricsService.decrementInflight());
+    }
+
+    /**
+     * One item through the micro-batcher. Retry wraps the submission, so a failed item
+     * (e.g. RESOURCE_EXHAUSTED) re-joins a later batch on its own. The batch RPC keeps
+     * the per-attempt deadline (items share it); the request deadline gates retries.
+     * The throttle judges items (the breaker and bulkhead judge the batch RPC).
+     */
+    private CompletableFuture<WorkResult> callWorkBatched(String requestId, @Nullable Deadline requestDeadline) {
+        if (!throttleAllows()) {
+            return CompletableFuture.completedFuture(throttled(requestId));
+        }
+
+        long startTime = System.currentTimeMillis();
+        metricsService.incrementInflight();
+        WorkRequest request = WorkRequest.newBuilder()
+                .setId(requestId)
+                .build();
+
+        CompletableFuture<WorkReply> reply;
+        try {
+            reply = retry.execute(
+                    () -> classifier.attemptAsync(() -> batcher.submit(request), retryAllowed(requestDeadline)));
+        } catch (Exception e) {
+            reply = CompletableFuture.failedFuture(e);
+        }
+
+        return reply
+                .handle((r, error) -> {
+                    long latency = System.currentTimeMillis() - startTime;
+                    if (error == null) {
+                        return cacheResult(requestId, recordSuccess(r, latency));
+                    }
+                    Throwable cause = GrpcFutures.unwrap(error);
+                    CallOutcome outcome = classifier.classify(cause);
+                    if (outcome == CallOutcome.CIRCUIT_OPEN) {
+                        return circuitOpen(requestId);
+                    }
+                    if (outcome == CallOutcome.BULKHEAD_REJECTED) {
+                        return bulkheadFull(requestId);
+                    }
+                    return recordFailure(cause, outcome, latency, requestId);
+                })
+                .whenComplete((result, error) -> metricsService.decrementInflight());
+    }
+
+    /**
+     * MicroBatcher sender: one BatchWork RPC under one breaker permission and one
+     * bulkhead permit. The breaker and limiter judge the RPC (timeouts, resets), and
+     * an RPC whose items came back overloaded or unavailable counts as that failure;
+     * each failed item is then retried on its own.
+     *
+     * LEARNING: B answers an overloaded batch with a successful RPC whose items all
+     * say RESOURCE_EXHAUSTED. Judged on the RPC alone, that is a success: the breaker
+     * never opens and the limiter GROWS while B sheds every item.
+     */
+    private CompletableFuture<List<WorkReply>> sendBatch(List<WorkRequest> items) {
+        if (!breakers.tryAcquire()) {
+            return CompletableFuture.failedFuture(breakers.notPermitted());
+        }
+        if (!limiter.tryAcquire()) {
+            breakers.release();
+            return CompletableFuture.failedFuture(new BulkheadFullException("Bulkhead full for batch of " + items.size()));
+        }
+
+        long startTime = System.currentTimeMillis();
+        AtomicLong rttNanos = new AtomicLong(-1);
+        metricsService.recordBatchSize(items.size());
+        BatchWorkRequest request = BatchWorkRequest.newBuilder()
+                .addAllRequests(items)
+                .build();
+
+        CompletableFuture<BatchWorkReply> reply;
+        try {
+            reply = onChannel(breakers.pickChannel(picker, -1), null, rttNanos, stub -> stub
+                    .withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS)
+                    .batchWork(request), AppAResilient::overloadedItem);
+        } catch (Exception e) {
+            reply = CompletableFuture.failedFuture(e);
+        }
+
+        return reply
+                .whenComplete((r, error) -> {
+                    long latency = System.currentTimeMillis() - startTime;
+                    Throwable failure = error != null ? GrpcFutures.unwrap(error) : overloadedItem(r);
+                    if (failure == null) {
+                        breakers.onCallSuccess(latency, rttNanos.get());
+                        limiter.onSuccess(latency, TimeUnit.MILLISECONDS);
+                    } else {
+                        breakers.onCallError(latency, failure);
+                        releaseLimiter(classifier.classify(failure).errorCode());
+                    }
+                })
+                .thenApply(BatchWorkReply::getRepliesList);
+    }
+
+    /**
+     * The first item of a batch reply that B shed (RESOURCE_EXHAUSTED) or could not
+     * serve (UNAVAILABLE), as its per-item error; null if there is none.
+     */
+    @Nullable
+    static StatusRuntimeException overloadedItem(BatchWorkReply reply) {
+        for (WorkReply item : reply.getRepliesList()) {
+            if (item.getOk()) {
+                continue;
+            }
+            StatusRuntimeException failure = MicroBatcher.itemFailure(item);
+            Status.Code code = failure.getStatus().getCode();
+            if (code == Status.Code.RESOURCE_EXHAUSTED || code == Status.Code.UNAVAILABLE) {
+                return failure;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Release the bulkhead permit, telling the limiter whether this failure means B is
+     * overloaded. Only timeouts and B's own RESOURCE_EXHAUSTED shrink the limit; a reset
+     * connection or a client bug says nothing about B's capacity.
+     */
+    private void releaseLimiter(ErrorCode errorCode) {
+        if (errorCode == ErrorCode.DEADLINE_EXCEEDED || errorCode == ErrorCode.BACKEND_ERROR) {
+            limiter.onDropped();
+        } else {
+            limiter.onIgnore();
+        }
+    }
+
+    private WorkResult cachedResult(String requestId) {
+        return resultCache == null ? null : resultCache.getIfPresent(requestId);
+    }
+
+    private WorkResult cacheResult(String requestId, WorkResult result) {
+        if (resultCache != null) {
+            resultCache.put(requestId, result);
+        }
+        return result;
+    }
+
+    /**
+     * One unary attempt on a blocking stub, counted as outstanding on its channel.
+     * On success its RTT goes to {@code rttNanos} (the call's limiter sample).
+     */
+    private WorkReply blockingWork(WorkRequest request, int channel, Deadline deadline,
+                                   @Nullable Deadline requestDeadline, AtomicLong rttNanos) {
+        picker.onStart(channel);
+        long startNanos = System.nanoTime();
+        Throwable error = null;
+        try {
+            return stubs.get(channel)
+                    .withDeadline(deadline)
+                    .work(request);
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            onChannelDone(channel, error, startNanos, requestDeadline, rttNanos);
+        }
+    }
+
+    /**
+     * Start one RPC on a future stub, counted as outstanding on its channel until it
+     * completes (including cancellation - the returned future still cancels the RPC).
+     *
+     * @param requestDeadline the caller's deadline (see onChannelDone); null = none
+     * @param rttNanos set to the RPC's RTT if it succeeds; null = not needed
+     */
+    private <T> CompletableFuture<T> onChannel(int channel, @Nullable Deadline requestDeadline,
+                                               @Nullable AtomicLong rttNanos,
+                                               Function<DemoServiceGrpc.DemoServiceFutureStub, ListenableFuture<T>> call) {
+        return onChannel(channel, requestDeadline, rttNanos, call, r -> null);
+    }
+
+    /**
+     * {@link #onChannel(int, Deadline, AtomicLong, Function)}, where a reply can still count
+     * as a failure on the channel: {@code failureOf} returns the error to record, or null.
+     */
+    private <T> CompletableFuture<T> onChannel(int channel, @Nullable Deadline requestDeadline,
+                                               @Nullable AtomicLong rttNanos,
+                                               Function<DemoServiceGrpc.DemoServiceFutureStub, ListenableFuture<T>> call,
+                                               Function<T, Throwable> failureOf) {
+        picker.onStart(channel);
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = GrpcFutures.toCompletableFuture(call.apply(futureStubs.get(channel)));
+        } catch (RuntimeException e) {
+            onChannelDone(channel, e, startNanos, requestDeadline, rttNanos);
+            throw e;
+        }
+        return GrpcFutures.afterCompletion(future, (r, error) ->
+                onChannelDone(channel, error != null ? error : failureOf.apply(r), startNanos, requestDeadline, rttNanos));
+    }
+
+    /**
+     * One RPC on the channel finished: release it in the picker, feed outlier detection
+     * and the breaker scope (which counts it only with b.breaker.scope=channel). A
+     * cancelled RPC (hedge loser) says nothing about the channel, nor does one cut off
+     * by the caller's own deadline.
+     */
+    private void onChannelDone(int channel, Throwable error, long startNanos, @Nullable Deadline requestDeadline,
+                               @Nullable AtomicLong rttNanos) {
+        picker.onComplete(channel);
+        if (callerDeadlineExpired(error, requestDeadline)) {
+            breakers.onRpcCancelled(channel);
+            return;
+        }
+        if (error == null) {
+            long rtt = System.nanoTime() - startNanos;
+            attemptLatencies.record(TimeUnit.NANOSECONDS.toMillis(rtt));
+            if (rttNanos != null) {
+                rttNanos.set(rtt);
+            }
+        }
+        Status.Code code = error == null ? Status.Code.OK : Status.fromThrowable(error).getCode();
+        if (outlierDetector != null) {
+            outlierDetector.onResult(channel, code);
+        }
+        long durationNanos = System.nanoTime() - startNanos;
+        if (error == null) {
+            breakers.onRpcSuccess(channel, durationNanos);
+        } else if (code == Status.Code.CANCELLED) {
+            breakers.onRpcCancelled(channel);
+        } else {
+            breakers.onRpcError(channel, durationNanos, error);
+        }
+    }
+
+    /** Deadline for one attempt: b.deadline.ms, or less if the request deadline is sooner. */
+    private Deadline attemptDeadline(@Nullable Deadline requestDeadline) {
+        Deadline perAttempt = Deadline.after(deadlineMs, TimeUnit.MILLISECONDS);
+        return requestDeadline == null ? perAttempt : perAttempt.minimum(requestDeadline);
+    }
+
+    /** Remaining ms for APIs that take a timeout (WorkStreamClient); at least 1. */
+    private static long timeoutMs(Deadline deadline) {
+        return Math.max(1, deadline.timeRemaining(TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Asked when an attempt fails with a retryable error: is there time for another?
+     * Needs the backoff plus a typical (p50) successful attempt before the request
+     * deadline - a retry that would be cut off by it only adds load on B.
+     */
+    private BooleanSupplier retryAllowed(@Nullable Deadline requestDeadline) {
+        if (requestDeadline == null) {
+            return () -> true;
+        }
+        return () -> retryFits(requestDeadline, retry.getBaseDelayMs(), expectedAttemptMs());
+    }
+
+    /** Whether the backoff plus an expected attempt still end before the request deadline. */
+    static boolean retryFits(Deadline requestDeadline, long backoffMs, long expectedAttemptMs) {
+        return requestDeadline.timeRemaining(TimeUnit.MILLISECONDS) > backoffMs + expectedAttemptMs;
+    }
+
+    /**
+     * A DEADLINE_EXCEEDED once the caller's own deadline has run out: the caller's
+     * budget ended, which says nothing about B. Not counted by the breaker, outlier
+     * detection, limiter or throttle - else a caller sending tiny X-Request-Timeout-Ms
+     * values could open the breaker and eject healthy channels for everyone.
+     */
+    static boolean callerDeadlineExpired(@Nullable Throwable error, @Nullable Deadline requestDeadline) {
+        return error != null && requestDeadline != null && requestDeadline.isExpired()
+                && Status.fromThrowable(error).getCode() == Status.Code.DEADLINE_EXCEEDED;
+    }
+
+    /** p50 of successful attempts over the last 30s; 0 until there are enough samples. */
+    private long expectedAttemptMs() {
+        if (attemptLatencies.getTotalCount() < ATTEMPT_LATENCY_MIN_SAMPLES) {
+            return 0;
+        }
+        return attemptLatencies.getValueAtPercentile(50.0);
+    }
+
+    private boolean throttleAllows() {
+        return throttle == null || throttle.tryAcquire();
+    }
+
+    /**
+     * Tell the throttle how B answered a call it let through. Overload (timeout,
+     * RESOURCE_EXHAUSTED) and unreachable B count as refused; any other answer from B
+     * as accepted. Local rejections (breaker, bulkhead) are not B's answer: not counted.
+     */
+    private void recordThrottle(CallOutcome outcome) {
+        if (throttle == null) {
+            return;
+        }
+        switch (outcome.reason()) {
+            case CIRCUIT_OPEN, BULKHEAD_REJECTED, THROTTLED, REQUEST_DEADLINE -> { }
+            case TIMEOUT, BACKEND_ERROR, CONNECTION_FAILURE -> throttle.onRefused();
+            default -> throttle.onAccepted();
+        }
+    }
+
+    private LatencySloTrigger newLatencyTrigger() {
+        return new LatencySloTrigger(breakerLatencyPercentile, breakerLatencySloMs, breakerLatencyMinSamples,
+                () -> new LatencyTracker(Duration.ofMillis(breakerLatencyWindowMs), 10,
+                        Duration.ofMillis(100), 10 * deadlineMs));
+    }
+
+    private void onChannelEjected(int channel) {
+        logger.warn("Channel {} ejected from the pool (outlier detection)", channel);
+        metricsService.recordChannelEjection(channel);
+    }
+
+    /**
+     * One attempt, hedged: primary on {@code channel}, hedge (if slow) on another channel
+     * picked the same way. Both copies share one deadline and the same request id
+     * (idempotent in B).
+     */
+    private WorkReply hedgedWork(WorkRequest request, int channel, Deadline deadline,
+                                 @Nullable Deadline requestDeadline, AtomicLong rttNanos) {
+        return hedger.call(
+                () -> onChannel(channel, requestDeadline, rttNanos, stub -> stub.withDeadline(deadline).work(request)),
+                () -> {
+                    try {
+                        return onChannel(breakers.pickChannel(picker, channel), requestDeadline, rttNanos,
+                                stub -> stub.withDeadline(deadline).work(request));
+                    } catch (CircuitOpenException e) {
+                        return CompletableFuture.failedFuture(e);   // no healthy peer: primary alone decides
+                    }
+                });
+    }
+
+    /** Blocking wait for one WorkStream message, rethrowing its StatusRuntimeException. */
+    private WorkReply streamWork(WorkRequest request, Deadline deadline, AtomicLong rttNanos) {
+        try {
+            return recordRtt(streamClient.call(request, timeoutMs(deadline)), System.nanoTime(), rttNanos).join();
+        } catch (CompletionException e) {
+            Throwable cause = GrpcFutures.unwrap(e);
+            throw cause instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    /** Stream attempts have no channel: time them from the send to the reply instead. */
+    private static <T> CompletableFuture<T> recordRtt(CompletableFuture<T> attempt, long startNanos, AtomicLong rttNanos) {
+        return GrpcFutures.afterCompletion(attempt, (r, error) -> {
+            if (error == null) {
+                rttNanos.set(System.nanoTime() - startNanos);
+            }
+        });
+    }
+
+    private WorkResult circuitOpen(String requestId) {
+        logger.warn("Circuit breaker OPEN for request {}", requestId);
+        metricsService.recordCall("Work", 0, CallOutcome.CIRCUIT_OPEN);
+        metricsService.recordDownstreamCall(0, ErrorCode.CIRCUIT_OPEN);
+        return new WorkResult(false, ErrorCode.CIRCUIT_OPEN.name(), 0, ErrorCode.CIRCUIT_OPEN);
+    }
+
+    private WorkResult requestDeadlineExpired(String requestId, long latency) {
+        logger.warn("Request deadline expired for request {} after {}ms", requestId, latency);
+        metricsService.recordCall("Work", latency, CallOutcome.REQUEST_DEADLINE);
+        metricsService.recordDownstreamCall(latency, ErrorCode.DEADLINE_EXCEEDED);
+        return new WorkResult(false, ErrorCode.DEADLINE_EXCEEDED.name(), latency, ErrorCode.DEADLINE_EXCEEDED);
+    }
+
+    private WorkResult throttled(String requestId) {
+        logger.warn("Adaptive throttle rejected request {}", requestId);
+        metricsService.recordCall("Work", 0, CallOutcome.THROTTLED);
+        metricsService.recordDownstreamCall(0, ErrorCode.THROTTLED);
+        return new WorkResult(false, ErrorCode.THROTTLED.name(), 0, ErrorCode.THROTTLED);
+    }
+
+    private WorkResult bulkheadFull(String requestId) {
+        logger.warn("Bulkhead full (QUEUE_FULL) for request {}", requestId);
+
+        // NEW: Use standard "BULKHEAD_REJECTED" reason for new metrics
+        metricsService.recordCall("Work", 0, CallOutcome.BULKHEAD_REJECTED);
+
+        // LEGACY: Keep QUEUE_FULL for backward compatibility
+        metricsService.recordDownstreamCall(0, ErrorCode.QUEUE_FULL);
+
+        return new WorkResult(false, ErrorCode.QUEUE_FULL.name(), 0, ErrorCode.QUEUE_FULL);
+    }
+
+    /**
+     * @param rttNanos RTT of the attempt that succeeded, or -1 if unknown. The limiter
+     *                 and the breaker's latency SLO get that, not the whole call: failed
+     *                 attempts, backoff sleeps and the hedge delay are not B queueing,
+     *                 and would shrink the limit or open the breaker.
+     */
+    private WorkResult onReply(WorkReply reply, long startTime, long rttNanos) {
+        long latency = System.currentTimeMillis() - startTime;
+        breakers.onCallSuccess(latency, rttNanos);
+        if (rttNanos >= 0) {
+            limiter.onSuccess(rttNanos, TimeUnit.NANOSECONDS);
+        } else {
+            limiter.onSuccess(latency, TimeUnit.MILLISECONDS);
+        }
+        return recordSuccess(reply, latency);
+    }
+
+    private WorkResult onFailure(Throwable e, long startTime, String requestId, @Nullable Deadline requestDeadline) {
+        long latency = System.currentTimeMillis() - startTime;
+        if (callerDeadlineExpired(e, requestDeadline)) {
+            breakers.release();
+            limiter.onIgnore();
+            return requestDeadlineExpired(requestId, latency);
+        }
+        // The one classification of this failure (carried from the attempt when it was
+        // wrapped) drives metrics, ErrorCode and the limiter signal alike.
+        CallOutcome outcome = classifier.classify(e);
+        if (outcome == CallOutcome.CIRCUIT_OPEN || outcome == CallOutcome.BULKHEAD_REJECTED) {
+            // Refused here (e.g. no channel breaker permits the attempt), not by B:
+            // give the permits back uncounted, as if tryAcquire() had refused the call
+            breakers.release();
+            limiter.onIgnore();
+            return outcome == CallOutcome.CIRCUIT_OPEN ? circuitOpen(requestId) : bulkheadFull(requestId);
+        }
+        WorkResult result = recordFailure(e, outcome, latency, requestId);
+        breakers.onCallError(latency, e);
+        releaseLimiter(outcome.errorCode());
+        return result;
+    }
+
+    private WorkResult recordSuccess(WorkReply reply, long latency) {
+        retryPolicy.onSuccess();
+        recordThrottle(CallOutcome.SUCCESS);
+        metricsService.recordCall("Work", latency, CallOutcome.SUCCESS);
+        metricsService.recordDownstreamCall(latency, ErrorCode.SUCCESS);
+
+        return new WorkResult(reply.getOk(), reply.getCode(), latency, ErrorCode.SUCCESS);
+    }
+
+    private WorkResult recordFailure(Throwable e, CallOutcome outcome, long latency, String requestId) {
+        ErrorCode errorCode = outcome.errorCode();
+        Throwable cause = e instanceof ClassifiedException ? e.getCause() : e;
+        if (cause instanceof StatusRuntimeException sre) {
+            logger.error("gRPC call failed: {} -> {}, requestId={}", sre.getStatus(), errorCode, requestId);
+        } else {
+            logger.error("Unexpected error calling B service, requestId={}", requestId, cause);
+        }
+        recordThrottle(outcome);
+        metricsService.recordCall("Work", latency, outcome);
+        metricsService.recordDownstreamCall(latency, errorCode);
+
+        return new WorkResult(false, errorCode.name(), latency, errorCode);
+    }
 }
@@ -1,14 +1,14 @@
 package com.demo.appa;
 
+import com.demo.appa.observability.CallOutcome;
+import com.demo.appa.observability.GrpcErrorClassifier;
+import com.demo.appa.retry.AsyncRetryExecutor;
 import com.demo.appa.retry.RetryDecisionPolicy;
 import com.demo.grpc.DemoServiceGrpc;
 import com.demo.grpc.WorkReply;
 import com.demo.grpc.WorkRequest;
-import io.github.resilience4j.retry.Retry;
-import io.github.resilience4j.retry.RetryConfig;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
-import io.grpc.StatusRuntimeException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
@@ -17,6 +17,9 @@ import org.springframework.stereotype.Component;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Scenario 2: Retry + Idempotency (no circuit breaker/bulkhead/deadline).
@@ -30,45 +33,73 @@ import java.time.Duration;
  * in isolation so learners can observe the anti-pattern before Scenario 3 fixes it.
  */
 @Component
-@ConditionalOnExpression("'${retry.enabled:false}' == 'true' && '${resilience.enabled:false}' == 'false'")
+@ConditionalOnExpression("'${retry.enabled:false}' == 'true' && '${resilience.enabled:false}' == 'false' && '${reactive.enabled:false}' == 'false'")
 public class AppARetry implements AppAPort {
 
     @Value("${b.service.url}")
     private String bServiceUrl;
 
+    @Value("${retry.backoff.base-ms:50}")
+    private long retryBaseDelayMs;
+
+    @Value("${retry.backoff.max-ms:1000}")
+    private long retryMaxDelayMs;
+
     @Autowired
     private MetricsService metricsService;
 
     @Autowired
     private RetryDecisionPolicy retryPolicy;
 
+    @Autowired
+    private GrpcErrorClassifier classifier;
+
     private ManagedChannel channel;
     private DemoServiceGrpc.DemoServiceBlockingStub stub;
-    private Retry retry;
+    private DemoServiceGrpc.DemoServiceFutureStub futureStub;
+    private AsyncRetryExecutor retry;
+    private ScheduledExecutorService retryScheduler;
 
     @PostConstruct
     public void init() {
-        // LEARNING: Plain gRPC channel - retry is handled by Resilience4j wrapper (below).
+        // LEARNING: Plain gRPC channel - retry is handled by AsyncRetryExecutor (below).
         // Still no timeout, no keepalive, no bulkhead (those come in Scenario 3).
         channel = ManagedChannelBuilder.forTarget(bServiceUrl)
             .usePlaintext()
             .build();
         stub = DemoServiceGrpc.newBlockingStub(channel);
+        futureStub = DemoServiceGrpc.newFutureStub(channel);
 
-        // LEARNING: Resilience4j Retry configuration:
+        // LEARNING: Async retries wait out the backoff on a timer instead of sleeping a
+        // request thread. One daemon thread is enough - it only schedules re-attempts.
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "app-a-retry-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // LEARNING: Retry configuration (AsyncRetryExecutor):
         // - maxAttempts=3: Will try up to 3 times (1 initial + 2 retries)
-        // - waitDuration=50ms: Exponential backoff starting at 50ms
-        // - retryOnException: Uses RetryDecisionPolicy for classifier-based retry gating
+        // - backoff: decorrelated jitter from 50ms - random(50ms, 3 × previous), capped -
+        //   so calls that failed together don't retry together
+        // - retryOn: Uses RetryDecisionPolicy for classifier-based retry gating
         //
         // CRITICAL: Only retries errors marked retryable=true by GrpcErrorClassifier:
         //   ✅ BACKEND_ERROR (RESOURCE_EXHAUSTED) → retryable
         //   ❌ CIRCUIT_OPEN, BULKHEAD_REJECTED → NOT retryable (would defeat protection)
-        RetryConfig retryConfig = RetryConfig.custom()
-            .maxAttempts(3)
-            .waitDuration(Duration.ofMillis(50))
-            .retryOnException(e -> retryPolicy.shouldRetry(e, null))
-            .build();
-        retry = Retry.of("app-a-retry", retryConfig);
+        // Attempts run through classifier.attempt*(): each failure is classified once and
+        // the predicate reads the carried outcome.
+        retry = new AsyncRetryExecutor(3,
+            Duration.ofMillis(retryBaseDelayMs), Duration.ofMillis(retryMaxDelayMs),
+            e -> retryPolicy.shouldRetry(classifier.classify(e)),
+            retryScheduler);
+
+        // LEARNING: retry.budget.enabled=true is the fix for the amplification above:
+        // one RetryBudget shared by all requests caps retries at retry.budget.percent of
+        // successes, so a failing B stops getting retries (see RetryBudget).
+        if (retryPolicy.getBudget() != null) {
+            metricsService.registerRetryBudget(retryPolicy.getBudget());
+        }
     }
 
     @Override
@@ -76,44 +107,76 @@ public class AppARetry implements AppAPort {
         long start = System.currentTimeMillis();
 
         try {
-            // LEARNING: retry.executeSupplier() wraps the gRPC call with retry logic.
+            // LEARNING: retry.call() wraps the gRPC call with retry logic.
             // When B returns RESOURCE_EXHAUSTED:
             //   1. Attempt 1 fails → RetryDecisionPolicy checks retryable=true → retry
-            //   2. Wait 50ms (exponential backoff)
+            //   2. Wait 50-150ms (jittered backoff, sleeps this request thread)
             //   3. Attempt 2 with SAME requestId → B checks idempotency cache → may hit
-            //   4. If still fails, wait 100ms, attempt 3
+            //   4. If still fails, wait 50ms-3× the first wait, attempt 3
             //   5. After 3 attempts exhausted → throw exception to caller
             //
             // Result: Visible error rate drops from 30% → ~3% (0.3³ = 2.7%)
             // Cost: Downstream RPC volume increases ~1.3× (retry amplification)
             //
-            // DEMO LIMITATION: requestId is generated by App-A (see WorkController).
+            // DEMO LIMITATION: requestId is generated by App-A (see WorkController) unless
+            // the caller sends an Idempotency-Key / X-Request-Id header.
             // Production pattern: Idempotency key comes from END CLIENT (user's browser/mobile app).
             // Why? User clicks "Submit Order" → generates UUID → ALL retry attempts (across
             // any A pod, any B pod) carry same UUID. Backend deduplicates using shared cache.
             // Demo simplification: A generates ID to show retry mechanics without client layer.
-            WorkReply reply = retry.executeSupplier(() ->
+            WorkReply reply = retry.call(() -> classifier.attempt(() ->
                 stub.work(WorkRequest.newBuilder().setId(requestId).build())
-            );
+            ));
 
             long latency = System.currentTimeMillis() - start;
-            metricsService.recordCall("Work", latency, null, null);
+            retryPolicy.onSuccess();
+            metricsService.recordCall("Work", latency, CallOutcome.SUCCESS);
             metricsService.recordDownstreamCall(latency, ErrorCode.SUCCESS);
             return new WorkResult(true, "SUCCESS", latency, ErrorCode.SUCCESS);
 
-        } catch (StatusRuntimeException e) {
+        } catch (RuntimeException e) {
             // LEARNING: This exception means all 3 retry attempts failed.
             // Latency includes all retry attempts + backoff delays.
             long latency = System.currentTimeMillis() - start;
-            ErrorCode code = ErrorCode.fromGrpcStatus(e.getStatus().getCode());
-            metricsService.recordCall("Work", latency, e, null);
+            CallOutcome outcome = classifier.classify(e);
+            ErrorCode code = outcome.errorCode();
+            metricsService.recordCall("Work", latency, outcome);
             metricsService.recordDownstreamCall(latency, code);
             return new WorkResult(false, code.name(), latency, code);
         }
     }
 
+    @Override
+    public CompletableFuture<WorkResult> callWorkAsync(String requestId) {
+        long start = System.currentTimeMillis();
+        WorkRequest request = WorkRequest.newBuilder().setId(requestId).build();
+
+        // LEARNING: Same retry policy as callWork(), driven by retry.execute():
+        // each attempt is a future-stub call, each backoff is a scheduled task.
+        // No thread is parked while B is slow or while waiting to retry.
+        return retry.execute(() -> classifier.attemptAsync(() ->
+                GrpcFutures.toCompletableFuture(futureStub.work(request))
+            ))
+            .handle((reply, error) -> {
+                long latency = System.currentTimeMillis() - start;
+                if (error == null) {
+                    retryPolicy.onSuccess();
+                    metricsService.recordCall("Work", latency, CallOutcome.SUCCESS);
+                    metricsService.recordDownstreamCall(latency, ErrorCode.SUCCESS);
+                    return new WorkResult(true, "SUCCESS", latency, ErrorCode.SUCCESS);
+                }
+
+                CallOutcome outcome = classifier.classify(GrpcFutures.unwrap(error));
+                ErrorCode code = outcome.errorCode();
+                metricsService.recordCall("Work", latency, outcome);
+                metricsService.recordDownstreamCall(latency, code);
+                return new WorkResult(false, code.name(), latency, code);
+            });
+    }
+
     @PreDestroy
     public void shutdown() {
         channel.shutdown();
+        retryScheduler.shutdownNow();
     }
 }
@@ -20,6 +20,12 @@ public enum ErrorCode {
     /** Request rejected because circuit breaker is open */
     CIRCUIT_OPEN,
 
+    /** Request rejected locally by adaptive throttling (B is accepting fewer calls than A sends) */
+    THROTTLED,
+
+    /** Request shed at ingress (admission control) before any work was done */
+    SHED,
+
     /** Backend returned an error (RESOURCE_EXHAUSTED, retryable) */
     BACKEND_ERROR,
 
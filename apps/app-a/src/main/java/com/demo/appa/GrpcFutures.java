@@ -0,0 +1,91 @@
+package com.demo.appa;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+
+/**
+ * Bridges gRPC future stubs (Guava ListenableFuture) to CompletableFuture.
+ *
+ * LEARNING: Cancelling the returned future cancels the underlying RPC, so callers
+ * that give up (timeouts, hedging, client disconnect) release the HTTP/2 stream
+ * instead of leaving B to finish work nobody is waiting for.
+ */
+public final class GrpcFutures {
+
+    private GrpcFutures() {
+    }
+
+    public static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> listenable) {
+        CompletableFuture<T> future = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                listenable.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        Futures.addCallback(listenable, new FutureCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+
+    /**
+     * A future that completes like {@code future}, but only after {@code action} has run
+     * on its outcome; cancelling it cancels {@code future} (and so the RPC).
+     *
+     * LEARNING: A CompletableFuture runs its dependents newest first. An action added
+     * with future.whenComplete() before the future is handed out therefore runs AFTER
+     * the caller's own callbacks - too late for state the caller reads (e.g. the
+     * attempt's RTT). Chaining through this future puts the action first.
+     */
+    public static <T> CompletableFuture<T> afterCompletion(CompletableFuture<T> future,
+                                                           BiConsumer<? super T, ? super Throwable> action) {
+        CompletableFuture<T> result = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                future.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        future.whenComplete((value, error) -> {
+            try {
+                action.accept(value, error);
+            } finally {
+                if (error == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(error);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Strip CompletableFuture wrapper exceptions so callers see the original
+     * StatusRuntimeException (what the classifier and ErrorCode mapping expect).
+     */
+    public static Throwable unwrap(Throwable t) {
+        Throwable current = t;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+}
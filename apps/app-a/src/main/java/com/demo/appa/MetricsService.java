@@ -1,32 +1,72 @@
 package com.demo.appa;
 
+import com.demo.appa.admission.CoDelAdmission;
+import com.demo.appa.admission.Criticality;
+import com.demo.appa.breaker.LatencySloTrigger;
+import com.demo.appa.cache.ResultCache;
+import com.demo.appa.hedge.HedgeOutcome;
+import com.demo.appa.hedge.Hedger;
+import com.demo.appa.limit.ConcurrencyLimiter;
 import com.demo.appa.observability.CallOutcome;
+import com.demo.appa.observability.ErrorReason;
 import com.demo.appa.observability.GrpcErrorClassifier;
+import com.demo.appa.pool.ChannelPicker;
+import com.demo.appa.pool.OutlierDetector;
+import com.demo.appa.retry.RetryBudget;
+import com.demo.appa.throttle.AdaptiveThrottle;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Metrics service for tracking downstream calls to service B.
  * Exposes metrics via /actuator/prometheus endpoint.
+ *
+ * LEARNING: Per-request meters are registered ONCE, up front. Counter.builder(...)
+ * .tag(...).register(registry) on the hot path builds a tag list and a Meter.Id and
+ * does a registry lookup on every call - garbage and CPU at 200+ QPS for a meter that
+ * already exists. Instead, every label combination is a pre-registered meter held in
+ * an EnumMap (or array) indexed by the label values, so recording is a lookup plus
+ * increment()/record() with no allocation. Side effect: all series exist from startup
+ * (at 0), so rate() works before the first error of a kind.
  */
 @Service
 public class MetricsService {
+    static final String DEFAULT_METHOD = "Work";
+
     private final MeterRegistry registry;
 
     @Autowired
     private GrpcErrorClassifier classifier;
     private final Timer downstreamLatency;
+    private final Timer virtualThreadPinned;
     private final AtomicInteger inflightRequests;
     private final AtomicInteger breakerState;
+    private volatile AtomicInteger[] channelBreakerStates;
+
+    private final EnumMap<ErrorCode, Counter> downstreamErrors = new EnumMap<>(ErrorCode.class);
+    private final Map<String, CallMeters> callMeters = new ConcurrentHashMap<>();
+    private final EnumMap<HedgeOutcome, Counter> hedges = new EnumMap<>(HedgeOutcome.class);
+    private final Counter coalescedHits;
+    private final Timer ingressQueueDelay;
+    private final EnumMap<Criticality, Counter> ingressShed = new EnumMap<>(Criticality.class);
+    private final DistributionSummary batchSize;
+    private final Counter streamResets;
+    private volatile Counter[] channelEjections = new Counter[0];
 
     public MetricsService(MeterRegistry registry) {
         this.registry = registry;
@@ -41,6 +81,21 @@ public class MetricsService {
                 .publishPercentiles(0.95, 0.99)
                 .register(registry);
 
+        // Timer for virtual-thread carrier pinning (execution.mode=virtual only)
+        this.virtualThreadPinned = Timer.builder("a_virtual_thread_pinned_ms")
+                .description("Virtual thread pinning events (carrier blocked while pinned)")
+                .register(registry);
+
+        this.ingressQueueDelay = Timer.builder("a_ingress_queue_delay")
+                .description("Time /api/work requests waited for an ingress admission slot")
+                .register(registry);
+        for (Criticality criticality : Criticality.values()) {
+            ingressShed.put(criticality, Counter.builder("a_ingress_shed_total")
+                    .description("Requests shed at ingress (admission control) by criticality")
+                    .tag("criticality", criticality.name())
+                    .register(registry));
+        }
+
         // Gauge for inflight requests
         Gauge.builder("a_downstream_inflight", inflightRequests, AtomicInteger::get)
                 .description("Number of in-flight requests to downstream B")
@@ -48,9 +103,46 @@ public class MetricsService {
                 .register(registry);
 
         // Gauge for circuit breaker state (0=closed, 1=open, 2=half-open)
+        // channel="all": the service-level state (with b.breaker.scope=channel, OPEN
+        // only when every channel's breaker is open); per-channel series share the name
         Gauge.builder("a_breaker_state", breakerState, AtomicInteger::get)
                 .description("Circuit breaker state for downstream B")
                 .tag("downstream", "B")
+                .tag("channel", "all")
+                .register(registry);
+
+        for (ErrorCode code : ErrorCode.values()) {
+            downstreamErrors.put(code, Counter.builder("a_downstream_errors_total")
+                    .description("Total errors by code for downstream B")
+                    .tag("downstream", "B")
+                    .tag("method", DEFAULT_METHOD)
+                    .tag("code", code.name())
+                    .register(registry));
+        }
+
+        callMeters.put(DEFAULT_METHOD, new CallMeters(registry, DEFAULT_METHOD));
+
+        for (HedgeOutcome outcome : HedgeOutcome.values()) {
+            hedges.put(outcome, Counter.builder("a_hedge_total")
+                    .description("Hedged calls to downstream B by outcome")
+                    .tag("downstream", "B")
+                    .tag("outcome", outcome.name())
+                    .register(registry));
+        }
+
+        this.coalescedHits = Counter.builder("a_coalesced_total")
+                .description("Calls served by joining an in-flight call with the same request id")
+                .tag("downstream", "B")
+                .register(registry);
+
+        this.batchSize = DistributionSummary.builder("a_batch_size")
+                .description("Items per BatchWork RPC to downstream B")
+                .tag("downstream", "B")
+                .register(registry);
+
+        this.streamResets = Counter.builder("a_work_stream_resets_total")
+                .description("WorkStream RPCs to downstream B reset or closed by the server")
+                .tag("downstream", "B")
                 .register(registry);
     }
 
@@ -58,6 +150,74 @@ public class MetricsService {
         breakerState.set(state);
     }
 
+    /** Export one a_breaker_state{channel} series per pool channel (b.breaker.scope=channel). */
+    public void registerChannelBreakerStates(int size) {
+        AtomicInteger[] states = new AtomicInteger[size];
+        for (int i = 0; i < size; i++) {
+            states[i] = new AtomicInteger(0);
+            Gauge.builder("a_breaker_state", states[i], AtomicInteger::get)
+                    .description("Circuit breaker state for downstream B")
+                    .tag("downstream", "B")
+                    .tag("channel", String.valueOf(i))
+                    .register(registry);
+        }
+        channelBreakerStates = states;
+    }
+
+    public void setChannelBreakerState(int channel, int state) {
+        AtomicInteger[] states = channelBreakerStates;
+        if (states != null) {
+            states[channel].set(state);
+        }
+    }
+
+    /**
+     * Export the percentile a latency-aware breaker is judged on:
+     * a_breaker_latency_ms{channel} ("all" for the single breaker), next to the SLO.
+     */
+    public void registerBreakerLatency(String channel, LatencySloTrigger trigger) {
+        Gauge.builder("a_breaker_latency_ms", trigger, LatencySloTrigger::getPercentileMs)
+                .description("Latency percentile of successful calls over the latency breaker's window")
+                .tag("downstream", "B")
+                .tag("channel", channel)
+                .register(registry);
+        Gauge.builder("a_breaker_latency_slo_ms", trigger, LatencySloTrigger::getSloMs)
+                .description("Latency SLO above which the latency breaker opens")
+                .tag("downstream", "B")
+                .tag("channel", channel)
+                .register(registry);
+    }
+
+    /**
+     * Export the shared retry budget: a_retry_budget_tokens (retries affordable now) and
+     * a_retry_budget_denied_total (retryable failures not retried because it was spent).
+     */
+    public void registerRetryBudget(RetryBudget budget) {
+        Gauge.builder("a_retry_budget_tokens", budget, RetryBudget::getTokens)
+                .description("Retries the shared retry budget can currently pay for")
+                .tag("downstream", "B")
+                .register(registry);
+        FunctionCounter.builder("a_retry_budget_denied_total", budget, RetryBudget::getDenied)
+                .description("Retryable failures to downstream B not retried because the retry budget was spent")
+                .tag("downstream", "B")
+                .register(registry);
+    }
+
+    /**
+     * Export the adaptive throttle: a_throttle_reject_probability (chance the next call
+     * is rejected locally) and a_throttle_rejected_total.
+     */
+    public void registerThrottle(AdaptiveThrottle throttle) {
+        Gauge.builder("a_throttle_reject_probability", throttle, AdaptiveThrottle::getRejectProbability)
+                .description("Probability that the next call to downstream B is rejected by adaptive throttling")
+                .tag("downstream", "B")
+                .register(registry);
+        FunctionCounter.builder("a_throttle_rejected_total", throttle, AdaptiveThrottle::getThrottled)
+                .description("Calls to downstream B rejected locally by adaptive throttling")
+                .tag("downstream", "B")
+                .register(registry);
+    }
+
     public void registerChannelPoolSize(int size) {
         Gauge.builder("a_channel_pool_size", () -> size)
                 .description("Number of gRPC channels in the client pool")
@@ -65,23 +225,147 @@ public class MetricsService {
                 .register(registry);
     }
 
+    /**
+     * Export RPCs in flight per pool channel: a_channel_inflight{channel="0".."n-1"}.
+     * A channel stuck behind a slow B pod shows up as one line climbing above the rest.
+     */
+    public void registerChannelInflight(ChannelPicker picker) {
+        for (int i = 0; i < picker.size(); i++) {
+            int channel = i;
+            Gauge.builder("a_channel_inflight", picker, p -> p.outstanding(channel))
+                    .description("RPCs in flight on one gRPC channel of the pool")
+                    .tag("downstream", "B")
+                    .tag("channel", String.valueOf(channel))
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Export outlier ejection per pool channel: a_channel_ejected{channel} (1 while out
+     * of selection) and a_channel_ejections_total{channel}.
+     */
+    public void registerOutlierDetector(OutlierDetector detector) {
+        Counter[] ejections = new Counter[detector.size()];
+        for (int i = 0; i < detector.size(); i++) {
+            int channel = i;
+            Gauge.builder("a_channel_ejected", detector, d -> d.isEjected(channel) ? 1 : 0)
+                    .description("1 while the channel is ejected from selection (outlier detection)")
+                    .tag("downstream", "B")
+                    .tag("channel", String.valueOf(channel))
+                    .register(registry);
+            ejections[i] = Counter.builder("a_channel_ejections_total")
+                    .description("Times the channel was ejected from selection (outlier detection)")
+                    .tag("downstream", "B")
+                    .tag("channel", String.valueOf(channel))
+                    .register(registry);
+        }
+        channelEjections = ejections;
+    }
+
+    /** Record one outlier ejection of a pool channel. */
+    public void recordChannelEjection(int channel) {
+        channelEjections[channel].increment();
+    }
+
+    public void registerConcurrencyLimit(ConcurrencyLimiter limiter) {
+        Gauge.builder("a_concurrency_limit", limiter, ConcurrencyLimiter::getLimit)
+                .description("Current bulkhead permit count (moves when b.inflight.limiter=adaptive)")
+                .tag("downstream", "B")
+                .register(registry);
+    }
+
+    public void registerHedgeDelay(Hedger hedger) {
+        Gauge.builder("a_hedge_delay_ms", hedger, Hedger::hedgeDelayMs)
+                .description("Current hedge delay (live latency percentile); -1 while warming up")
+                .tag("downstream", "B")
+                .register(registry);
+    }
+
+    /**
+     * Record what happened to one hedged call.
+     * @param outcome NOT_HEDGED, BUDGET_EXHAUSTED, PRIMARY_WON, HEDGE_WON or BOTH_FAILED
+     */
+    public void recordHedge(HedgeOutcome outcome) {
+        hedges.get(outcome).increment();
+    }
+
+    public void registerCoalescingInflight(Map<String, ?> inFlight) {
+        Gauge.builder("a_coalescing_inflight_keys", inFlight, Map::size)
+                .description("Request ids with a shared in-flight call (coalescing leaders)")
+                .tag("downstream", "B")
+                .register(registry);
+    }
+
+    /**
+     * Export ingress admission state: a_ingress_shed_level (0 = admit all, 1 = shed
+     * SHEDDABLE, 2 = shed DEFAULT too), a_ingress_overloaded and a_ingress_inflight.
+     */
+    public void registerAdmission(CoDelAdmission admission) {
+        Gauge.builder("a_ingress_shed_level", admission, CoDelAdmission::getShedLevel)
+                .description("Criticality classes currently shed at ingress (CoDel)")
+                .register(registry);
+        Gauge.builder("a_ingress_overloaded", admission, a -> a.isOverloaded() ? 1 : 0)
+                .description("1 while the ingress queue's minimum delay exceeds the CoDel target")
+                .register(registry);
+        Gauge.builder("a_ingress_inflight", admission, CoDelAdmission::getInflight)
+                .description("Requests holding an ingress admission slot")
+                .register(registry);
+    }
+
+    public void recordIngressQueueDelay(long nanos) {
+        ingressQueueDelay.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordIngressShed(Criticality criticality) {
+        ingressShed.get(criticality).increment();
+    }
+
+    /**
+     * Record a call that joined an in-flight call for the same request id
+     * instead of going to B (request coalescing).
+     */
+    public void recordCoalescedHit() {
+        coalescedHits.increment();
+    }
+
+    /**
+     * Export result cache metrics: cache_gets_total{result=hit|miss}, cache_evictions_total,
+     * cache_size (Micrometer Caffeine binder) plus the estimated memory footprint.
+     */
+    public void registerResultCache(ResultCache cache) {
+        CaffeineCacheMetrics.monitor(registry, cache.nativeCache(), "a_result_cache");
+        Gauge.builder("a_result_cache_memory_bytes", cache, ResultCache::estimatedBytes)
+                .description("Estimated memory held by the result cache")
+                .tag("downstream", "B")
+                .register(registry);
+    }
+
+    /**
+     * Record the number of items sent in one BatchWork RPC (b.transport=batch).
+     */
+    public void recordBatchSize(int items) {
+        batchSize.record(items);
+    }
+
+    /**
+     * Record a WorkStream ended by B or the network (b.transport=stream).
+     * Every message pending on that stream failed with UNAVAILABLE.
+     */
+    public void recordStreamReset() {
+        streamResets.increment();
+    }
+
     /**
      * Record a downstream call with its result.
      * @param durationMs duration in milliseconds
      * @param errorCode result error code
      */
     public void recordDownstreamCall(long durationMs, ErrorCode errorCode) {
-        // Record latency
-        downstreamLatency.record(Duration.ofMillis(durationMs));
+        // Record latency (long + unit: no Duration allocated per call)
+        downstreamLatency.record(durationMs, TimeUnit.MILLISECONDS);
 
         // Record error by code
-        Counter.builder("a_downstream_errors_total")
-                .description("Total errors by code for downstream B")
-                .tag("downstream", "B")
-                .tag("method", "Work")
-                .tag("code", errorCode.name())
-                .register(registry)
-                .increment();
+        downstreamErrors.get(errorCode).increment();
     }
 
     /**
@@ -93,37 +377,28 @@ public class MetricsService {
      * @param contextHint Optional hint for protection events (e.g., "CIRCUIT_OPEN")
      */
     public void recordCall(String method, long latencyMs, @Nullable Throwable error, @Nullable String contextHint) {
-        CallOutcome outcome = classifier.classify(error, contextHint);
-
-        // Counter: grpc_client_requests_total
-        Counter.builder("grpc_client_requests_total")
-            .description("Total gRPC client requests")
-            .tag("service", "demo-service-b")
-            .tag("method", method)
-            .tag("result", outcome.resultLabel())
-            .tag("reason", outcome.reason().name())
-            .tag("retryable", String.valueOf(outcome.retryable()))
-            .register(registry)
-            .increment();
-
-        // Histogram: grpc_client_latency_ms
-        // Enable histogram buckets for PromQL histogram_quantile() queries
-        Timer.builder("grpc_client_latency_ms")
-            .description("gRPC client request latency")
-            .tag("service", "demo-service-b")
-            .tag("method", method)
-            .serviceLevelObjectives(
-                Duration.ofMillis(10),
-                Duration.ofMillis(50),
-                Duration.ofMillis(100),
-                Duration.ofMillis(200),
-                Duration.ofMillis(500),
-                Duration.ofMillis(1000),
-                Duration.ofMillis(2000),
-                Duration.ofMillis(5000)
-            )
-            .register(registry)
-            .record(latencyMs, TimeUnit.MILLISECONDS);
+        recordCall(method, latencyMs, classifier.classify(error, contextHint));
+    }
+
+    /**
+     * Record a gRPC client call whose outcome is already classified.
+     * Allocation-free for pre-registered methods ("Work").
+     */
+    public void recordCall(String method, long latencyMs, CallOutcome outcome) {
+        CallMeters meters = callMeters.get(method);
+        if (meters == null) {
+            meters = callMeters.computeIfAbsent(method, m -> new CallMeters(registry, m));
+        }
+        meters.requests.get(outcome.reason())[outcome.retryable() ? 1 : 0].increment();
+        meters.latency.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Record one JFR jdk.VirtualThreadPinned event.
+     * @param pinnedFor how long the carrier thread was pinned
+     */
+    public void recordVirtualThreadPinned(Duration pinnedFor) {
+        virtualThreadPinned.record(pinnedFor);
     }
 
     /**
@@ -139,4 +414,48 @@ public class MetricsService {
     public void decrementInflight() {
         inflightRequests.decrementAndGet();
     }
+
+    /**
+     * grpc_client_requests_total for every reason × retryable, plus grpc_client_latency_ms,
+     * for one gRPC method.
+     */
+    private static final class CallMeters {
+        private final EnumMap<ErrorReason, Counter[]> requests = new EnumMap<>(ErrorReason.class);
+        private final Timer latency;
+
+        CallMeters(MeterRegistry registry, String method) {
+            for (ErrorReason reason : ErrorReason.values()) {
+                Counter[] byRetryable = new Counter[2];
+                for (int retryable = 0; retryable < 2; retryable++) {
+                    byRetryable[retryable] = Counter.builder("grpc_client_requests_total")
+                            .description("Total gRPC client requests")
+                            .tag("service", "demo-service-b")
+                            .tag("method", method)
+                            .tag("result", reason == ErrorReason.SUCCESS ? "SUCCESS" : "FAILURE")
+                            .tag("reason", reason.name())
+                            .tag("retryable", String.valueOf(retryable == 1))
+                            .register(registry);
+                }
+                requests.put(reason, byRetryable);
+            }
+
+            // Histogram: grpc_client_latency_ms
+            // Enable histogram buckets for PromQL histogram_quantile() queries
+            this.latency = Timer.builder("grpc_client_latency_ms")
+                    .description("gRPC client request latency")
+                    .tag("service", "demo-service-b")
+                    .tag("method", method)
+                    .serviceLevelObjectives(
+                        Duration.ofMillis(10),
+                        Duration.ofMillis(50),
+                        Duration.ofMillis(100),
+                        Duration.ofMillis(200),
+                        Duration.ofMillis(500),
+                        Duration.ofMillis(1000),
+                        Duration.ofMillis(2000),
+                        Duration.ofMillis(5000)
+                    )
+                    .register(registry);
+        }
+    }
 }
@@ -0,0 +1,55 @@
+package com.demo.appa;
+
+import com.demo.appa.id.RequestIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux /api/work handler (spring.main.web-application-type=reactive).
+ *
+ * LEARNING: Runs on Netty event-loop threads, which must never block. The handler
+ * only composes the port's future into a Mono; the event loop is free again as soon
+ * as the request is dispatched to B. Same JSON contract as WorkController.
+ *
+ * Works with every AppAPort; with reactive.enabled=true (AppAReactive) the whole
+ * path from socket to B and back is non-blocking.
+ */
+@RestController
+@RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWorkController {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveWorkController.class);
+
+    @Autowired
+    private AppAPort appA;
+
+    @Autowired
+    private RequestIdGenerator requestIdGenerator;
+
+    @Value("${request.deadline.ms:2000}")
+    private long requestDeadlineMs;
+
+    @GetMapping("/work")
+    public Mono<WorkController.WorkResponse> work(
+            @RequestHeader(value = WorkController.TIMEOUT_HEADER, required = false) Long timeoutMs,
+            @RequestHeader(value = WorkController.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = WorkController.REQUEST_ID_HEADER, required = false) String requestIdHeader) {
+        return Mono.defer(() -> {
+            String requestId = WorkController.requestId(idempotencyKey, requestIdHeader, requestIdGenerator);
+            logger.info("Handling /api/work request: {}", requestId);
+
+            // Client disconnect cancels the Mono → cancels the future → cancels the RPC
+            // (with coalescing.enabled: once the last caller for this request id is gone)
+            return Mono.fromFuture(() -> appA.callWorkAsync(requestId,
+                    WorkController.requestDeadline(timeoutMs, requestDeadlineMs)));
+        }).map(WorkController::toResponse);
+    }
+}
@@ -1,29 +1,224 @@
 package com.demo.appa;
 
+import com.demo.appa.batch.BoundedFanOut;
+import com.demo.appa.id.RequestIdGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.Deadline;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
-import java.util.UUID;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class WorkController {
     private static final Logger logger = LoggerFactory.getLogger(WorkController.class);
 
+    /** How long (ms) the caller will wait for this request; shortens request.deadline.ms. */
+    static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    /** Shortest timeout the header can set: 0 or 1 ms would fail before reaching B. */
+    static final long MIN_TIMEOUT_MS = 10;
+
+    /** Caller-chosen request id (Idempotency-Key wins over X-Request-Id). */
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String REQUEST_ID_HEADER = "X-Request-Id";
+    static final int MAX_REQUEST_ID_LENGTH = 128;
+
     @Autowired
     private AppAPort appA;
 
-    @GetMapping("/work")
-    public WorkResponse work() {
-        String requestId = UUID.randomUUID().toString();
+    @Autowired
+    private RequestIdGenerator requestIdGenerator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // LEARNING: The request deadline starts HERE, at ingress - not per attempt inside
+    // the port. Everything after this point (bulkhead, attempts, backoff) spends from
+    // the same budget, so no thread is still waiting on B after the caller gave up.
+    @Value("${request.deadline.ms:2000}")
+    private long requestDeadlineMs;
+
+    // POST /api/work/batch: items in flight at once per batch (keep below b.inflight.max),
+    // and the largest batch accepted
+    @Value("${work.batch.parallelism:8}")
+    private int batchParallelism;
+
+    @Value("${work.batch.max-items:1000}")
+    private int batchMaxItems;
+
+    public WorkController() {
+    }
+
+    WorkController(AppAPort appA, RequestIdGenerator requestIdGenerator, long requestDeadlineMs) {
+        this.appA = appA;
+        this.requestIdGenerator = requestIdGenerator;
+        this.objectMapper = new ObjectMapper();
+        this.requestDeadlineMs = requestDeadlineMs;
+    }
+
+    // LEARNING: execution.mode=blocking keeps one Tomcat thread per request for the
+    // whole downstream call; execution.mode=async hands the request to the servlet
+    // async machinery and frees the Tomcat thread until the gRPC future completes.
+    // execution.mode=virtual takes the blocking path, but on a virtual thread
+    // (see VirtualThreadConfig) - blocking is cheap, so the simple code path is kept.
+    //
+    // GET /api/work itself is mapped by BlockingWork or AsyncWork, whichever the mode
+    // selects: Spring MVC starts async processing for any CompletableFuture return
+    // type, even a completed one, so the blocking path must return the body itself.
+
+    /** GET /api/work on the request thread (execution.mode=blocking or virtual). */
+    WorkResponse work(@Nullable Long timeoutMs, @Nullable String idempotencyKey, @Nullable String requestIdHeader) {
+        Deadline deadline = requestDeadline(timeoutMs, requestDeadlineMs);
+        String requestId = requestId(idempotencyKey, requestIdHeader, requestIdGenerator);
+        logger.info("Handling /api/work request: {}", requestId);
+        return toResponse(appA.callWork(requestId, deadline));
+    }
+
+    /** GET /api/work through callWorkAsync (execution.mode=async). */
+    CompletableFuture<WorkResponse> workAsync(@Nullable Long timeoutMs, @Nullable String idempotencyKey,
+                                              @Nullable String requestIdHeader) {
+        Deadline deadline = requestDeadline(timeoutMs, requestDeadlineMs);
+        String requestId = requestId(idempotencyKey, requestIdHeader, requestIdGenerator);
         logger.info("Handling /api/work request: {}", requestId);
+        return appA.callWorkAsync(requestId, deadline).thenApply(WorkController::toResponse);
+    }
+
+    /**
+     * Many /api/work calls in one HTTP request: a JSON array of request ids in, one JSON
+     * line (application/x-ndjson) per item out, in completion order.
+     *
+     * LEARNING: A page that needs hundreds of items used to make hundreds of /api/work
+     * round trips. Here they share one request and connection, and each result is
+     * written as soon as its call completes - the caller doesn't wait for the slowest
+     * item to see the fast ones. Items go through AppAPort.callWorkAsync() exactly like
+     * single calls (breaker, bulkhead, retry, metrics), work.batch.parallelism at a
+     * time (BoundedFanOut), so one big batch can't take every bulkhead permit.
+     *
+     * Each item gets its own request deadline, started when the item starts (the
+     * timeout header applies per item). Ids work as for /api/work: the caller's id is
+     * used, a blank or oversized one is replaced by a generated id; "index" ties each
+     * line back to its position in the request.
+     */
+    @PostMapping("/work/batch")
+    public ResponseEntity<ResponseBodyEmitter> workBatch(
+            @RequestBody List<String> ids,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs) {
+        if (ids.size() > batchMaxItems) {
+            logger.warn("Rejecting /api/work/batch with {} items (max {})", ids.size(), batchMaxItems);
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Handling /api/work/batch request: {} items", ids.size());
+
+        List<BatchItem> items = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            items.add(new BatchItem(i, requestId(ids.get(i), null, requestIdGenerator)));
+        }
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(batchTimeoutMs(items.size()));
+        BoundedFanOut<BatchItem, WorkResult> fanOut = new BoundedFanOut<>(items, batchParallelism,
+                item -> appA.callWorkAsync(item.id(), requestDeadline(timeoutMs, requestDeadlineMs)),
+                (item, result) -> sendLine(emitter, new BatchItemResponse(item, result)));
+        emitter.onTimeout(fanOut::cancel);
+        emitter.onError(e -> fanOut.cancel());
+
+        fanOut.start().whenComplete((ignored, error) -> {
+            if (error == null) {
+                emitter.complete();
+            } else {
+                emitter.completeWithError(error);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+    }
+
+    /**
+     * Async timeout for a whole batch: every wave of items may take a full request
+     * deadline, plus a second of slack. No request deadline: the container default.
+     */
+    @Nullable
+    private Long batchTimeoutMs(int items) {
+        if (requestDeadlineMs <= 0) {
+            return null;
+        }
+        long waves = (items + batchParallelism - 1) / batchParallelism;
+        return waves * requestDeadlineMs + 1000;
+    }
+
+    /** One NDJSON line; a failed write (client gone) throws, which stops the batch. */
+    private void sendLine(ResponseBodyEmitter emitter, BatchItemResponse line) {
+        try {
+            emitter.send(objectMapper.writeValueAsString(line) + "\n", MediaType.APPLICATION_NDJSON);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize batch item " + line.getIndex(), e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Client stopped reading batch response", e);
+        }
+    }
+
+    /**
+     * Request deadline from the caller's timeout header, capped at {@code maxMs}
+     * (a caller can ask for less time, not more) and raised to MIN_TIMEOUT_MS.
+     * maxMs <= 0: no default deadline.
+     */
+    @Nullable
+    static Deadline requestDeadline(@Nullable Long timeoutMs, long maxMs) {
+        if (timeoutMs == null) {
+            return maxMs > 0 ? Deadline.after(maxMs, TimeUnit.MILLISECONDS) : null;
+        }
+        long ms = Math.max(MIN_TIMEOUT_MS, timeoutMs);
+        return Deadline.after(maxMs > 0 ? Math.min(ms, maxMs) : ms, TimeUnit.MILLISECONDS);
+    }
 
-        WorkResult result = appA.callWork(requestId);
+    /**
+     * The caller's id if it sent one, else a generated one.
+     *
+     * LEARNING: The request id is B's idempotency key. An id generated here is new for
+     * every HTTP request, so when the END CLIENT retries (its own timeout, a 503) B
+     * sees a different request and does the work again. A caller-supplied key is the
+     * same on every retry, so B's idempotency cache answers the repeat. Blank or
+     * oversized values (> 128 chars, they become cache keys in B) are ignored.
+     */
+    static String requestId(@Nullable String idempotencyKey, @Nullable String requestIdHeader,
+                            RequestIdGenerator generator) {
+        String supplied = usableId(idempotencyKey);
+        if (supplied == null) {
+            supplied = usableId(requestIdHeader);
+        }
+        return supplied != null ? supplied : generator.next();
+    }
 
+    @Nullable
+    private static String usableId(@Nullable String header) {
+        if (header == null) {
+            return null;
+        }
+        String id = header.strip();
+        return id.isEmpty() || id.length() > MAX_REQUEST_ID_LENGTH ? null : id;
+    }
+
+    static WorkResponse toResponse(WorkResult result) {
         return new WorkResponse(
                 result.isOk(),
                 result.getCode(),
@@ -31,6 +226,56 @@ public class WorkController {
         );
     }
 
+    /** GET /api/work for execution.mode=blocking and virtual: returns the body, no async dispatch. */
+    @RestController
+    @RequestMapping("/api")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnExpression("'${execution.mode:blocking}' != 'async'")
+    public static class BlockingWork {
+        @Autowired
+        private WorkController controller;
+
+        public BlockingWork() {
+        }
+
+        BlockingWork(WorkController controller) {
+            this.controller = controller;
+        }
+
+        @GetMapping("/work")
+        public WorkResponse work(
+                @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs,
+                @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                @RequestHeader(value = REQUEST_ID_HEADER, required = false) String requestIdHeader) {
+            return controller.work(timeoutMs, idempotencyKey, requestIdHeader);
+        }
+    }
+
+    /** GET /api/work for execution.mode=async: completes from the gRPC callback. */
+    @RestController
+    @RequestMapping("/api")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnExpression("'${execution.mode:blocking}' == 'async'")
+    public static class AsyncWork {
+        @Autowired
+        private WorkController controller;
+
+        public AsyncWork() {
+        }
+
+        AsyncWork(WorkController controller) {
+            this.controller = controller;
+        }
+
+        @GetMapping("/work")
+        public CompletableFuture<WorkResponse> work(
+                @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs,
+                @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                @RequestHeader(value = REQUEST_ID_HEADER, required = false) String requestIdHeader) {
+            return controller.workAsync(timeoutMs, idempotencyKey, requestIdHeader);
+        }
+    }
+
     public static class WorkResponse {
         private final boolean ok;
         private final String code;
@@ -54,4 +299,34 @@ public class WorkController {
             return latencyMs;
         }
     }
+
+    /** One id from a batch request and its position in it. */
+    record BatchItem(int index, String id) {
+    }
+
+    /** One line of a /api/work/batch response: the /api/work body plus which item it is. */
+    public static class BatchItemResponse extends WorkResponse {
+        private final int index;
+        private final String id;
+        private final ErrorCode errorCode;
+
+        BatchItemResponse(BatchItem item, WorkResult result) {
+            super(result.isOk(), result.getCode(), result.getLatencyMs());
+            this.index = item.index();
+            this.id = item.id();
+            this.errorCode = result.getErrorCode();
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public ErrorCode getErrorCode() {
+            return errorCode;
+        }
+    }
 }
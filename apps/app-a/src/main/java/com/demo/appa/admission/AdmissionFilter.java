@@ -0,0 +1,137 @@
+package com.demo.appa.admission;
+
+import com.demo.appa.ErrorCode;
+import com.demo.appa.MetricsService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission stage in front of /api/work (servlet stack): CoDel queue control with
+ * criticality classes, before WorkController does any work (see CoDelAdmission).
+ *
+ * A shed request gets 503 with the usual WorkResponse body and code SHED. The slot
+ * is held until the response completes - for execution.mode=async that is when the
+ * async request completes, not when this filter returns.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnExpression("'${admission.enabled:false}' == 'true'")
+public class AdmissionFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionFilter.class);
+
+    static final String CRITICALITY_HEADER = "X-Criticality";
+    private static final String SHED_BODY =
+            "{\"ok\":false,\"code\":\"" + ErrorCode.SHED.name() + "\",\"latencyMs\":0}";
+
+    @Value("${admission.max-concurrent:100}")
+    private int maxConcurrent;
+
+    @Value("${admission.target-ms:5}")
+    private long targetMs;
+
+    @Value("${admission.interval-ms:100}")
+    private long intervalMs;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    private CoDelAdmission admission;
+
+    @PostConstruct
+    public void init() {
+        admission = new CoDelAdmission(maxConcurrent, Duration.ofMillis(targetMs), Duration.ofMillis(intervalMs));
+        metricsService.registerAdmission(admission);
+        logger.info("Ingress admission enabled: maxConcurrent={}, targetMs={}, intervalMs={}",
+                maxConcurrent, targetMs, intervalMs);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/work");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Criticality criticality = Criticality.fromHeader(request.getHeader(CRITICALITY_HEADER));
+        long start = System.nanoTime();
+        boolean admitted;
+        try {
+            admitted = admission.tryAdmit(criticality);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        metricsService.recordIngressQueueDelay(System.nanoTime() - start);
+
+        if (!admitted) {
+            metricsService.recordIngressShed(criticality);
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setContentType("application/json");
+            response.getWriter().write(SHED_BODY);
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(released));
+            } else if (released.compareAndSet(false, true)) {
+                admission.release();
+            }
+        }
+    }
+
+    /** Releases the slot when an async request ends, whichever way it ends. */
+    private final class ReleaseOnComplete implements AsyncListener {
+        private final AtomicBoolean released;
+
+        ReleaseOnComplete(AtomicBoolean released) {
+            this.released = released;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                admission.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.demo.appa.admission;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Ingress admission: a bounded number of requests in the handler, a CoDel-controlled
+ * wait for the rest, and criticality-ordered shedding while the queue stays long.
+ *
+ * LEARNING: Under 13× overload every request used to get as far as AppAResilient
+ * before the bulkhead said no - after Tomcat queued it, the controller generated an
+ * id and logged it. CoDel (controlled delay) decides at the door instead, from the one
+ * signal that separates a burst from overload: the MINIMUM queueing delay over an
+ * interval. A burst drains, so some request in the interval gets in quickly; a
+ * standing queue means even the luckiest request waited longer than the target.
+ * - Not overloaded: a request may wait up to one interval (100ms) for a slot
+ * - Overloaded (min delay > target over the last interval): non-critical requests
+ *   wait at most target (5ms), so the queue drains instead of growing
+ * - Each overloaded interval raises the shed level by one (SHEDDABLE, then DEFAULT
+ *   are rejected without waiting); each calm interval lowers it again
+ *
+ * CRITICAL requests are never shed by level and always get the full interval.
+ */
+public class CoDelAdmission {
+
+    static final int MAX_SHED_LEVEL = 2;
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long targetNanos;
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong intervalStart;
+    private final AtomicLong minDelayNanos = new AtomicLong(Long.MAX_VALUE);
+    private volatile boolean overloaded;
+    private volatile int shedLevel;
+
+    public CoDelAdmission(int maxConcurrent, Duration target, Duration interval) {
+        this(maxConcurrent, target, interval, System::nanoTime);
+    }
+
+    public CoDelAdmission(int maxConcurrent, Duration target, Duration interval, LongSupplier nanoClock) {
+        if (maxConcurrent < 1 || target.isNegative() || interval.compareTo(target) <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be >= 1 and 0 <= target < interval");
+        }
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.targetNanos = target.toNanos();
+        this.intervalNanos = interval.toNanos();
+        this.nanoClock = nanoClock;
+        this.intervalStart = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Take a slot, waiting as long as CoDel allows. Call {@link #release()} once the
+     * request is done if (and only if) this returns true.
+     *
+     * @return false: shed (by criticality, or waited past its timeout)
+     */
+    public boolean tryAdmit(Criticality criticality) throws InterruptedException {
+        long start = nanoClock.getAsLong();
+        advanceInterval(start);
+        if (criticality.shedAt(shedLevel)) {
+            return false;
+        }
+        if (permits.tryAcquire()) {
+            recordDelay(0);
+            return true;
+        }
+        long timeout = overloaded && criticality != Criticality.CRITICAL ? targetNanos : intervalNanos;
+        boolean admitted = permits.tryAcquire(timeout, TimeUnit.NANOSECONDS);
+        // A request that timed out still waited: its delay counts toward the minimum
+        recordDelay(nanoClock.getAsLong() - start);
+        return admitted;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /** 0 = admit all, 1 = shed SHEDDABLE, 2 = shed SHEDDABLE and DEFAULT. */
+    public int getShedLevel() {
+        return shedLevel;
+    }
+
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    public int getInflight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    private void recordDelay(long delayNanos) {
+        minDelayNanos.accumulateAndGet(delayNanos, Math::min);
+    }
+
+    /** Once per interval (first caller after it ends): judge it by its minimum delay. */
+    private void advanceInterval(long now) {
+        long start = intervalStart.get();
+        if (now - start < intervalNanos || !intervalStart.compareAndSet(start, now)) {
+            return;
+        }
+        long minDelay = minDelayNanos.getAndSet(Long.MAX_VALUE);
+        // No samples (everything shed, or idle): nothing queued, so not overloaded
+        boolean over = minDelay != Long.MAX_VALUE && minDelay > targetNanos;
+        overloaded = over;
+        shedLevel = over ? Math.min(shedLevel + 1, MAX_SHED_LEVEL) : Math.max(shedLevel - 1, 0);
+    }
+}
@@ -0,0 +1,38 @@
+package com.demo.appa.admission;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * How much a request matters to its caller, from the X-Criticality header.
+ *
+ * Under overload the ingress sheds SHEDDABLE first, then DEFAULT; CRITICAL is never
+ * shed by criticality, only when it has queued too long to be worth serving.
+ */
+public enum Criticality {
+    CRITICAL(Integer.MAX_VALUE),
+    DEFAULT(2),
+    SHEDDABLE(1);
+
+    private final int shedAtLevel;
+
+    Criticality(int shedAtLevel) {
+        this.shedAtLevel = shedAtLevel;
+    }
+
+    /** True if requests of this class are shed at the given shed level. */
+    public boolean shedAt(int shedLevel) {
+        return shedLevel >= shedAtLevel;
+    }
+
+    /** Parse a header value (case-insensitive); missing or unknown → DEFAULT. */
+    public static Criticality fromHeader(@Nullable String value) {
+        if (value != null) {
+            for (Criticality c : values()) {
+                if (c.name().equalsIgnoreCase(value.trim())) {
+                    return c;
+                }
+            }
+        }
+        return DEFAULT;
+    }
+}
@@ -0,0 +1,140 @@
+package com.demo.appa.batch;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Runs one async call per item with at most {@code parallelism} outstanding, starting
+ * the next item as each one completes (POST /api/work/batch).
+ *
+ * LEARNING: The inverse of MicroBatcher. A caller sends hundreds of ids in one HTTP
+ * request; starting all of them at once would hand the bulkhead hundreds of calls in
+ * the same microsecond, and everything past maxInflight comes back QUEUE_FULL. With
+ * parallelism below the bulkhead limit, one batch never fills the bulkhead by itself:
+ * it leaves room for other callers and its items wait their turn here instead of
+ * being rejected.
+ *
+ * No thread waits: items are started from the completion callbacks of earlier ones.
+ * A call that completes synchronously (e.g. breaker OPEN) does not recurse - the
+ * starting loop is a trampoline, so a batch of rejections can't overflow the stack.
+ */
+public class BoundedFanOut<T, R> {
+
+    private final List<T> items;
+    private final int parallelism;
+    private final Function<T, CompletableFuture<R>> call;
+    private final BiConsumer<T, R> onResult;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final AtomicInteger pumping = new AtomicInteger();
+    private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private volatile boolean cancelled;
+
+    /**
+     * @param call     started once per item; its future's failure is not retried
+     * @param onResult called once per successful item, on the thread that completed it;
+     *                 if it throws (nowhere left to deliver results), no more items start
+     */
+    public BoundedFanOut(List<T> items, int parallelism,
+                         Function<T, CompletableFuture<R>> call, BiConsumer<T, R> onResult) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be >= 1");
+        }
+        this.items = items;
+        this.parallelism = parallelism;
+        this.call = call;
+        this.onResult = onResult;
+        this.remaining = new AtomicInteger(items.size());
+    }
+
+    /**
+     * Start the first items.
+     *
+     * @return completes when every started item has completed; exceptionally (with the
+     * first failure) if any call failed or onResult threw
+     */
+    public CompletableFuture<Void> start() {
+        if (items.isEmpty()) {
+            done.complete(null);
+        }
+        pump();
+        return done;
+    }
+
+    /** Start no more items (e.g. the client went away); items in flight still complete. */
+    public void cancel() {
+        cancelled = true;
+        pump();
+    }
+
+    private void pump() {
+        if (pumping.getAndIncrement() != 0) {
+            return;   // another thread is in the loop below and will see our work
+        }
+        do {
+            while (inflight.get() < parallelism) {
+                if (cancelled) {
+                    skipUnstarted();
+                    break;
+                }
+                int i = next.getAndIncrement();
+                if (i >= items.size()) {
+                    break;
+                }
+                inflight.incrementAndGet();
+                startItem(items.get(i));
+            }
+        } while (pumping.decrementAndGet() != 0);
+    }
+
+    private void startItem(T item) {
+        CompletableFuture<R> future;
+        try {
+            future = call.apply(item);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((result, error) -> {
+            try {
+                if (error == null) {
+                    onResult.accept(item, result);
+                } else {
+                    firstFailure.compareAndSet(null, error);
+                }
+            } catch (RuntimeException e) {
+                firstFailure.compareAndSet(null, e);
+                cancelled = true;
+            } finally {
+                inflight.decrementAndGet();
+                finish(1);
+                pump();
+            }
+        });
+    }
+
+    /** Cancelled: count items never started as finished. */
+    private void skipUnstarted() {
+        int from = next.getAndSet(items.size());
+        if (from < items.size()) {
+            finish(items.size() - from);
+        }
+    }
+
+    private void finish(int count) {
+        if (remaining.addAndGet(-count) == 0) {
+            Throwable failure = firstFailure.get();
+            if (failure == null) {
+                done.complete(null);
+            } else {
+                done.completeExceptionally(failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.demo.appa.batch;
+
+import com.demo.appa.GrpcFutures;
+import com.demo.grpc.WorkReply;
+import com.demo.grpc.WorkRequest;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Collects concurrent Work calls into one BatchWork RPC.
+ *
+ * LEARNING: A WorkRequest is just an id (~40 bytes), but every unary RPC also pays
+ * for an HTTP/2 HEADERS frame (method path, content-type, deadline, ...), stream
+ * setup and a DATA frame. At high QPS that overhead dominates. Batching sends one
+ * RPC per batch instead:
+ * - Flush when maxBatchSize items are queued, or maxDelay after the FIRST item
+ *   arrived - whichever comes first (so the added latency is bounded by maxDelay)
+ * - replies[i] answers requests[i]; each caller's future completes independently
+ * - Per-item failures (ok=false, code=gRPC status name) become a per-item
+ *   StatusRuntimeException, so ErrorCode mapping and retry decisions stay per item
+ * - A failed RPC fails every item in the batch with the same cause
+ *
+ * The sender owns protection (breaker, bulkhead) for the batch as a whole: one
+ * permit per RPC, which matches what actually hits the network.
+ *
+ * ReentrantLock (not synchronized) guards the pending list, so callers on virtual
+ * threads never pin their carrier while enqueuing.
+ */
+public class MicroBatcher {
+
+    private final int maxBatchSize;
+    private final long maxDelayMicros;
+    private final Function<List<WorkRequest>, CompletableFuture<List<WorkReply>>> sender;
+    private final ScheduledExecutorService scheduler;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private List<Pending> pending;
+    private ScheduledFuture<?> flushTimer;
+
+    /**
+     * @param sender sends one batch (non-blocking); replies must be in request order
+     * @param scheduler runs the maxDelay flush timer (and the sender, for timer flushes)
+     */
+    public MicroBatcher(int maxBatchSize, long maxDelayMicros,
+                        Function<List<WorkRequest>, CompletableFuture<List<WorkReply>>> sender,
+                        ScheduledExecutorService scheduler) {
+        if (maxBatchSize < 1 || maxDelayMicros < 0) {
+            throw new IllegalArgumentException("maxBatchSize must be >= 1 and maxDelayMicros >= 0");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMicros = maxDelayMicros;
+        this.sender = sender;
+        this.scheduler = scheduler;
+        this.pending = new ArrayList<>(maxBatchSize);
+    }
+
+    /** Queue one item; the future completes when its batch reply arrives. */
+    public CompletableFuture<WorkReply> submit(WorkRequest request) {
+        Pending item = new Pending(request, new CompletableFuture<>());
+        List<Pending> full = null;
+        lock.lock();
+        try {
+            pending.add(item);
+            if (pending.size() >= maxBatchSize) {
+                full = drain();
+            } else if (pending.size() == 1) {
+                flushTimer = scheduler.schedule(this::flushOnTimer, maxDelayMicros, TimeUnit.MICROSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            send(full);   // outside the lock: the sender may do real work
+        }
+        return item.future();
+    }
+
+    /** The maxDelay timer fired: send whatever is pending. Package-private for tests. */
+    void flushOnTimer() {
+        List<Pending> batch;
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;   // a size flush got there first
+            }
+            batch = drain();
+        } finally {
+            lock.unlock();
+        }
+        send(batch);
+    }
+
+    private List<Pending> drain() {
+        List<Pending> batch = pending;
+        pending = new ArrayList<>(maxBatchSize);
+        if (flushTimer != null) {
+            flushTimer.cancel(false);
+            flushTimer = null;
+        }
+        return batch;
+    }
+
+    private void send(List<Pending> batch) {
+        List<WorkRequest> requests = new ArrayList<>(batch.size());
+        for (Pending item : batch) {
+            requests.add(item.request());
+        }
+
+        CompletableFuture<List<WorkReply>> replies;
+        try {
+            replies = sender.apply(requests);
+        } catch (RuntimeException e) {
+            replies = CompletableFuture.failedFuture(e);
+        }
+        replies.whenComplete((list, error) -> fanOut(batch, list, error));
+    }
+
+    private static void fanOut(List<Pending> batch, List<WorkReply> replies, Throwable error) {
+        if (error != null) {
+            Throwable cause = GrpcFutures.unwrap(error);
+            for (Pending item : batch) {
+                item.future().completeExceptionally(cause);
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<WorkReply> future = batch.get(i).future();
+            if (i >= replies.size()) {
+                future.completeExceptionally(Status.INTERNAL
+                        .withDescription("BatchWork reply missing item " + i).asRuntimeException());
+            } else if (replies.get(i).getOk()) {
+                future.complete(replies.get(i));
+            } else {
+                future.completeExceptionally(itemFailure(replies.get(i)));
+            }
+        }
+    }
+
+    /** Per-item failure: the reply's code is a gRPC status name (e.g. "RESOURCE_EXHAUSTED"). */
+    public static StatusRuntimeException itemFailure(WorkReply reply) {
+        Status.Code code;
+        try {
+            code = Status.Code.valueOf(reply.getCode());
+        } catch (IllegalArgumentException e) {
+            code = Status.Code.UNKNOWN;
+        }
+        return Status.fromCode(code)
+                .withDescription("BatchWork item failed: " + reply.getCode())
+                .asRuntimeException();
+    }
+
+    private record Pending(WorkRequest request, CompletableFuture<WorkReply> future) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.demo.appa.breaker;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * b.breaker.*: the circuit breaker configuration shared by AppAResilient and AppAReactive.
+ *
+ * Defaults (COUNT_BASED, last 10 calls, 50%, 5s OPEN, 3 probes) are the breaker every
+ * scenario was tuned with; window.type=time judges the last window.size seconds instead.
+ */
+@Configuration
+public class BreakerConfig {
+    private static final Logger logger = LoggerFactory.getLogger(BreakerConfig.class);
+
+    @Bean
+    public CircuitBreakerConfig circuitBreakerConfig(
+            @Value("${b.breaker.window.type:count}") String windowType,
+            @Value("${b.breaker.window.size:10}") int windowSize,
+            @Value("${b.breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${b.breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${b.breaker.wait-open-ms:5000}") long waitOpenMs,
+            @Value("${b.breaker.half-open-calls:3}") int halfOpenCalls) {
+        logger.info("Circuit breaker: window={} x {}, minimumCalls={}, failureRate={}%, waitOpenMs={}, halfOpenCalls={}",
+                windowType, windowSize, minimumCalls, failureRateThreshold, waitOpenMs, halfOpenCalls);
+        return CircuitBreakerConfig.custom()
+                .slidingWindowType("time".equalsIgnoreCase(windowType)
+                        ? CircuitBreakerConfig.SlidingWindowType.TIME_BASED
+                        : CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(windowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .waitDurationInOpenState(Duration.ofMillis(waitOpenMs))
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.demo.appa.breaker;
+
+import com.demo.appa.pool.ChannelPicker;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+/**
+ * Where the circuit breakers sit (b.breaker.scope): one for all of B (GlobalBreaker),
+ * or one per pool channel (ChannelBreakers). AppAResilient asks the scope at each
+ * layer and reports every result to it; the scope decides which breaker's permission
+ * a call takes and which results it counts.
+ *
+ * Call level: tryAcquire() at layer 1, then exactly one of release() (the call never
+ * reached B), onCallSuccess() or onCallError().
+ * RPC level: pickChannel() for every RPC on a pool channel, then exactly one of
+ * onRpcSuccess(), onRpcError() or onRpcCancelled().
+ */
+public interface BreakerScope {
+
+    /** LAYER 1 gate: false means fail the call fast (CIRCUIT_OPEN). */
+    boolean tryAcquire();
+
+    /** Undo tryAcquire() for a call that never reached B (e.g. bulkhead full). */
+    void release();
+
+    /** False once every breaker this call could use is OPEN: a retry would be refused anyway. */
+    boolean allowsRetry();
+
+    /** Whether the picker may choose the channel. */
+    boolean isAvailable(int channel);
+
+    /**
+     * Channel for one RPC, other than {@code excluded} (or -1), taking whatever breaker
+     * permission the RPC needs.
+     *
+     * @throws CircuitOpenException no breaker permits the RPC
+     */
+    int pickChannel(ChannelPicker picker, int excluded);
+
+    /**
+     * What a call gets when tryAcquire() refused it: a CallNotPermittedException or a
+     * CircuitOpenException, both classified CIRCUIT_OPEN.
+     */
+    RuntimeException notPermitted();
+
+    /**
+     * @param latencyMs       the whole call, retries and backoff included
+     * @param attemptRttNanos RTT of the attempt that succeeded, or -1 if unknown (then
+     *                        latencyMs): the latency SLO judges B, not A's retry waits
+     */
+    void onCallSuccess(long latencyMs, long attemptRttNanos);
+
+    void onCallError(long latencyMs, Throwable error);
+
+    void onRpcSuccess(int channel, long durationNanos);
+
+    void onRpcError(int channel, long durationNanos, Throwable error);
+
+    /** The RPC was cancelled (e.g. a hedge loser): says nothing about the channel. */
+    void onRpcCancelled(int channel);
+
+    /** Service-level state, as exported in a_breaker_state{channel="all"}. */
+    CircuitBreaker.State getState();
+
+    static int stateCode(CircuitBreaker.State state) {
+        return switch (state) {
+            case CLOSED -> 0;   // Normal operation
+            case OPEN -> 1;     // Shedding load (fast-fail)
+            case HALF_OPEN -> 2; // Probing recovery
+            default -> 0;
+        };
+    }
+}
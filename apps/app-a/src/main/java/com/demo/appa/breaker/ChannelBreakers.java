@@ -0,0 +1,183 @@
+package com.demo.appa.breaker;
+
+import com.demo.appa.pool.ChannelPicker;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * One circuit breaker per pool channel (b.breaker.scope=channel).
+ *
+ * LEARNING: A single breaker for all of B trips on the AVERAGE failure rate. When
+ * one connection or one B pod goes bad, its failures alone can push that average
+ * over the threshold, and the whole service goes OPEN - shedding the traffic the
+ * healthy channels would have served (83% CIRCUIT_OPEN in Scenario 3). With a
+ * breaker per channel (subset breakers):
+ * - only the bad channel's breaker opens; the picker routes around it
+ * - an OPEN breaker still moves to HALF_OPEN on its own (automatic transition),
+ *   so the channel is probed and comes back without waiting for traffic
+ * - the call fails fast (CIRCUIT_OPEN) only when EVERY channel's breaker is open,
+ *   i.e. when B as a whole is unhealthy - the one case a global breaker is for
+ *
+ * The call itself takes no permission: each RPC takes the permission of the channel
+ * it runs on (pickChannel), and only RPC results are counted.
+ */
+public class ChannelBreakers implements BreakerScope {
+
+    private final String name;
+    private final CircuitBreaker[] breakers;
+    @Nullable
+    private final LatencySloTrigger[] latencyTriggers;
+
+    /** Breakers named {@code <name>-0 .. <name>-(size-1)}, using the registry's default config. */
+    public ChannelBreakers(CircuitBreakerRegistry registry, String name, int size) {
+        this(registry, name, size, null);
+    }
+
+    /**
+     * @param latencyTriggers creates each channel's latency trigger, reset whenever that
+     *                        channel's breaker opens. Null: off.
+     */
+    public ChannelBreakers(CircuitBreakerRegistry registry, String name, int size,
+                           @Nullable Supplier<LatencySloTrigger> latencyTriggers) {
+        this.name = name;
+        breakers = new CircuitBreaker[size];
+        this.latencyTriggers = latencyTriggers != null ? new LatencySloTrigger[size] : null;
+        for (int i = 0; i < size; i++) {
+            breakers[i] = registry.circuitBreaker(name + "-" + i);
+            if (this.latencyTriggers != null) {
+                LatencySloTrigger trigger = latencyTriggers.get();
+                this.latencyTriggers[i] = trigger;
+                breakers[i].getEventPublisher().onStateTransition(event -> {
+                    if (event.getStateTransition().getToState() == CircuitBreaker.State.OPEN) {
+                        trigger.reset();
+                    }
+                });
+            }
+        }
+    }
+
+    public CircuitBreaker get(int channel) {
+        return breakers[channel];
+    }
+
+    @Nullable
+    public LatencySloTrigger getLatencyTrigger(int channel) {
+        return latencyTriggers != null ? latencyTriggers[channel] : null;
+    }
+
+    /**
+     * Whether the picker may choose the channel: not OPEN. A HALF_OPEN channel is
+     * available, and its breaker hands out the limited probe permissions.
+     */
+    @Override
+    public boolean isAvailable(int channel) {
+        CircuitBreaker.State state = breakers[channel].getState();
+        return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    /** Every channel's breaker is open: B as a whole is failing. */
+    public boolean allOpen() {
+        for (int i = 0; i < breakers.length; i++) {
+            if (isAvailable(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Passes unless every channel's breaker is open; the permission is taken per RPC. */
+    @Override
+    public boolean tryAcquire() {
+        return !allOpen();
+    }
+
+    @Override
+    public void release() {
+        // tryAcquire() took nothing
+    }
+
+    @Override
+    public boolean allowsRetry() {
+        return !allOpen();
+    }
+
+    /**
+     * Takes the picked channel breaker's permission: if that channel turned OPEN since
+     * the picker looked, or is HALF_OPEN with no probes left, one other channel is tried.
+     *
+     * @throws CircuitOpenException neither channel's breaker permits the RPC
+     */
+    @Override
+    public int pickChannel(ChannelPicker picker, int excluded) {
+        int channel = picker.pickExcept(excluded);
+        if (breakers[channel].tryAcquirePermission()) {
+            return channel;
+        }
+        int other = picker.pickExcept(channel);
+        if (other != channel && other != excluded && breakers[other].tryAcquirePermission()) {
+            return other;
+        }
+        throw new CircuitOpenException(String.format(
+                "No channel circuit breaker of '%s' permits the RPC (tried %s-%d: %s, %s)",
+                name, name, channel, breakers[channel].getState(), other == channel || other == excluded
+                        ? "no other channel" : name + "-" + other + ": " + breakers[other].getState()));
+    }
+
+    @Override
+    public RuntimeException notPermitted() {
+        return new CircuitOpenException(String.format(
+                "All %d channel circuit breakers of '%s' are OPEN and do not permit further calls",
+                breakers.length, name));
+    }
+
+    @Override
+    public void onCallSuccess(long latencyMs, long attemptRttNanos) {
+    }
+
+    @Override
+    public void onCallError(long latencyMs, Throwable error) {
+    }
+
+    @Override
+    public void onRpcSuccess(int channel, long durationNanos) {
+        breakers[channel].onSuccess(durationNanos, TimeUnit.NANOSECONDS);
+        if (latencyTriggers != null) {
+            latencyTriggers[channel].recordAndTrip(breakers[channel], TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        }
+    }
+
+    @Override
+    public void onRpcError(int channel, long durationNanos, Throwable error) {
+        breakers[channel].onError(durationNanos, TimeUnit.NANOSECONDS, error);
+    }
+
+    @Override
+    public void onRpcCancelled(int channel) {
+        breakers[channel].releasePermission();
+    }
+
+    /**
+     * OPEN only when all are open, HALF_OPEN when none is closed but some are
+     * probing, CLOSED otherwise.
+     */
+    @Override
+    public CircuitBreaker.State getState() {
+        if (allOpen()) {
+            return CircuitBreaker.State.OPEN;
+        }
+        for (CircuitBreaker breaker : breakers) {
+            if (breaker.getState() == CircuitBreaker.State.CLOSED) {
+                return CircuitBreaker.State.CLOSED;
+            }
+        }
+        return CircuitBreaker.State.HALF_OPEN;
+    }
+
+    public int size() {
+        return breakers.length;
+    }
+}
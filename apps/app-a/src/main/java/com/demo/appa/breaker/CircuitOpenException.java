@@ -0,0 +1,18 @@
+package com.demo.appa.breaker;
+
+/**
+ * Signals that no channel breaker permits an RPC (b.breaker.scope=channel): every
+ * channel is OPEN, or the channels a pick could use are OPEN or out of probes.
+ * Mapped to ErrorCode.CIRCUIT_OPEN; never retried.
+ *
+ * Resilience4j's CallNotPermittedException names one breaker; this one names the
+ * scope, since no single channel's breaker is "the" reason.
+ *
+ * No stack trace: this is a routine protection event, not a bug.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    public CircuitOpenException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,104 @@
+package com.demo.appa.breaker;
+
+import com.demo.appa.pool.ChannelPicker;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One circuit breaker for all of B (b.breaker.scope=global, the default).
+ *
+ * The call takes the permission at layer 1 and the breaker judges the whole call,
+ * retries included; the RPCs underneath run on any channel and are not counted.
+ */
+public class GlobalBreaker implements BreakerScope {
+
+    private final CircuitBreaker breaker;
+    @Nullable
+    private final LatencySloTrigger latencyTrigger;
+
+    /** @param latencyTrigger opens the breaker on tail latency; reset whenever it opens. Null: off. */
+    public GlobalBreaker(CircuitBreaker breaker, @Nullable LatencySloTrigger latencyTrigger) {
+        this.breaker = breaker;
+        this.latencyTrigger = latencyTrigger;
+        if (latencyTrigger != null) {
+            breaker.getEventPublisher().onStateTransition(event -> {
+                if (event.getStateTransition().getToState() == CircuitBreaker.State.OPEN) {
+                    latencyTrigger.reset();
+                }
+            });
+        }
+    }
+
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    @Nullable
+    public LatencySloTrigger getLatencyTrigger() {
+        return latencyTrigger;
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        return breaker.tryAcquirePermission();
+    }
+
+    @Override
+    public void release() {
+        breaker.releasePermission();
+    }
+
+    @Override
+    public boolean allowsRetry() {
+        return breaker.getState() != CircuitBreaker.State.OPEN;
+    }
+
+    @Override
+    public boolean isAvailable(int channel) {
+        return true;
+    }
+
+    @Override
+    public int pickChannel(ChannelPicker picker, int excluded) {
+        return picker.pickExcept(excluded);
+    }
+
+    @Override
+    public RuntimeException notPermitted() {
+        return CallNotPermittedException.createCallNotPermittedException(breaker);
+    }
+
+    @Override
+    public void onCallSuccess(long latencyMs, long attemptRttNanos) {
+        breaker.onSuccess(latencyMs, TimeUnit.MILLISECONDS);
+        if (latencyTrigger != null) {
+            latencyTrigger.recordAndTrip(breaker,
+                    attemptRttNanos >= 0 ? TimeUnit.NANOSECONDS.toMillis(attemptRttNanos) : latencyMs);
+        }
+    }
+
+    @Override
+    public void onCallError(long latencyMs, Throwable error) {
+        breaker.onError(latencyMs, TimeUnit.MILLISECONDS, error);
+    }
+
+    @Override
+    public void onRpcSuccess(int channel, long durationNanos) {
+    }
+
+    @Override
+    public void onRpcError(int channel, long durationNanos, Throwable error) {
+    }
+
+    @Override
+    public void onRpcCancelled(int channel) {
+    }
+
+    @Override
+    public CircuitBreaker.State getState() {
+        return breaker.getState();
+    }
+}
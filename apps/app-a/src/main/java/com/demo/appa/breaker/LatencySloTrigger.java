@@ -0,0 +1,114 @@
+package com.demo.appa.breaker;
+
+import com.demo.appa.observability.LatencyTracker;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Decides when a circuit breaker should open on tail latency: the latency percentile
+ * of successful calls over a time window is above the SLO (b.breaker.latency.*).
+ *
+ * LEARNING: The breaker counts exceptions. A B that answers every call, just slowly
+ * (Scenario 3: 200ms), looks healthy to it until calls start hitting the 800ms
+ * deadline - by then the bulkhead is full of threads waiting on B. Tail latency
+ * moves first: p99 crosses the SLO while every call still succeeds.
+ * - Window: a LatencyTracker (ring of HdrHistograms, mergeable by addition), so the
+ *   percentile is exact over the window and old samples age out in bucket steps
+ * - At least minSamples in the window before the percentile counts (one slow call
+ *   after an idle period is not a trend)
+ * - Fires once per window, and only while the breaker is CLOSED (recordAndTrip): a
+ *   HALF_OPEN breaker is judged by its probes, and must not use up the window's one
+ *   trip. The caller calls reset() when the breaker opens, so the next CLOSED period
+ *   is judged on fresh samples only
+ *
+ * Failures are not recorded here: the breaker's failure rate already covers them.
+ */
+public class LatencySloTrigger {
+    private static final Logger logger = LoggerFactory.getLogger(LatencySloTrigger.class);
+
+    private final double percentile;
+    private final long sloMs;
+    private final long minSamples;
+    private final Supplier<LatencyTracker> windows;
+
+    private volatile Window window;
+
+    /**
+     * @param percentile e.g. 99.0
+     * @param windows    creates an empty window (called now and on every reset)
+     */
+    public LatencySloTrigger(double percentile, long sloMs, long minSamples, Supplier<LatencyTracker> windows) {
+        if (percentile <= 0 || percentile > 100 || sloMs < 0 || minSamples < 1) {
+            throw new IllegalArgumentException("percentile must be in (0, 100], sloMs >= 0 and minSamples >= 1");
+        }
+        this.percentile = percentile;
+        this.sloMs = sloMs;
+        this.minSamples = minSamples;
+        this.windows = windows;
+        this.window = new Window(windows.get());
+    }
+
+    /**
+     * Record one successful call.
+     *
+     * @return true (once per window) if the percentile is now above the SLO: open the breaker
+     */
+    public boolean record(long latencyMs) {
+        Window current = window;
+        current.tracker.record(latencyMs);
+        return fire(current);
+    }
+
+    /**
+     * Record one successful call of {@code breaker}'s, and open the breaker if it is
+     * CLOSED and the percentile is now above the SLO. In any other state the sample
+     * only counts towards the window.
+     *
+     * @return true if this call opened the breaker
+     */
+    public boolean recordAndTrip(CircuitBreaker breaker, long latencyMs) {
+        Window current = window;
+        current.tracker.record(latencyMs);
+        if (breaker.getState() != CircuitBreaker.State.CLOSED || !fire(current)) {
+            return false;
+        }
+        breaker.transitionToOpenState();
+        logger.warn("Circuit breaker {} latency p{} = {}ms > SLO {}ms: opened",
+                breaker.getName(), percentile, current.tracker.getValueAtPercentile(percentile), sloMs);
+        return true;
+    }
+
+    private boolean fire(Window current) {
+        return !current.fired.get()
+                && current.tracker.getTotalCount() >= minSamples
+                && current.tracker.getValueAtPercentile(percentile) > sloMs
+                && current.fired.compareAndSet(false, true);
+    }
+
+    /** Start a new, empty window (the breaker opened). */
+    public void reset() {
+        window = new Window(windows.get());
+    }
+
+    /** Current percentile over the window, in ms; 0 while empty. */
+    public long getPercentileMs() {
+        return window.tracker.getValueAtPercentile(percentile);
+    }
+
+    public long getSloMs() {
+        return sloMs;
+    }
+
+    private static final class Window {
+        final LatencyTracker tracker;
+        final AtomicBoolean fired = new AtomicBoolean();
+
+        Window(LatencyTracker tracker) {
+            this.tracker = tracker;
+        }
+    }
+}
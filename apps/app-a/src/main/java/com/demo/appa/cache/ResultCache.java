@@ -0,0 +1,79 @@
+package com.demo.appa.cache;
+
+import com.demo.appa.ErrorCode;
+import com.demo.appa.WorkResult;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Bounded, TTL-evicting cache of completed WorkResults, keyed by request id
+ * (the idempotency key).
+ *
+ * LEARNING: B already dedups retries in its per-pod sync.Map, but a repeat call
+ * still costs A a breaker check, a bulkhead permit, a network round trip and a slot
+ * in B's single-threaded worker queue. Answering repeats here takes them off the
+ * network entirely.
+ * - Only SUCCESS results are cached: failures must stay retryable
+ * - Bounded by estimated BYTES (maximumWeight + weigher), not entry count, so the
+ *   memory ceiling holds whatever the key length
+ * - Caffeine's W-TinyLFU admission: a burst of one-off ids can't flush the ids
+ *   that are actually being retried (frequency sketch decides who gets evicted)
+ * - expireAfterWrite(ttl): retries arrive within seconds; old entries are dead weight
+ */
+public class ResultCache {
+
+    // Rough per-entry footprint on a 64-bit JVM with compressed oops and compact strings:
+    // cache node + hash table slot, key String header/array, WorkResult, code String.
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+    private static final int STRING_OVERHEAD_BYTES = 56;
+    private static final int WORK_RESULT_BYTES = 32;
+
+    private final Cache<String, WorkResult> cache;
+
+    public ResultCache(long maxBytes, Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(ResultCache::estimateBytes)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /** Cached result with latency 0 (no call was made), or null on a miss. */
+    public WorkResult getIfPresent(String requestId) {
+        WorkResult cached = cache.getIfPresent(requestId);
+        if (cached == null) {
+            return null;
+        }
+        return new WorkResult(cached.isOk(), cached.getCode(), 0, cached.getErrorCode());
+    }
+
+    /** Cache a completed call; ignored unless B actually answered (SUCCESS). */
+    public void put(String requestId, WorkResult result) {
+        if (result.getErrorCode() == ErrorCode.SUCCESS) {
+            cache.put(requestId, result);
+        }
+    }
+
+    /** Estimated memory held by cached entries (bytes). */
+    public long estimatedBytes() {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    /** Underlying Caffeine cache (for the Micrometer cache binder). */
+    public Cache<String, WorkResult> nativeCache() {
+        return cache;
+    }
+
+    static int estimateBytes(String requestId, WorkResult result) {
+        int codeLength = result.getCode() == null ? 0 : result.getCode().length();
+        return ENTRY_OVERHEAD_BYTES
+                + STRING_OVERHEAD_BYTES + requestId.length()
+                + WORK_RESULT_BYTES
+                + STRING_OVERHEAD_BYTES + codeLength;
+    }
+}
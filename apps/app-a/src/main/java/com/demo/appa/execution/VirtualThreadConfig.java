@@ -0,0 +1,44 @@
+package com.demo.appa.execution;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * execution.mode=virtual: Tomcat runs every request on its own virtual thread.
+ *
+ * LEARNING: Why virtual threads instead of async?
+ * - Code stays thread-per-request: WorkController calls the BLOCKING port, and the
+ *   blocking stub parks the virtual thread while B is slow
+ * - A parked virtual thread releases its carrier (platform) thread, so 10k slow calls
+ *   cost 10k small heap objects instead of 10k platform threads (~1MB stack each)
+ * - Protection layers (CB, bulkhead, deadline) still decide how many calls reach B;
+ *   virtual threads only remove the thread-pool ceiling in front of them
+ *
+ * CAVEAT: A virtual thread that blocks while holding a monitor (synchronized) PINS its
+ * carrier - the carrier cannot run other virtual threads until the block ends.
+ * AppAResilient never blocks inside synchronized: the bulkhead is a non-blocking
+ * Semaphore.tryAcquire() and retry backoff sleeps outside any monitor.
+ * VirtualThreadPinningMonitor counts pinning events so regressions are visible.
+ */
+@Configuration
+@ConditionalOnProperty(name = "execution.mode", havingValue = "virtual")
+public class VirtualThreadConfig {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        logger.info("Execution mode: virtual (Tomcat requests run on virtual threads)");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(destroyMethod = "close")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor() {
+        return new VirtualThreadPinningMonitor();
+    }
+}
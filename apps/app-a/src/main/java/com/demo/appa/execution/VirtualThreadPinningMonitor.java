@@ -0,0 +1,60 @@
+package com.demo.appa.execution;
+
+import com.demo.appa.MetricsService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+
+/**
+ * Streams JFR jdk.VirtualThreadPinned events into a_virtual_thread_pinned_ms.
+ *
+ * LEARNING: The JVM emits jdk.VirtualThreadPinned when a virtual thread parks while
+ * pinned to its carrier (blocking inside synchronized or a native frame) for longer
+ * than the threshold. Each event is a carrier thread that could not serve other
+ * requests - a healthy virtual-thread deployment keeps this counter near zero.
+ */
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Value("${execution.virtual.pinned-threshold-ms:20}")
+    private long pinnedThresholdMs;
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(pinnedThresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        logger.info("Virtual thread pinning monitor started (threshold={}ms)", pinnedThresholdMs);
+    }
+
+    private void onPinned(RecordedEvent event) {
+        metricsService.recordVirtualThreadPinned(event.getDuration());
+        if (logger.isDebugEnabled() && event.getStackTrace() != null
+                && !event.getStackTrace().getFrames().isEmpty()) {
+            RecordedFrame top = event.getStackTrace().getFrames().get(0);
+            logger.debug("Virtual thread pinned for {} at {}.{}", event.getDuration(),
+                    top.getMethod().getType().getName(), top.getMethod().getName());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
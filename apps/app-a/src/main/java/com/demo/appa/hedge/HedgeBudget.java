@@ -0,0 +1,47 @@
+package com.demo.appa.hedge;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps hedges at a percentage of requests (lock-free token bucket).
+ *
+ * LEARNING: Every hedge is extra load on B. Without a cap, a slow B triggers hedges
+ * on most calls, doubling load exactly when B is already struggling (the same
+ * amplification retries cause). Each request deposits {@code percent} credits and a
+ * hedge costs 100, so at most percent% of requests can be hedged. The balance is
+ * capped at {@code maxBurst} hedges so an idle period can't bank a hedge storm.
+ */
+public class HedgeBudget {
+
+    private static final long HEDGE_COST = 100;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance = new AtomicLong();
+
+    public HedgeBudget(int percent, int maxBurst) {
+        if (percent < 0 || percent > 100 || maxBurst < 1) {
+            throw new IllegalArgumentException("percent must be 0-100 and maxBurst >= 1");
+        }
+        this.depositPerRequest = percent;
+        this.maxBalance = maxBurst * HEDGE_COST;
+    }
+
+    /** Called once per primary request. */
+    public void onRequest() {
+        balance.getAndUpdate(b -> Math.min(maxBalance, b + depositPerRequest));
+    }
+
+    /** Take one hedge worth of credit; false if the budget is spent. */
+    public boolean tryAcquire() {
+        while (true) {
+            long current = balance.get();
+            if (current < HEDGE_COST) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - HEDGE_COST)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.demo.appa.hedge;
+
+/**
+ * What happened to one hedged call (exported as a_hedge_total{outcome}).
+ */
+public enum HedgeOutcome {
+    /** Primary answered before the hedge delay (or not enough samples to hedge yet) */
+    NOT_HEDGED,
+
+    /** Primary was slow, but the hedge budget was empty - waited for the primary */
+    BUDGET_EXHAUSTED,
+
+    /** Hedge sent, primary still answered first */
+    PRIMARY_WON,
+
+    /** Hedge sent and answered first - the tail latency hedging exists to cut */
+    HEDGE_WON,
+
+    /** Hedge sent, both copies failed */
+    BOTH_FAILED
+}
@@ -0,0 +1,153 @@
+package com.demo.appa.hedge;
+
+import com.demo.appa.GrpcFutures;
+import com.demo.appa.observability.LatencyTracker;
+import io.grpc.Status;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests: if the primary call is slower than the live p95 (by default),
+ * send a second copy and take whichever answers first.
+ *
+ * LEARNING: B pods are single-threaded, so one stuck pod holds every request queued
+ * behind it - that pod alone defines p99. Retries can't help (the slow call hasn't
+ * failed yet); a hedge on another channel (another connection → another pod) can.
+ * - Delay = live percentile: only the slowest ~5% of calls are hedged
+ * - Same request id: B's idempotency cache makes the duplicate harmless
+ * - HedgeBudget: hedges can never add more than budget% extra load
+ * - Loser is cancelled: its HTTP/2 stream is reset, B stops waiting on it
+ *
+ * Only slowness triggers a hedge. A primary that FAILS before the delay is returned
+ * as-is, so the caller's retry policy (not hedging) decides what happens next.
+ */
+public class Hedger {
+
+    private final LatencyTracker latencies;
+    private final HedgeBudget budget;
+    private final double percentile;
+    private final long minDelayMs;
+    private final long minSamples;
+    private final Consumer<HedgeOutcome> onOutcome;
+
+    public Hedger(LatencyTracker latencies, HedgeBudget budget, double percentile,
+                  long minDelayMs, long minSamples, Consumer<HedgeOutcome> onOutcome) {
+        this.latencies = latencies;
+        this.budget = budget;
+        this.percentile = percentile;
+        this.minDelayMs = minDelayMs;
+        this.minSamples = minSamples;
+        this.onOutcome = onOutcome;
+    }
+
+    /**
+     * Current hedge delay in ms, or -1 while the window has too few samples for a
+     * meaningful percentile (no hedging during warm-up).
+     */
+    public long hedgeDelayMs() {
+        if (latencies.getTotalCount() < minSamples) {
+            return -1;
+        }
+        return Math.max(minDelayMs, latencies.getValueAtPercentile(percentile));
+    }
+
+    /**
+     * Run one (possibly hedged) call. Blocks the calling thread until a reply or failure.
+     *
+     * @param primaryCall starts the primary RPC
+     * @param hedgeCall   starts the hedge RPC (should target a different channel)
+     * @return the first successful reply
+     * @throws RuntimeException the primary's failure (or the last failure if both copies failed)
+     */
+    public <T> T call(Supplier<CompletableFuture<T>> primaryCall, Supplier<CompletableFuture<T>> hedgeCall) {
+        budget.onRequest();
+        long startTime = System.currentTimeMillis();
+        long delayMs = hedgeDelayMs();
+        CompletableFuture<T> primary = primaryCall.get();
+
+        CompletableFuture<T> hedge = null;
+        try {
+            if (delayMs >= 0) {
+                try {
+                    T reply = primary.get(delayMs, TimeUnit.MILLISECONDS);
+                    return onSuccess(reply, startTime, HedgeOutcome.NOT_HEDGED);
+                } catch (TimeoutException slow) {
+                    // Primary is in the tail - fall through to hedge
+                } catch (ExecutionException e) {
+                    onOutcome.accept(HedgeOutcome.NOT_HEDGED);
+                    throw propagate(e);
+                }
+
+                if (budget.tryAcquire()) {
+                    hedge = hedgeCall.get();
+                    Winner<T> winner = await(firstSuccessful(primary, hedge), HedgeOutcome.BOTH_FAILED);
+                    return onSuccess(winner.reply(),
+                            startTime, winner.fromHedge() ? HedgeOutcome.HEDGE_WON : HedgeOutcome.PRIMARY_WON);
+                }
+                return onSuccess(await(primary, HedgeOutcome.BUDGET_EXHAUSTED), startTime, HedgeOutcome.BUDGET_EXHAUSTED);
+            }
+            return onSuccess(await(primary, HedgeOutcome.NOT_HEDGED), startTime, HedgeOutcome.NOT_HEDGED);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Status.CANCELLED.withDescription("Interrupted while waiting for B").withCause(e).asRuntimeException();
+
+        } finally {
+            // No-op for whichever copy already completed; resets the loser's stream.
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    private <T> T onSuccess(T reply, long startTime, HedgeOutcome outcome) {
+        latencies.record(System.currentTimeMillis() - startTime);
+        onOutcome.accept(outcome);
+        return reply;
+    }
+
+    private <T> T await(CompletableFuture<T> future, HedgeOutcome outcomeOnFailure) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            onOutcome.accept(outcomeOnFailure);
+            throw propagate(e);
+        }
+    }
+
+    private static RuntimeException propagate(ExecutionException e) {
+        Throwable cause = GrpcFutures.unwrap(e);
+        return cause instanceof RuntimeException re ? re : new RuntimeException(cause);
+    }
+
+    /** Completes with the first successful reply, or with the last failure if both fail. */
+    private static <T> CompletableFuture<Winner<T>> firstSuccessful(CompletableFuture<T> primary,
+                                                                   CompletableFuture<T> hedge) {
+        CompletableFuture<Winner<T>> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        race(primary, false, result, failures);
+        race(hedge, true, result, failures);
+        return result;
+    }
+
+    private static <T> void race(CompletableFuture<T> source, boolean fromHedge,
+                                 CompletableFuture<Winner<T>> result, AtomicInteger failures) {
+        source.whenComplete((reply, error) -> {
+            if (error == null) {
+                result.complete(new Winner<>(reply, fromHedge));
+            } else if (failures.incrementAndGet() == 2) {
+                result.completeExceptionally(error);
+            }
+        });
+    }
+
+    private record Winner<T>(T reply, boolean fromHedge) {
+    }
+}
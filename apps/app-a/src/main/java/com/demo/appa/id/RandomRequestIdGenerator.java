@@ -0,0 +1,38 @@
+package com.demo.appa.id;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Random (version 4) UUID strings from ThreadLocalRandom, without UUID.randomUUID()'s
+ * shared SecureRandom.
+ *
+ * LEARNING: Not the 122 random bits of UUID.randomUUID(). ThreadLocalRandom keeps a
+ * 64-bit state per thread, and the first nextLong() fixes the second, so an id
+ * carries at most 64 bits. All threads step through the same 2^64-long sequence
+ * from well-spread starting points: their ids repeat only if two threads' stretches
+ * of it overlap, which is negligible for request ids. Those starting points come
+ * from the clock, though, not from SecureRandom, so two A replicas started alike
+ * could walk the same stretch. A per-JVM salt from SecureRandom (drawn once) is
+ * XORed into every id to keep replicas apart.
+ */
+public class RandomRequestIdGenerator implements RequestIdGenerator {
+
+    private final long saltMsb;
+    private final long saltLsb;
+
+    public RandomRequestIdGenerator() {
+        SecureRandom seed = new SecureRandom();
+        saltMsb = seed.nextLong();
+        saltLsb = seed.nextLong();
+    }
+
+    @Override
+    public String next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = ((random.nextLong() ^ saltMsb) & ~0xF000L) | 0x4000L;                           // version 4
+        long lsb = ((random.nextLong() ^ saltLsb) & ~0xC000000000000000L) | 0x8000000000000000L;    // IETF variant
+        return new UUID(msb, lsb).toString();
+    }
+}
@@ -0,0 +1,30 @@
+package com.demo.appa.id;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.UUID;
+
+/**
+ * request.id.generator: how /api/work names requests that don't bring an id.
+ * - random (default): UUID-format, ThreadLocalRandom (RandomRequestIdGenerator)
+ * - ulid: time-ordered ULIDs (UlidRequestIdGenerator)
+ * - uuid: UUID.randomUUID(), the shared-SecureRandom baseline, for comparison
+ */
+@Configuration
+public class RequestIdConfig {
+    private static final Logger logger = LoggerFactory.getLogger(RequestIdConfig.class);
+
+    @Bean
+    public RequestIdGenerator requestIdGenerator(@Value("${request.id.generator:random}") String mode) {
+        logger.info("Request id generator: {}", mode);
+        return switch (mode.toLowerCase()) {
+            case "ulid" -> new UlidRequestIdGenerator();
+            case "uuid" -> () -> UUID.randomUUID().toString();
+            default -> new RandomRequestIdGenerator();
+        };
+    }
+}
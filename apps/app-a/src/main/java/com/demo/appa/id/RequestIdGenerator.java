@@ -0,0 +1,19 @@
+package com.demo.appa.id;
+
+/**
+ * Source of request ids for /api/work calls that don't bring their own
+ * (see WorkController: Idempotency-Key / X-Request-Id headers win).
+ *
+ * LEARNING: The request id is B's idempotency key, so it must be unique - but not
+ * unguessable. UUID.randomUUID() draws from one shared SecureRandom: every request
+ * thread takes the same lock, and at high concurrency id generation shows up as
+ * contention in front of the call it names. Implementations here draw from
+ * ThreadLocalRandom instead (no shared state), selected by request.id.generator
+ * (see RequestIdConfig).
+ *
+ * Implementations must be thread-safe.
+ */
+public interface RequestIdGenerator {
+
+    String next();
+}
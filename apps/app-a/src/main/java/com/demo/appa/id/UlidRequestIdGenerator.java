@@ -0,0 +1,47 @@
+package com.demo.appa.id;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * ULIDs: 48-bit millisecond timestamp + 80 random bits, as 26 Crockford base32 chars.
+ *
+ * LEARNING: Ids that sort by creation time are easier to follow in logs and keep
+ * B's cache inserts roughly in order. Ordering is to the millisecond: ids from the
+ * same millisecond are in random order. The strictly monotonic ULID variant would
+ * need a shared "last id" that every thread updates - the contention this generator
+ * exists to avoid.
+ */
+public class UlidRequestIdGenerator implements RequestIdGenerator {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final long MASK_40 = (1L << 40) - 1;
+
+    private final LongSupplier clockMs;
+
+    public UlidRequestIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    public UlidRequestIdGenerator(LongSupplier clockMs) {
+        this.clockMs = clockMs;
+    }
+
+    @Override
+    public String next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] out = new char[26];
+        encode(clockMs.getAsLong(), out, 0, 10);       // 48-bit time in 10 chars (50 bits)
+        encode(random.nextLong() & MASK_40, out, 10, 8);
+        encode(random.nextLong() & MASK_40, out, 18, 8);
+        return new String(out);
+    }
+
+    /** Low 5 × length bits of {@code value}, most significant first. */
+    private static void encode(long value, char[] out, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            out[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.demo.appa.limit;
+
+/**
+ * Signals that a ConcurrencyLimiter had no permit for a call that was already queued
+ * (e.g. a micro-batch at flush time). Mapped to ErrorCode.QUEUE_FULL; never retried.
+ *
+ * No stack trace: this is a routine protection event under overload, not a bug.
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String message) {
+        super(message, null, false, false);
+    }
+}
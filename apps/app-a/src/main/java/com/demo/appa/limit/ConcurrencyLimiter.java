@@ -0,0 +1,36 @@
+package com.demo.appa.limit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulkhead abstraction: caps concurrent in-flight calls to B.
+ *
+ * LEARNING: Every acquired permit MUST be released exactly once through one of the
+ * on*() methods. The method chosen tells adaptive limiters what the call taught us:
+ * - onSuccess(rtt): a latency sample (B answered normally)
+ * - onDropped():    an overload signal (deadline exceeded, B rejected with RESOURCE_EXHAUSTED)
+ * - onIgnore():     no information about B's capacity (client bug, cancellation, ...)
+ */
+public interface ConcurrencyLimiter {
+
+    /**
+     * Non-blocking: acquire a permit if in-flight calls are below the current limit.
+     * @return false if the bulkhead is full (caller rejects with QUEUE_FULL)
+     */
+    boolean tryAcquire();
+
+    /** Release a permit after a successful call that took {@code rtt}. */
+    void onSuccess(long rtt, TimeUnit unit);
+
+    /** Release a permit after a call that failed because B was overloaded. */
+    void onDropped();
+
+    /** Release a permit without feeding the limit algorithm. */
+    void onIgnore();
+
+    /** Current permit count (exported as a_concurrency_limit). */
+    int getLimit();
+
+    /** Permits currently held. */
+    int getInflight();
+}
@@ -0,0 +1,52 @@
+package com.demo.appa.limit;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Static bulkhead: a Semaphore sized by b.inflight.max (Scenario 3 default).
+ *
+ * LEARNING: Simple and predictable, but the right number depends on B's capacity
+ * (pod count, B_DELAY_MS). Too low wastes throughput when B is fast; too high lets
+ * requests queue inside B when B is slow. See GradientConcurrencyLimiter.
+ */
+public class FixedConcurrencyLimiter implements ConcurrencyLimiter {
+
+    private final int limit;
+    private final Semaphore semaphore;
+
+    public FixedConcurrencyLimiter(int limit) {
+        this.limit = limit;
+        this.semaphore = new Semaphore(limit);
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        return semaphore.tryAcquire();
+    }
+
+    @Override
+    public void onSuccess(long rtt, TimeUnit unit) {
+        semaphore.release();
+    }
+
+    @Override
+    public void onDropped() {
+        semaphore.release();
+    }
+
+    @Override
+    public void onIgnore() {
+        semaphore.release();
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public int getInflight() {
+        return limit - semaphore.availablePermits();
+    }
+}
@@ -0,0 +1,148 @@
+package com.demo.appa.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive bulkhead: the permit count follows B's measured latency.
+ *
+ * LEARNING: Little's law says concurrency = throughput × latency. While B keeps up,
+ * adding in-flight calls raises throughput and latency stays at its no-load value.
+ * Once B saturates, extra calls only wait in B's queue and latency grows instead.
+ * So the ratio noLoadRtt / currentRtt (the "gradient") tells us which side we are on:
+ * - gradient ≈ 1  → B is not queueing, probe upward (+queueSize permits)
+ * - gradient < 1  → B is queueing, shrink proportionally
+ * - drop (DEADLINE_EXCEEDED / RESOURCE_EXHAUSTED) → multiplicative decrease (AIMD)
+ *
+ * No-load RTT is a slow exponential moving average of window RTTs rather than the
+ * all-time minimum, so it follows genuine baseline shifts (e.g. B_DELAY_MS changes)
+ * instead of being pinned to one lucky fast sample.
+ *
+ * The limit is recomputed once per window of {@code windowSize} samples under a short
+ * lock (no I/O inside, safe for virtual threads). Acquire/release stay lock-free.
+ */
+public class GradientConcurrencyLimiter implements ConcurrencyLimiter {
+
+    /** RTT may inflate this much over no-load before the limit starts shrinking. */
+    private static final double RTT_TOLERANCE = 1.5;
+    /** Weight of a new window's limit estimate (damps oscillation). */
+    private static final double SMOOTHING = 0.2;
+    /** Multiplicative decrease applied to the limit when a window saw a drop. */
+    private static final double BACKOFF_RATIO = 0.9;
+    /** Number of windows averaged into the no-load RTT estimate. */
+    private static final int LONG_WINDOW = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int windowSize;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+
+    // Window state, guarded by this
+    private double estimatedLimit;
+    private double noLoadRttNanos;
+    private long windowRttSumNanos;
+    private int windowRttSamples;
+    private int windowSamples;
+    private int windowMaxInflight;
+    private boolean windowDropped;
+
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int windowSize) {
+        if (minLimit < 1 || maxLimit < minLimit || windowSize < 1) {
+            throw new IllegalArgumentException("require 1 <= minLimit <= maxLimit and windowSize >= 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowSize = windowSize;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void onSuccess(long rtt, TimeUnit unit) {
+        int inflightAtCompletion = inflight.getAndDecrement();
+        sample(Math.max(1, unit.toNanos(rtt)), false, inflightAtCompletion);
+    }
+
+    @Override
+    public void onDropped() {
+        int inflightAtCompletion = inflight.getAndDecrement();
+        sample(0, true, inflightAtCompletion);
+    }
+
+    @Override
+    public void onIgnore() {
+        inflight.decrementAndGet();
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private synchronized void sample(long rttNanos, boolean dropped, int inflightAtCompletion) {
+        if (dropped) {
+            windowDropped = true;
+        } else {
+            windowRttSumNanos += rttNanos;
+            windowRttSamples++;
+        }
+        windowSamples++;
+        windowMaxInflight = Math.max(windowMaxInflight, inflightAtCompletion);
+
+        if (windowSamples >= windowSize) {
+            updateLimit(windowRttSamples > 0 ? (double) windowRttSumNanos / windowRttSamples : 0);
+            windowRttSumNanos = 0;
+            windowRttSamples = 0;
+            windowSamples = 0;
+            windowMaxInflight = 0;
+            windowDropped = false;
+        }
+    }
+
+    private void updateLimit(double windowRttNanos) {
+        double newLimit;
+        if (windowDropped) {
+            // AIMD: B told us it is overloaded - back off regardless of latency
+            newLimit = estimatedLimit * BACKOFF_RATIO;
+        } else if (windowRttNanos <= 0) {
+            return;
+        } else {
+            if (noLoadRttNanos == 0) {
+                noLoadRttNanos = windowRttNanos;
+            } else {
+                noLoadRttNanos += (windowRttNanos - noLoadRttNanos) / LONG_WINDOW;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * noLoadRttNanos / windowRttNanos));
+            double queueSize = Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * gradient + queueSize;
+            // App-limited: we never came close to the limit, so a stable RTT says nothing
+            // about whether a higher limit is safe. Shrink if needed, but don't grow.
+            if (windowMaxInflight < estimatedLimit / 2) {
+                newLimit = Math.min(newLimit, estimatedLimit);
+            }
+            newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
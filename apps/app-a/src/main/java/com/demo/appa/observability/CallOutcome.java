@@ -1,17 +1,46 @@
 package com.demo.appa.observability;
 
+import com.demo.appa.ErrorCode;
+
 /**
  * Classification result for a gRPC call outcome.
+ *
+ * Outcomes are interned: the constants below and the per-Status.Code table in
+ * GrpcErrorClassifier are the only instances on the hot path, so classifying a call
+ * never allocates and outcomes can be compared with ==.
+ *
+ * @param errorCode the A-level ErrorCode for this outcome (replaces a separate
+ *                  ErrorCode.fromGrpcStatus() lookup)
  */
 public record CallOutcome(
     ErrorReason reason,
     boolean retryable,
-    String grpcStatus
+    String grpcStatus,
+    ErrorCode errorCode
 ) {
+    public static final CallOutcome SUCCESS =
+        new CallOutcome(ErrorReason.SUCCESS, false, "OK", ErrorCode.SUCCESS);
+    public static final CallOutcome CIRCUIT_OPEN =
+        new CallOutcome(ErrorReason.CIRCUIT_OPEN, false, "CIRCUIT_OPEN", ErrorCode.CIRCUIT_OPEN);
+    public static final CallOutcome BULKHEAD_REJECTED =
+        new CallOutcome(ErrorReason.BULKHEAD_REJECTED, false, "BULKHEAD_REJECTED", ErrorCode.QUEUE_FULL);
+    public static final CallOutcome THROTTLED =
+        new CallOutcome(ErrorReason.THROTTLED, false, "THROTTLED", ErrorCode.THROTTLED);
+    public static final CallOutcome REQUEST_DEADLINE =
+        new CallOutcome(ErrorReason.REQUEST_DEADLINE, false, "DEADLINE_EXCEEDED", ErrorCode.DEADLINE_EXCEEDED);
+
     public boolean isSuccess() {
         return reason == ErrorReason.SUCCESS;
     }
 
+    /**
+     * Same outcome, but final: retryable=false. Used when the error itself could be
+     * retried but the caller has no time left for another attempt (request deadline).
+     */
+    public CallOutcome withoutRetry() {
+        return retryable ? new CallOutcome(reason, false, grpcStatus, errorCode) : this;
+    }
+
     public String resultLabel() {
         return isSuccess() ? "SUCCESS" : "FAILURE";
     }
@@ -0,0 +1,25 @@
+package com.demo.appa.observability;
+
+/**
+ * A failed attempt, classified once at the point it failed.
+ *
+ * LEARNING: The same failure is looked at by the retry predicate, the circuit breaker,
+ * the limiter and metrics. Carrying the CallOutcome with the exception means each of
+ * them reads the classification instead of redoing it - GrpcErrorClassifier.classify()
+ * returns outcome() for a ClassifiedException without looking at the cause.
+ *
+ * No stack trace: the cause already has one, and this wrapper is created per failure.
+ */
+public final class ClassifiedException extends RuntimeException {
+
+    private final transient CallOutcome outcome;
+
+    public ClassifiedException(Throwable cause, CallOutcome outcome) {
+        super(cause.getMessage(), cause, false, false);
+        this.outcome = outcome;
+    }
+
+    public CallOutcome outcome() {
+        return outcome;
+    }
+}
@@ -13,5 +13,7 @@ public enum ErrorReason {
     SERVER_ERROR,            // INTERNAL, DATA_LOSS, UNIMPLEMENTED
     CIRCUIT_OPEN,            // Circuit breaker rejected
     BULKHEAD_REJECTED,       // Semaphore full
+    THROTTLED,               // Adaptive throttle rejected locally
+    REQUEST_DEADLINE,        // Caller's own deadline ran out (not counted against B)
     UNKNOWN                  // Fallback
 }
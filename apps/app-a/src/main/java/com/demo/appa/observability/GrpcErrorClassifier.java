@@ -1,10 +1,19 @@
 package com.demo.appa.observability;
 
+import com.demo.appa.ErrorCode;
+import com.demo.appa.GrpcFutures;
+import com.demo.appa.breaker.CircuitOpenException;
+import com.demo.appa.limit.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
 /**
  * Error Classifier: Maps exceptions to semantic ErrorReason + retryability.
  *
@@ -14,26 +23,48 @@ import org.springframework.stereotype.Component;
  * - Separate internal taxonomy (ErrorReason) from external API (ErrorCode)
  *
  * Output: CallOutcome{reason, retryable, grpcStatus}
- * - reason: Semantic error category (9 enum values)
+ * - reason: Semantic error category (10 enum values)
  * - retryable: true/false (drives retry decisions via RetryDecisionPolicy)
  * - grpcStatus: Original gRPC status for debugging
  *
  * Used by: MetricsService (reason label), RetryDecisionPolicy (retry predicate)
+ *
+ * LEARNING: Classify once, by table lookup. Every gRPC status maps to ONE interned
+ * CallOutcome, built at class load into an array indexed by Status.Code.ordinal().
+ * attempt()/attemptAsync() classify a failed attempt where it fails and carry the
+ * outcome in a ClassifiedException, so retry, breaker, limiter and metrics all read
+ * the same result instead of each re-classifying the exception.
  */
 @Component
 public class GrpcErrorClassifier {
 
+    private static final CallOutcome[] BY_STATUS = new CallOutcome[Status.Code.values().length];
+    private static final BooleanSupplier ALWAYS = () -> true;
+
+    static {
+        for (Status.Code code : Status.Code.values()) {
+            BY_STATUS[code.ordinal()] = classifyStatus(code);
+        }
+    }
+
+    /**
+     * Interned outcome for a gRPC status (table lookup, no allocation).
+     */
+    public static CallOutcome forStatus(Status.Code code) {
+        return BY_STATUS[code.ordinal()];
+    }
+
     /**
      * Classify exception or context hint into semantic error reason + retryability.
      *
      * LEARNING: Two input modes:
-     * 1. Protection events (contextHint): CB_OPEN, BULKHEAD_REJECTED → retryable=false
+     * 1. Protection events (contextHint): CB_OPEN, BULKHEAD_REJECTED, THROTTLED → retryable=false
      * 2. gRPC exceptions (throwable): StatusRuntimeException → mapped to ErrorReason
      */
     public CallOutcome classify(@Nullable Throwable throwable, @Nullable String contextHint) {
         // LEARNING: Success path (no error)
         if (throwable == null && contextHint == null) {
-            return new CallOutcome(ErrorReason.SUCCESS, false, "OK");
+            return CallOutcome.SUCCESS;
         }
 
         // LEARNING: Protection events (contextHint provided by caller)
@@ -41,37 +72,139 @@ public class GrpcErrorClassifier {
         // Why? Retrying would defeat the protection:
         //   - CIRCUIT_OPEN: Retry would bypass CB load shedding
         //   - BULKHEAD_REJECTED: Retry when already overloaded makes it worse
+        //   - THROTTLED: B is refusing calls; a retry is exactly the excess being shed
         if (contextHint != null) {
             return switch (contextHint) {
-                case "CIRCUIT_OPEN" -> new CallOutcome(ErrorReason.CIRCUIT_OPEN, false, "CIRCUIT_OPEN");
-                case "BULKHEAD_REJECTED" -> new CallOutcome(ErrorReason.BULKHEAD_REJECTED, false, "BULKHEAD_REJECTED");
-                default -> new CallOutcome(ErrorReason.UNKNOWN, false, contextHint);
+                case "CIRCUIT_OPEN" -> CallOutcome.CIRCUIT_OPEN;
+                case "BULKHEAD_REJECTED" -> CallOutcome.BULKHEAD_REJECTED;
+                case "THROTTLED" -> CallOutcome.THROTTLED;
+                default -> new CallOutcome(ErrorReason.UNKNOWN, false, contextHint, ErrorCode.UNKNOWN);
             };
         }
 
-        // LEARNING: gRPC status → semantic ErrorReason + retryability decision
-        // Retryable (true): Transient failures that might succeed on retry
-        //   ✅ UNAVAILABLE (CONNECTION_FAILURE): Network glitch, reconnect may work
-        //   ✅ RESOURCE_EXHAUSTED (BACKEND_ERROR): Backend overloaded, may recover
-        // Not retryable (false): Won't succeed on retry
-        //   ❌ DEADLINE_EXCEEDED (TIMEOUT): Already waited too long, retry amplifies load
-        //   ❌ CLIENT_ERROR: Bug in request, won't change on retry
-        //   ❌ SERVER_ERROR: Backend bug, retry won't help
+        return classify(throwable);
+    }
+
+    /**
+     * Classify a failure. A ClassifiedException returns its carried outcome as-is.
+     */
+    public CallOutcome classify(Throwable throwable) {
+        if (throwable instanceof ClassifiedException classified) {
+            return classified.outcome();
+        }
         if (throwable instanceof StatusRuntimeException sre) {
-            Status.Code code = sre.getStatus().getCode();
-            return switch (code) {
-                case UNAVAILABLE -> new CallOutcome(ErrorReason.CONNECTION_FAILURE, true, code.name());
-                case DEADLINE_EXCEEDED -> new CallOutcome(ErrorReason.TIMEOUT, false, code.name());
-                case RESOURCE_EXHAUSTED -> new CallOutcome(ErrorReason.BACKEND_ERROR, true, code.name());
-                case INVALID_ARGUMENT, UNAUTHENTICATED, PERMISSION_DENIED, NOT_FOUND ->
-                    new CallOutcome(ErrorReason.CLIENT_ERROR, false, code.name());
-                case INTERNAL, DATA_LOSS, UNIMPLEMENTED ->
-                    new CallOutcome(ErrorReason.SERVER_ERROR, false, code.name());
-                default -> new CallOutcome(ErrorReason.UNKNOWN, false, code.name());
-            };
+            return forStatus(sre.getStatus().getCode());
+        }
+
+        // Protection events raised as exceptions (breaker / bulkhead rejections)
+        if (throwable instanceof CallNotPermittedException || throwable instanceof CircuitOpenException) {
+            return CallOutcome.CIRCUIT_OPEN;
+        }
+        if (throwable instanceof BulkheadFullException
+                || throwable instanceof io.github.resilience4j.bulkhead.BulkheadFullException) {
+            return CallOutcome.BULKHEAD_REJECTED;
+        }
+
+        // Non-gRPC exceptions (rare): keep the class name for debugging
+        return new CallOutcome(ErrorReason.UNKNOWN, false, throwable.getClass().getSimpleName(), ErrorCode.UNKNOWN);
+    }
+
+    /**
+     * Wrap a failure with its classification (no-op if already classified).
+     */
+    public ClassifiedException classified(Throwable throwable) {
+        if (throwable instanceof ClassifiedException classified) {
+            return classified;
         }
+        return new ClassifiedException(throwable, classify(throwable));
+    }
+
+    /**
+     * Wrap a failure with its classification; if it is retryable but
+     * {@code retryAllowed} says no, the carried outcome is final (retryable=false).
+     */
+    public ClassifiedException classified(Throwable throwable, BooleanSupplier retryAllowed) {
+        ClassifiedException classified = classified(throwable);
+        if (classified.outcome().retryable() && !retryAllowed.getAsBoolean()) {
+            return new ClassifiedException(classified.getCause(), classified.outcome().withoutRetry());
+        }
+        return classified;
+    }
+
+    /**
+     * Run one blocking attempt; a failure leaves as a ClassifiedException.
+     */
+    public <T> T attempt(Supplier<T> call) {
+        return attempt(call, ALWAYS);
+    }
+
+    /**
+     * Run one blocking attempt; a failure leaves as a ClassifiedException, final if
+     * {@code retryAllowed} (asked only on failure) returns false.
+     */
+    public <T> T attempt(Supplier<T> call, BooleanSupplier retryAllowed) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            throw classified(e, retryAllowed);
+        }
+    }
+
+    /**
+     * Start one async attempt; a failure completes the future with a ClassifiedException.
+     */
+    public <T> CompletableFuture<T> attemptAsync(Supplier<CompletableFuture<T>> call) {
+        return attemptAsync(call, ALWAYS);
+    }
+
+    /**
+     * Start one async attempt; a failure completes the future with a ClassifiedException,
+     * final if {@code retryAllowed} (asked only on failure) returns false.
+     */
+    public <T> CompletableFuture<T> attemptAsync(Supplier<CompletableFuture<T>> call, BooleanSupplier retryAllowed) {
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(classified(e, retryAllowed));
+        }
+        CompletableFuture<T> result = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                future.cancel(mayInterruptIfRunning);   // keep RPC cancellation working
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(classified(GrpcFutures.unwrap(error), retryAllowed));
+            }
+        });
+        return result;
+    }
 
-        // Non-gRPC exceptions
-        return new CallOutcome(ErrorReason.UNKNOWN, false, throwable.getClass().getSimpleName());
+    // LEARNING: gRPC status → semantic ErrorReason + retryability decision
+    // (evaluated once per Status.Code, at class load)
+    // Retryable (true): Transient failures that might succeed on retry
+    //   ✅ UNAVAILABLE (CONNECTION_FAILURE): Network glitch, reconnect may work
+    //   ✅ RESOURCE_EXHAUSTED (BACKEND_ERROR): Backend overloaded, may recover
+    // Not retryable (false): Won't succeed on retry
+    //   ❌ DEADLINE_EXCEEDED (TIMEOUT): Already waited too long, retry amplifies load
+    //   ❌ CLIENT_ERROR: Bug in request, won't change on retry
+    //   ❌ SERVER_ERROR: Backend bug, retry won't help
+    private static CallOutcome classifyStatus(Status.Code code) {
+        ErrorCode errorCode = ErrorCode.fromGrpcStatus(code);
+        return switch (code) {
+            case UNAVAILABLE -> new CallOutcome(ErrorReason.CONNECTION_FAILURE, true, code.name(), errorCode);
+            case DEADLINE_EXCEEDED -> new CallOutcome(ErrorReason.TIMEOUT, false, code.name(), errorCode);
+            case RESOURCE_EXHAUSTED -> new CallOutcome(ErrorReason.BACKEND_ERROR, true, code.name(), errorCode);
+            case INVALID_ARGUMENT, UNAUTHENTICATED, PERMISSION_DENIED, NOT_FOUND ->
+                new CallOutcome(ErrorReason.CLIENT_ERROR, false, code.name(), errorCode);
+            case INTERNAL, DATA_LOSS, UNIMPLEMENTED ->
+                new CallOutcome(ErrorReason.SERVER_ERROR, false, code.name(), errorCode);
+            default -> new CallOutcome(ErrorReason.UNKNOWN, false, code.name(), errorCode);
+        };
     }
 }
@@ -0,0 +1,118 @@
+package com.demo.appa.observability;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding-window latency percentiles for in-process decisions (e.g. hedge delay).
+ *
+ * LEARNING: grpc_client_latency_ms answers "what is p95?" for dashboards, but PromQL
+ * runs outside the JVM and its buckets are coarse (10/50/100/200ms...). Decisions made
+ * per call need the live value, cheaply:
+ * - Writers call Recorder.recordValue(): wait-free, no lock on the request path
+ * - The window is a ring of HdrHistograms, each covering window/buckets; expired
+ *   buckets are reset on rotation, so old latency ages out in bucket-sized steps
+ * - Readers see an immutable merged snapshot, rebuilt at most once per refresh
+ *   interval by whichever reader gets the tryLock (others use the previous snapshot)
+ *
+ * HdrHistograms are mergeable by addition, which is what makes the ring work: the
+ * window's percentile is computed on the exact sum of its buckets, not an average
+ * of per-bucket percentiles.
+ */
+public class LatencyTracker {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final long highestTrackableMs;
+    private final long bucketNanos;
+    private final long refreshNanos;
+    private final LongSupplier nanoClock;
+    private final Recorder recorder;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    // Guarded by refreshLock
+    private final Histogram[] buckets;
+    private int currentBucket;
+    private long bucketStartNanos;
+    private Histogram interval;
+
+    private volatile long lastRefreshNanos;
+    private volatile Histogram snapshot;
+
+    public LatencyTracker(Duration window, int bucketCount, Duration refreshInterval, long highestTrackableMs) {
+        this(window, bucketCount, refreshInterval, highestTrackableMs, System::nanoTime);
+    }
+
+    public LatencyTracker(Duration window, int bucketCount, Duration refreshInterval, long highestTrackableMs,
+                          LongSupplier nanoClock) {
+        if (bucketCount < 1 || window.isZero() || window.isNegative()) {
+            throw new IllegalArgumentException("window must be positive and bucketCount >= 1");
+        }
+        this.highestTrackableMs = highestTrackableMs;
+        this.bucketNanos = window.toNanos() / bucketCount;
+        this.refreshNanos = refreshInterval.toNanos();
+        this.nanoClock = nanoClock;
+        this.recorder = new Recorder(highestTrackableMs, SIGNIFICANT_DIGITS);
+        this.buckets = new Histogram[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Histogram(highestTrackableMs, SIGNIFICANT_DIGITS);
+        }
+        long now = nanoClock.getAsLong();
+        this.bucketStartNanos = now;
+        this.lastRefreshNanos = now;
+        this.snapshot = new Histogram(highestTrackableMs, SIGNIFICANT_DIGITS);
+    }
+
+    /** Record one latency sample (clamped to [0, highestTrackableMs]). */
+    public void record(long latencyMs) {
+        recorder.recordValue(Math.max(0, Math.min(latencyMs, highestTrackableMs)));
+    }
+
+    /** Latency (ms) at the given percentile (e.g. 95.0) over the window; 0 if empty. */
+    public long getValueAtPercentile(double percentile) {
+        return current().getValueAtPercentile(percentile);
+    }
+
+    /** Number of samples in the window (use to ignore percentiles from too few samples). */
+    public long getTotalCount() {
+        return current().getTotalCount();
+    }
+
+    private Histogram current() {
+        long now = nanoClock.getAsLong();
+        if (now - lastRefreshNanos >= refreshNanos && refreshLock.tryLock()) {
+            try {
+                refresh(now);
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        return snapshot;
+    }
+
+    private void refresh(long now) {
+        long elapsedBuckets = (now - bucketStartNanos) / bucketNanos;
+        long rotations = Math.min(elapsedBuckets, buckets.length);
+        for (int i = 0; i < rotations; i++) {
+            currentBucket = (currentBucket + 1) % buckets.length;
+            buckets[currentBucket].reset();
+        }
+        bucketStartNanos += elapsedBuckets * bucketNanos;
+
+        // Samples since the last refresh go to the newest bucket: they may age out up to
+        // one refresh interval late, but recent samples are never dropped.
+        interval = recorder.getIntervalHistogram(interval);
+        buckets[currentBucket].add(interval);
+
+        Histogram merged = new Histogram(highestTrackableMs, SIGNIFICANT_DIGITS);
+        for (Histogram bucket : buckets) {
+            merged.add(bucket);
+        }
+        snapshot = merged;
+        lastRefreshNanos = now;
+    }
+}
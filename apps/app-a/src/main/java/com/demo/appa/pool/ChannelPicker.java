@@ -0,0 +1,127 @@
+package com.demo.appa.pool;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Chooses a channel from the pool: power of two choices, least outstanding RPCs.
+ *
+ * LEARNING: Each channel is one HTTP/2 connection to one single-threaded B pod.
+ * Round-robin keeps handing every 4th call to a channel whose pod is stuck behind
+ * a slow request, so those calls queue up and define the tail. Picking the least
+ * loaded channel avoids that, but scanning all channels on every call is costly
+ * and sends a burst of calls to the same "best" channel. Power of two choices
+ * samples TWO random channels and takes the one with fewer outstanding RPCs:
+ * - Almost as good as global least-loaded (exponentially better than random)
+ * - O(1), no lock: an AtomicIntegerArray of in-flight counts
+ * - Random sampling keeps concurrent callers from herding onto one channel
+ *
+ * A channel that is not available (e.g. TRANSIENT_FAILURE: its connection is
+ * down and calls on it fail at once) is only chosen when no channel is available.
+ * In that case the call goes ahead and fails fast, as it did before.
+ */
+public class ChannelPicker {
+
+    private final int size;
+    private final IntPredicate available;
+    private final IntUnaryOperator random;
+    private final AtomicIntegerArray outstanding;
+
+    /**
+     * @param size      number of channels
+     * @param available whether channel i may be picked right now
+     */
+    public ChannelPicker(int size, IntPredicate available) {
+        this(size, available, bound -> ThreadLocalRandom.current().nextInt(bound));
+    }
+
+    /** @param random returns a uniform int in [0, bound) for the given bound */
+    public ChannelPicker(int size, IntPredicate available, IntUnaryOperator random) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be >= 1");
+        }
+        this.size = size;
+        this.available = available;
+        this.random = random;
+        this.outstanding = new AtomicIntegerArray(size);
+    }
+
+    /** Channel for the next RPC. Pair with {@link #onStart}/{@link #onComplete} around the call. */
+    public int pick() {
+        return pickExcept(-1);
+    }
+
+    /**
+     * Channel for the next RPC, other than {@code excluded} when the pool has another
+     * (e.g. a hedge must not ride the primary's connection).
+     */
+    public int pickExcept(int excluded) {
+        int candidates = excluded >= 0 && excluded < size ? size - 1 : size;
+        if (candidates == 0) {
+            return 0;
+        }
+        if (candidates == 1) {
+            return nth(0, excluded);
+        }
+
+        int first = random.applyAsInt(candidates);
+        int second = (first + 1 + random.applyAsInt(candidates - 1)) % candidates;
+        int a = nth(first, excluded);
+        int b = nth(second, excluded);
+        boolean aAvailable = available.test(a);
+        boolean bAvailable = available.test(b);
+        if (aAvailable && bAvailable) {
+            return outstanding.get(b) < outstanding.get(a) ? b : a;
+        }
+        if (aAvailable) {
+            return a;
+        }
+        if (bAvailable) {
+            return b;
+        }
+        return leastOutstanding(excluded);
+    }
+
+    /** Both samples were unavailable: least outstanding of the available rest, else of all. */
+    private int leastOutstanding(int excluded) {
+        int best = -1;
+        boolean bestAvailable = false;
+        for (int i = 0; i < size; i++) {
+            if (i == excluded) {
+                continue;
+            }
+            boolean iAvailable = available.test(i);
+            if (best < 0
+                    || (iAvailable && !bestAvailable)
+                    || (iAvailable == bestAvailable && outstanding.get(i) < outstanding.get(best))) {
+                best = i;
+                bestAvailable = iAvailable;
+            }
+        }
+        return best;
+    }
+
+    /** n-th channel index, skipping {@code excluded}. */
+    private static int nth(int n, int excluded) {
+        return excluded >= 0 && n >= excluded ? n + 1 : n;
+    }
+
+    public void onStart(int channel) {
+        outstanding.incrementAndGet(channel);
+    }
+
+    public void onComplete(int channel) {
+        outstanding.decrementAndGet(channel);
+    }
+
+    /** RPCs currently in flight on the channel. */
+    public int outstanding(int channel) {
+        return outstanding.get(channel);
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,118 @@
+package com.demo.appa.pool;
+
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.netty.buffer.PooledByteBufAllocator;
+import io.grpc.netty.shaded.io.netty.channel.Channel;
+import io.grpc.netty.shaded.io.netty.channel.ChannelOption;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioSocketChannel;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Channel builders for the pool that share one Netty transport (b.channel.transport=netty).
+ *
+ * LEARNING: ManagedChannelBuilder.forTarget() gives every channel gRPC's defaults: an
+ * NIO event loop group shared process-wide, and RPC callbacks on gRPC's default cached
+ * thread pool - one extra hop (and context switch) per reply, and a thread count
+ * nobody chose. Building the pool here instead:
+ * - One event loop group for the whole pool, epoll when the native transport loads
+ *   (fewer syscalls and wakeups than NIO), NIO otherwise. Channels are cheap on a
+ *   shared group, so a pod can hold more of them
+ * - Callback executor: "default" (gRPC's cached pool) or "bounded" (a fixed pool
+ *   shared by all channels). Never the event loop itself (directExecutor): future-stub
+ *   callbacks here write HTTP responses, log and fan batches out, and any of them
+ *   blocking would stall every channel on that loop
+ * - Flow-control window and max inbound message size set explicitly
+ * - Pooled (direct) ByteBuf allocator for reads and writes
+ *
+ * Keepalive and TLS stay with the caller: it gets a builder and finishes it as before.
+ */
+public class NettyChannelFactory implements AutoCloseable {
+
+    private final EventLoopGroup eventLoopGroup;
+    private final Class<? extends Channel> channelType;
+    private final boolean epoll;
+    private final ExecutorService executor;
+    private final int flowControlWindowBytes;
+    private final int maxInboundMessageBytes;
+
+    /**
+     * @param eventLoopThreads 0 = Netty's default (2 × cores)
+     * @param executorMode     default | bounded
+     * @param executorThreads  size of the bounded executor
+     * @throws IllegalArgumentException unknown executorMode, or a size out of range
+     */
+    public NettyChannelFactory(int eventLoopThreads, String executorMode, int executorThreads,
+                               int flowControlWindowBytes, int maxInboundMessageBytes) {
+        if (eventLoopThreads < 0 || executorThreads < 1 || flowControlWindowBytes < 1 || maxInboundMessageBytes < 1) {
+            throw new IllegalArgumentException(
+                    "eventLoopThreads must be >= 0; executorThreads, window and message size must be >= 1");
+        }
+        String mode = executorMode.toLowerCase();
+        if (!"default".equals(mode) && !"bounded".equals(mode)) {
+            throw new IllegalArgumentException("executorMode must be default or bounded, got " + executorMode);
+        }
+        this.epoll = Epoll.isAvailable();
+        ThreadFactory loopThreads = daemonThreads("app-a-grpc-netty-");
+        if (epoll) {
+            this.eventLoopGroup = new EpollEventLoopGroup(eventLoopThreads, loopThreads);
+            this.channelType = EpollSocketChannel.class;
+        } else {
+            this.eventLoopGroup = new NioEventLoopGroup(eventLoopThreads, loopThreads);
+            this.channelType = NioSocketChannel.class;
+        }
+        this.executor = "bounded".equals(mode)
+                ? Executors.newFixedThreadPool(executorThreads, daemonThreads("app-a-grpc-callback-"))
+                : null;
+        this.flowControlWindowBytes = flowControlWindowBytes;
+        this.maxInboundMessageBytes = maxInboundMessageBytes;
+    }
+
+    /** Builder for one pool channel on the shared transport. */
+    public ManagedChannelBuilder<?> forTarget(String target) {
+        NettyChannelBuilder builder = NettyChannelBuilder.forTarget(target)
+                .eventLoopGroup(eventLoopGroup)
+                .channelType(channelType)
+                // initial window: BDP auto-tuning still grows it when the link needs more
+                .initialFlowControlWindow(flowControlWindowBytes)
+                .maxInboundMessageSize(maxInboundMessageBytes)
+                .withOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        return builder;
+    }
+
+    /** True when the native epoll transport is in use (false: NIO fallback). */
+    public boolean isEpoll() {
+        return epoll;
+    }
+
+    /** Call after the channels are shut down. */
+    @Override
+    public void close() {
+        eventLoopGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,179 @@
+package com.demo.appa.pool;
+
+import io.grpc.Status;
+
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Outlier ejection for the channel pool: a channel that keeps failing is taken out
+ * of selection for a while, then let back in on probation.
+ *
+ * LEARNING: Keepalive needs 10-40s to declare a half-dead connection dead; until
+ * then a pool of 4 keeps sending it ~25% of the traffic, and every one of those
+ * calls fails. Passive outlier detection reacts to the calls themselves - within
+ * a few failed calls, i.e. milliseconds at 200 QPS:
+ * - consecutive failures: N channel failures in a row → eject
+ * - failure rate: ≥ X% channel failures over a window of calls → eject
+ * - ejection time grows exponentially with each re-ejection (base × 2^n, capped),
+ *   so a flapping channel spends longer and longer out of rotation
+ * - probation: a returning channel is re-ejected on its first failure; after N
+ *   successes it is healthy again and the ejection multiplier resets
+ * - cap: never eject more than maxEjectionPercent of the pool (and never all of
+ *   it) - if every channel fails, the problem is B, and the breaker handles that
+ *
+ * Only failures that say something about the CHANNEL count: UNAVAILABLE (connection
+ * reset/refused) and DEADLINE_EXCEEDED (stuck connection or pod). B's own errors
+ * (RESOURCE_EXHAUSTED from FAIL_RATE) hit every channel alike and are ignored, as
+ * are cancellations (hedge losers).
+ */
+public class OutlierDetector {
+
+    private final int consecutiveFailures;
+    private final int failureRatePercent;
+    private final int windowCalls;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+    private final int maxEjected;
+    private final LongSupplier nanoClock;
+    private final IntConsumer onEject;
+    private final ChannelHealth[] channels;
+
+    /**
+     * @param size                 channels in the pool
+     * @param consecutiveFailures  channel failures in a row that eject (also probation successes)
+     * @param failureRatePercent   channel failure rate over a window that ejects
+     * @param windowCalls          calls per failure-rate window
+     * @param baseEjectionNanos    first ejection time; doubles per re-ejection
+     * @param maxEjectionNanos     ejection time cap
+     * @param maxEjectionPercent   share of the pool that may be ejected at once
+     * @param onEject              called with the channel index on every ejection
+     */
+    public OutlierDetector(int size, int consecutiveFailures, int failureRatePercent, int windowCalls,
+                           long baseEjectionNanos, long maxEjectionNanos, int maxEjectionPercent,
+                           LongSupplier nanoClock, IntConsumer onEject) {
+        this.consecutiveFailures = consecutiveFailures;
+        this.failureRatePercent = failureRatePercent;
+        this.windowCalls = windowCalls;
+        this.baseEjectionNanos = baseEjectionNanos;
+        this.maxEjectionNanos = maxEjectionNanos;
+        this.maxEjected = Math.min(size - 1, size * maxEjectionPercent / 100);
+        this.nanoClock = nanoClock;
+        this.onEject = onEject;
+        this.channels = new ChannelHealth[size];
+        for (int i = 0; i < size; i++) {
+            channels[i] = new ChannelHealth();
+        }
+    }
+
+    /** Whether the channel is out of selection right now. Lock-free: one volatile read. */
+    public boolean isEjected(int channel) {
+        return nanoClock.getAsLong() - channels[channel].ejectedUntilNanos < 0;
+    }
+
+    /** Outcome of one RPC on the channel ({@link Status.Code#OK} for success). */
+    public void onResult(int channel, Status.Code code) {
+        switch (code) {
+            case OK -> onSuccess(channel);
+            case UNAVAILABLE, DEADLINE_EXCEEDED -> onFailure(channel);
+            default -> {
+                // Not the channel's fault (B errors, cancellations)
+            }
+        }
+    }
+
+    private void onSuccess(int channel) {
+        ChannelHealth health = channels[channel];
+        boolean eject;
+        synchronized (health) {
+            health.consecutive = 0;
+            if (health.onProbation && ++health.probationSuccesses >= consecutiveFailures) {
+                health.onProbation = false;
+                health.ejections = 0;
+            }
+            // A window can close on a success and still be over the failure rate
+            eject = health.countCall(false);
+        }
+        if (eject) {
+            tryEject(channel);
+        }
+    }
+
+    private void onFailure(int channel) {
+        ChannelHealth health = channels[channel];
+        boolean eject;
+        synchronized (health) {
+            if (isEjected(channel)) {
+                return;   // late failures of calls started before the ejection
+            }
+            health.consecutive++;
+            boolean rateExceeded = health.countCall(true);
+            eject = health.onProbation || health.consecutive >= consecutiveFailures || rateExceeded;
+        }
+        if (eject) {
+            tryEject(channel);
+        }
+    }
+
+    private synchronized void tryEject(int channel) {
+        ChannelHealth health = channels[channel];
+        if (isEjected(channel)) {
+            return;
+        }
+        if (ejectedCount() >= maxEjected) {
+            return;   // cap reached: keep the channel in rotation
+        }
+        synchronized (health) {
+            long ejection = Math.min(maxEjectionNanos, baseEjectionNanos << Math.min(health.ejections, 30));
+            health.ejections++;
+            health.ejectedUntilNanos = nanoClock.getAsLong() + ejection;
+            health.onProbation = true;
+            health.probationSuccesses = 0;
+            health.consecutive = 0;
+            health.windowCalls = 0;
+            health.windowFailures = 0;
+        }
+        onEject.accept(channel);
+    }
+
+    private int ejectedCount() {
+        int ejected = 0;
+        for (int i = 0; i < channels.length; i++) {
+            if (isEjected(i)) {
+                ejected++;
+            }
+        }
+        return ejected;
+    }
+
+    public int size() {
+        return channels.length;
+    }
+
+    private final class ChannelHealth {
+        volatile long ejectedUntilNanos = nanoClock.getAsLong();
+
+        // Guarded by this
+        int consecutive;
+        int windowCalls;
+        int windowFailures;
+        int ejections;
+        boolean onProbation;
+        int probationSuccesses;
+
+        /** Count one call in the failure-rate window; true if a full window crossed the threshold. */
+        boolean countCall(boolean failed) {
+            windowCalls++;
+            if (failed) {
+                windowFailures++;
+            }
+            if (windowCalls < OutlierDetector.this.windowCalls) {
+                return false;
+            }
+            boolean exceeded = windowFailures * 100 >= failureRatePercent * windowCalls;
+            windowCalls = 0;
+            windowFailures = 0;
+            return exceeded;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.demo.appa.retry;
+
+import com.demo.appa.GrpcFutures;
+import io.grpc.Status;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongBinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Retries with exponential backoff and decorrelated jitter; async attempts wait out
+ * the backoff on a shared timer instead of a sleeping thread.
+ *
+ * LEARNING: A fixed 50ms backoff has two problems under load:
+ * - Every call that failed in the same instant retries in the same instant: B's
+ *   overload spike comes back as a retry wave 50ms later, then again 50ms after that
+ * - A blocking retry sleeps a thread (holding its bulkhead permit) for the backoff
+ *
+ * Decorrelated jitter: delay = min(max, random(base, previous × 3)). Delays grow
+ * roughly exponentially but each call draws its own, so retries spread out over time
+ * instead of arriving in waves.
+ *
+ * execute() runs each retry from a timer task: while waiting, a call is just a
+ * scheduled task (no thread). call() is the blocking form for thread-per-request
+ * callers; it sleeps the caller (cheap on a virtual thread).
+ *
+ * Cancelling the future returned by execute() cancels the running attempt (and its
+ * RPC) or the pending retry.
+ */
+public class AsyncRetryExecutor {
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final Predicate<Throwable> retryOn;
+    private final ScheduledExecutorService timer;
+    private final LongBinaryOperator random;
+
+    /**
+     * @param maxAttempts attempts per call, including the first
+     * @param retryOn     asked once per failed attempt (not after the last one)
+     * @param timer       runs retries of execute(); shared by all calls
+     */
+    public AsyncRetryExecutor(int maxAttempts, Duration baseDelay, Duration maxDelay,
+                              Predicate<Throwable> retryOn, ScheduledExecutorService timer) {
+        this(maxAttempts, baseDelay, maxDelay, retryOn, timer,
+                (min, max) -> ThreadLocalRandom.current().nextLong(min, max + 1));
+    }
+
+    /**
+     * @param random returns a value in [min, max] (inclusive)
+     */
+    public AsyncRetryExecutor(int maxAttempts, Duration baseDelay, Duration maxDelay,
+                              Predicate<Throwable> retryOn, ScheduledExecutorService timer,
+                              LongBinaryOperator random) {
+        if (maxAttempts < 1 || baseDelay.isNegative() || maxDelay.compareTo(baseDelay) < 0) {
+            throw new IllegalArgumentException("maxAttempts must be >= 1 and 0 <= baseDelay <= maxDelay");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelay.toMillis();
+        this.maxDelayMs = maxDelay.toMillis();
+        this.retryOn = retryOn;
+        this.timer = timer;
+        this.random = random;
+    }
+
+    /** Shortest possible backoff before a retry, in ms. */
+    public long getBaseDelayMs() {
+        return baseDelayMs;
+    }
+
+    /**
+     * Decorrelated jitter: the backoff after one that lasted {@code previousMs}
+     * (0 before the first retry, which counts as base).
+     */
+    public long nextDelayMs(long previousMs) {
+        long upper = Math.min(maxDelayMs, Math.max(baseDelayMs, previousMs) * 3);
+        return random.applyAsLong(baseDelayMs, upper);
+    }
+
+    /**
+     * Start {@code attempt}, and re-start it from the timer after each retryable failure.
+     *
+     * @return the first successful result, or the last failure (unwrapped)
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> attempt) {
+        Execution<T> execution = new Execution<>(attempt);
+        execution.attempt(1, 0);
+        return execution.result;
+    }
+
+    /**
+     * Blocking form of execute(): attempts and backoff run on the calling thread.
+     *
+     * @throws RuntimeException the last attempt's failure
+     */
+    public <T> T call(Supplier<T> attempt) {
+        long delayMs = 0;
+        for (int n = 1; ; n++) {
+            try {
+                return attempt.get();
+            } catch (RuntimeException e) {
+                if (n >= maxAttempts || !retryOn.test(e)) {
+                    throw e;
+                }
+                delayMs = nextDelayMs(delayMs);
+                sleep(delayMs, e);
+            }
+        }
+    }
+
+    private static void sleep(long delayMs, RuntimeException failure) {
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            RuntimeException cancelled = Status.CANCELLED
+                    .withDescription("Interrupted during retry backoff").withCause(e).asRuntimeException();
+            cancelled.addSuppressed(failure);
+            throw cancelled;
+        }
+    }
+
+    /** One execute() call: the result future and whatever it is currently waiting on. */
+    private final class Execution<T> {
+        private final Supplier<CompletableFuture<T>> attempt;
+        private volatile Future<?> current;
+
+        final CompletableFuture<T> result = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                Future<?> pending = current;
+                if (pending != null) {
+                    pending.cancel(mayInterruptIfRunning);   // the attempt's RPC, or the scheduled retry
+                }
+                return cancelled;
+            }
+        };
+
+        Execution(Supplier<CompletableFuture<T>> attempt) {
+            this.attempt = attempt;
+        }
+
+        void attempt(int n, long previousDelayMs) {
+            if (result.isDone()) {
+                return;   // cancelled while the retry was scheduled
+            }
+            CompletableFuture<T> future;
+            try {
+                future = attempt.get();
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            current = future;
+            if (result.isCancelled()) {
+                future.cancel(true);
+                return;
+            }
+            future.whenComplete((value, error) -> {
+                if (error == null) {
+                    result.complete(value);
+                } else {
+                    onFailure(n, previousDelayMs, GrpcFutures.unwrap(error));
+                }
+            });
+        }
+
+        private void onFailure(int n, long previousDelayMs, Throwable failure) {
+            if (result.isDone() || n >= maxAttempts || !retryOn.test(failure)) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            long delayMs = nextDelayMs(previousDelayMs);
+            try {
+                current = timer.schedule(() -> attempt(n + 1, delayMs), delayMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(failure);   // shutting down: no more retries
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.demo.appa.retry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries at a percentage of successful calls, across all requests (lock-free
+ * token bucket).
+ *
+ * LEARNING: maxAttempts(3) is a per-request limit. When B is failing most calls, every
+ * request uses all three attempts and B sees up to 3× the load - the retry storm that
+ * pushes a struggling B into saturation. A budget shared by all requests bounds the
+ * total instead:
+ * - Each success deposits {@code percent} credits, a retry costs 100, so retries stay
+ *   under percent% of successes (10% → at most 1.1× load from retries)
+ * - When B is healthy, the budget is always full and retries behave as before
+ * - When B is failing, successes stop, the budget drains, and retries stop with it
+ * - The balance starts full and is capped at {@code maxBurst} retries, so an idle
+ *   period can't bank a retry storm
+ */
+public class RetryBudget {
+
+    private static final long RETRY_COST = 100;
+
+    private final long depositPerSuccess;
+    private final long maxBalance;
+    private final AtomicLong balance;
+    private final AtomicLong denied = new AtomicLong();
+
+    public RetryBudget(int percent, int maxBurst) {
+        if (percent < 0 || percent > 100 || maxBurst < 1) {
+            throw new IllegalArgumentException("percent must be 0-100 and maxBurst >= 1");
+        }
+        this.depositPerSuccess = percent;
+        this.maxBalance = maxBurst * RETRY_COST;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    /** Called once per successful call (first attempt or retry). */
+    public void onSuccess() {
+        balance.getAndUpdate(b -> Math.min(maxBalance, b + depositPerSuccess));
+    }
+
+    /** Take one retry worth of credit; false (and counted as denied) if the budget is spent. */
+    public boolean tryAcquire() {
+        while (true) {
+            long current = balance.get();
+            if (current < RETRY_COST) {
+                denied.incrementAndGet();
+                return false;
+            }
+            if (balance.compareAndSet(current, current - RETRY_COST)) {
+                return true;
+            }
+        }
+    }
+
+    /** Retries currently affordable (fractional). */
+    public double getTokens() {
+        return (double) balance.get() / RETRY_COST;
+    }
+
+    /** Retries refused because the budget was spent, since startup. */
+    public long getDenied() {
+        return denied.get();
+    }
+}
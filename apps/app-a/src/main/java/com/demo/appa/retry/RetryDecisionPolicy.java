@@ -4,6 +4,7 @@ import com.demo.appa.observability.CallOutcome;
 import com.demo.appa.observability.ErrorReason;
 import com.demo.appa.observability.GrpcErrorClassifier;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
@@ -16,10 +17,12 @@ import org.springframework.stereotype.Component;
  * - Enforces CRITICAL safety constraints that prevent retry from defeating protection
  *
  * Safety constraints:
- * - Protection events (CIRCUIT_OPEN, BULKHEAD_REJECTED) are NEVER retried
+ * - Protection events (CIRCUIT_OPEN, BULKHEAD_REJECTED, THROTTLED) are NEVER retried
  * - Timeouts (DEADLINE_EXCEEDED) are NOT retried (already waited too long)
  * - UNKNOWN errors default to non-retryable (conservative fail-safe)
  * - Only errors classified as retryable=true are retried
+ * - With retry.budget.enabled, a retryable error is retried only while the shared
+ *   RetryBudget has credit (retries capped at a % of successes, across all requests)
  *
  * Used by: AppARetry and AppAResilient (retry.retryOnException() predicate)
  */
@@ -28,9 +31,41 @@ public class RetryDecisionPolicy {
 
     private final GrpcErrorClassifier classifier;
 
-    @Autowired
+    @Nullable
+    private final RetryBudget budget;
+
+    /** Policy without a retry budget (per-request maxAttempts is the only limit). */
     public RetryDecisionPolicy(GrpcErrorClassifier classifier) {
+        this(classifier, null);
+    }
+
+    public RetryDecisionPolicy(GrpcErrorClassifier classifier, @Nullable RetryBudget budget) {
         this.classifier = classifier;
+        this.budget = budget;
+    }
+
+    @Autowired
+    public RetryDecisionPolicy(GrpcErrorClassifier classifier,
+                               @Value("${retry.budget.enabled:false}") boolean budgetEnabled,
+                               @Value("${retry.budget.percent:10}") int budgetPercent,
+                               @Value("${retry.budget.max-burst:10}") int budgetMaxBurst) {
+        this(classifier, budgetEnabled ? new RetryBudget(budgetPercent, budgetMaxBurst) : null);
+    }
+
+    /** The shared retry budget, or null when retry.budget.enabled=false. */
+    @Nullable
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Record one successful call (first attempt or retry): earns retry budget.
+     * Ports call this once per call that returns a reply from B.
+     */
+    public void onSuccess() {
+        if (budget != null) {
+            budget.onSuccess();
+        }
     }
 
     /**
@@ -38,7 +73,7 @@ public class RetryDecisionPolicy {
      *
      * LEARNING: Decision flow:
      * 1. No error? → NO retry (success)
-     * 2. Protection event (CIRCUIT_OPEN, BULKHEAD_REJECTED)? → NO retry (safety)
+     * 2. Protection event (CIRCUIT_OPEN, BULKHEAD_REJECTED, THROTTLED)? → NO retry (safety)
      * 3. Other errors? → Use classifier's retryable flag
      *
      * Examples:
@@ -57,20 +92,38 @@ public class RetryDecisionPolicy {
         }
 
         // LEARNING: Classify the error to get semantic ErrorReason + retryable flag
-        CallOutcome outcome = classifier.classify(throwable, contextHint);
+        // (a ClassifiedException already carries it - no second classification)
+        return shouldRetry(classifier.classify(throwable, contextHint));
+    }
 
+    /**
+     * Retry decision for an already-classified attempt (see GrpcErrorClassifier.attempt()).
+     *
+     * @param outcome classification of the failed attempt
+     * @return true if should retry, false otherwise
+     */
+    public boolean shouldRetry(CallOutcome outcome) {
         // LEARNING: CRITICAL safety constraint (defense in depth)
         // Protection events MUST NOT be retried - double-check here even though
         // classifier already marks them retryable=false. Why double-check?
         // If classifier has a bug, this prevents retry from defeating protection.
         if (outcome.reason() == ErrorReason.CIRCUIT_OPEN ||
-            outcome.reason() == ErrorReason.BULKHEAD_REJECTED) {
+            outcome.reason() == ErrorReason.BULKHEAD_REJECTED ||
+            outcome.reason() == ErrorReason.THROTTLED) {
             return false;
         }
 
         // LEARNING: Trust classifier's retryable flag for all other errors
         // - BACKEND_ERROR, CONNECTION_FAILURE → retryable=true → retry
         // - TIMEOUT, CLIENT_ERROR, SERVER_ERROR, UNKNOWN → retryable=false → fail immediately
-        return outcome.retryable();
+        if (!outcome.retryable()) {
+            return false;
+        }
+
+        // LEARNING: Retryable, but only if the shared budget can pay for it. Checked
+        // last, so non-retryable errors never spend credit. Resilience4j also asks on
+        // the final attempt (before it checks maxAttempts), which spends one credit
+        // without a retry - the budget errs on the side of fewer retries.
+        return budget == null || budget.tryAcquire();
     }
 }
@@ -0,0 +1,213 @@
+package com.demo.appa.stream;
+
+import com.demo.appa.batch.MicroBatcher;
+import com.demo.grpc.WorkReply;
+import com.demo.grpc.WorkRequest;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Multiplexes Work calls over a few long-lived WorkStream RPCs per channel.
+ *
+ * LEARNING: Every unary call opens an HTTP/2 stream and encodes a HEADERS frame
+ * (method path, content-type, grpc-timeout, ...) before its ~40 byte payload. On a
+ * persistent bidi stream each call is just one DATA frame each way:
+ * - Replies arrive in completion order; WorkReply.id correlates them to callers
+ * - There is no per-message grpc-timeout, so each message gets a deadline timer
+ *   here: on expiry the caller fails with DEADLINE_EXCEEDED (a late reply is dropped)
+ * - A stream reset (TCP RST, GOAWAY, B restart) fails every message pending on that
+ *   stream with UNAVAILABLE - the same ErrorCode a unary call would see - and the
+ *   next call re-opens the stream
+ * - Several streams per channel: one stream is one HTTP/2 flow-control window
+ *
+ * A request id already pending on the same stream shares that message's reply
+ * instead of being sent twice (B would answer it from its idempotency cache anyway,
+ * and a second reply with the same id could not be told apart).
+ *
+ * Outbound messages are not held back by flow control (isReady): the caller's
+ * bulkhead already bounds how many messages can be in flight.
+ */
+public class WorkStreamClient {
+
+    private final Lane[] lanes;
+    private final ScheduledExecutorService scheduler;
+    private final Runnable onReset;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param openers one per channel: opens a WorkStream given the reply observer
+     *                (e.g. {@code DemoServiceGrpc.newStub(channel)::workStream})
+     * @param scheduler runs per-message deadline timers
+     * @param onReset called once per stream ended by B or the network (metrics)
+     */
+    public WorkStreamClient(List<Function<StreamObserver<WorkReply>, StreamObserver<WorkRequest>>> openers,
+                            int streamsPerChannel, ScheduledExecutorService scheduler, Runnable onReset) {
+        if (openers.isEmpty() || streamsPerChannel < 1) {
+            throw new IllegalArgumentException("need at least one channel and streamsPerChannel >= 1");
+        }
+        this.lanes = new Lane[openers.size() * streamsPerChannel];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(openers.get(i / streamsPerChannel));
+        }
+        this.scheduler = scheduler;
+        this.onReset = onReset;
+    }
+
+    /**
+     * Send one Work item on the next stream (round-robin). The future fails with a
+     * StatusRuntimeException: DEADLINE_EXCEEDED, UNAVAILABLE (stream reset) or the
+     * item's own status (ok=false reply).
+     */
+    public CompletableFuture<WorkReply> call(WorkRequest request, long deadlineMs) {
+        return lanes[Math.floorMod(next.getAndIncrement(), lanes.length)].send(request, deadlineMs);
+    }
+
+    /** Half-close every open stream; B finishes the items it already received. */
+    public void shutdown() {
+        for (Lane lane : lanes) {
+            lane.close();
+        }
+    }
+
+    /** One slot for a stream; re-opens a fresh stream after a reset. */
+    private final class Lane {
+        private final Function<StreamObserver<WorkReply>, StreamObserver<WorkRequest>> opener;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // Guarded by lock
+        private Stream current;
+
+        Lane(Function<StreamObserver<WorkReply>, StreamObserver<WorkRequest>> opener) {
+            this.opener = opener;
+        }
+
+        CompletableFuture<WorkReply> send(WorkRequest request, long deadlineMs) {
+            String id = request.getId();
+            CompletableFuture<WorkReply> future = new CompletableFuture<>();
+            Stream stream;
+            lock.lock();
+            try {
+                if (current == null || current.closed) {
+                    current = new Stream(this);
+                    current.requests = opener.apply(current);
+                }
+                stream = current;
+                CompletableFuture<WorkReply> inFlight = stream.pending.putIfAbsent(id, future);
+                if (inFlight != null) {
+                    return inFlight.copy();
+                }
+                // StreamObserver.onNext is not thread-safe: sends are serialized by lock
+                stream.requests.onNext(request);
+            } catch (RuntimeException e) {
+                // Broken stream (e.g. onNext after cancellation): drop it, the next call re-opens
+                if (current != null) {
+                    current.pending.remove(id, future);
+                    current.closed = true;
+                    current = null;
+                }
+                future.completeExceptionally(Status.UNAVAILABLE
+                        .withDescription("WorkStream send failed").withCause(e).asRuntimeException());
+                return future;
+            } finally {
+                lock.unlock();
+            }
+
+            ScheduledFuture<?> timer = scheduler.schedule(() -> {
+                if (stream.pending.remove(id, future)) {
+                    future.completeExceptionally(Status.DEADLINE_EXCEEDED
+                            .withDescription("WorkStream message deadline exceeded after " + deadlineMs + "ms")
+                            .asRuntimeException());
+                }
+            }, deadlineMs, TimeUnit.MILLISECONDS);
+            future.whenComplete((reply, error) -> timer.cancel(false));
+            return future;
+        }
+
+        /** Mark {@code stream} closed (if still current) so no new message joins it. */
+        void retire(Stream stream) {
+            lock.lock();
+            try {
+                stream.closed = true;
+                if (current == stream) {
+                    current = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                if (current != null) {
+                    current.closed = true;
+                    current.requests.onCompleted();
+                    current = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** One WorkStream RPC: its pending messages and the reply side of the stream. */
+    private final class Stream implements StreamObserver<WorkReply> {
+        private final Lane lane;
+        private final ConcurrentHashMap<String, CompletableFuture<WorkReply>> pending = new ConcurrentHashMap<>();
+        private StreamObserver<WorkRequest> requests;
+        private volatile boolean closed;
+
+        Stream(Lane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public void onNext(WorkReply reply) {
+            CompletableFuture<WorkReply> future = pending.remove(reply.getId());
+            if (future == null) {
+                return;   // already timed out
+            }
+            if (reply.getOk()) {
+                future.complete(reply);
+            } else {
+                future.completeExceptionally(MicroBatcher.itemFailure(reply));
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            reset(Status.UNAVAILABLE.withDescription("WorkStream reset: " + Status.fromThrowable(t).getCode())
+                    .withCause(t));
+        }
+
+        @Override
+        public void onCompleted() {
+            reset(Status.UNAVAILABLE.withDescription("WorkStream closed by server"));
+        }
+
+        private void reset(Status status) {
+            boolean closedByUs = closed;
+            lane.retire(this);
+            if (!closedByUs) {
+                onReset.run();
+            }
+            // No message can join after retire(), so this drains the stream for good
+            for (String id : pending.keySet()) {
+                CompletableFuture<WorkReply> future = pending.remove(id);
+                if (future != null) {
+                    future.completeExceptionally(status.asRuntimeException());
+                }
+            }
+        }
+    }
+}
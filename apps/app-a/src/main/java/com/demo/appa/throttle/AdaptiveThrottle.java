@@ -0,0 +1,134 @@
+package com.demo.appa.throttle;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side adaptive throttling: reject locally with a probability that follows how
+ * many calls B is actually accepting (lock-free sliding window).
+ *
+ * LEARNING: The circuit breaker is binary. In Scenario 3 it sheds 0% while CLOSED and
+ * 100% while OPEN, flipping every waitDurationInOpenState (5s): B gets a burst it
+ * can't handle, then nothing, then another burst. Adaptive throttling sheds just the
+ * excess instead. Over the window, A counts:
+ * - requests: calls it wanted to send (including the ones it throttled)
+ * - accepts:  calls B accepted (anything but overload: timeout, RESOURCE_EXHAUSTED,
+ *   connection failure)
+ * and rejects each new call with probability
+ *
+ *     max(0, (requests - K × accepts) / (requests + 1))
+ *
+ * While B accepts everything, requests ≤ K × accepts and nothing is throttled. When B
+ * accepts only half, A sends about K× what B accepts and throttles the rest. K (2 by
+ * default) is the headroom: higher K lets more excess through to B (slower to
+ * shed, faster to notice recovery), K = 1 sheds as soon as anything is refused.
+ *
+ * The window is a ring of buckets (window / bucketCount each); a bucket is reset when
+ * the ring comes back around to it. Counts are approximate under contention (an
+ * increment racing a bucket reset can be lost) - fine for a probability.
+ */
+public class AdaptiveThrottle {
+
+    private final double k;
+    private final long bucketNanos;
+    private final LongSupplier nanoClock;
+    private final DoubleSupplier random;
+    private final long origin;
+    private final Bucket[] buckets;
+    private final AtomicLong throttled = new AtomicLong();
+
+    public AdaptiveThrottle(double k, Duration window, int bucketCount) {
+        this(k, window, bucketCount, System::nanoTime, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * @param random returns a value in [0, 1)
+     */
+    public AdaptiveThrottle(double k, Duration window, int bucketCount, LongSupplier nanoClock, DoubleSupplier random) {
+        if (k < 1.0 || bucketCount < 1 || window.toNanos() < bucketCount) {
+            throw new IllegalArgumentException("k must be >= 1, bucketCount >= 1 and window positive");
+        }
+        this.k = k;
+        this.bucketNanos = window.toNanos() / bucketCount;
+        this.nanoClock = nanoClock;
+        this.random = random;
+        this.origin = nanoClock.getAsLong();
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    /**
+     * Decide whether a call may go to B. A throttled call counts as a request (that is
+     * what keeps the probability up while B refuses); an allowed one is counted when
+     * its result is reported via {@link #onAccepted()} / {@link #onRefused()}.
+     *
+     * @return false: throttled, do not send
+     */
+    public boolean tryAcquire() {
+        double p = getRejectProbability();
+        if (p > 0 && random.getAsDouble() < p) {
+            current().requests.incrementAndGet();
+            throttled.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /** B accepted the call (success, or an error that is not overload). */
+    public void onAccepted() {
+        Bucket bucket = current();
+        bucket.requests.incrementAndGet();
+        bucket.accepts.incrementAndGet();
+    }
+
+    /** B did not accept the call (timed out, RESOURCE_EXHAUSTED, unreachable). */
+    public void onRefused() {
+        current().requests.incrementAndGet();
+    }
+
+    /** Probability that the next call is throttled, from the current window. */
+    public double getRejectProbability() {
+        long epoch = epoch(nanoClock.getAsLong());
+        long requests = 0;
+        long accepts = 0;
+        for (Bucket bucket : buckets) {
+            if (epoch - bucket.epoch.get() < buckets.length) {
+                requests += bucket.requests.get();
+                accepts += bucket.accepts.get();
+            }
+        }
+        return Math.max(0.0, (requests - k * accepts) / (requests + 1));
+    }
+
+    /** Calls throttled since startup. */
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    private long epoch(long now) {
+        return (now - origin) / bucketNanos;
+    }
+
+    /** The bucket for now; the first caller of a new epoch resets it. */
+    private Bucket current() {
+        long epoch = epoch(nanoClock.getAsLong());
+        Bucket bucket = buckets[(int) (epoch % buckets.length)];
+        long seen = bucket.epoch.get();
+        if (seen < epoch && bucket.epoch.compareAndSet(seen, epoch)) {
+            bucket.requests.set(0);
+            bucket.accepts.set(0);
+        }
+        return bucket;
+    }
+
+    private static final class Bucket {
+        final AtomicLong epoch = new AtomicLong(Long.MIN_VALUE / 2);
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong accepts = new AtomicLong();
+    }
+}
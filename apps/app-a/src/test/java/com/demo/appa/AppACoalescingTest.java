@@ -0,0 +1,154 @@
+package com.demo.appa;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AppACoalescing: leader, waiters, cleanup and cancellation,
+ * against a stub port whose calls complete when the test says so.
+ */
+class AppACoalescingTest {
+
+    private static final WorkResult OK = new WorkResult(true, "OK", 5, ErrorCode.SUCCESS);
+
+    private StubPort port;
+    private SimpleMeterRegistry registry;
+    private AppACoalescing coalescing;
+
+    @BeforeEach
+    void setup() {
+        port = new StubPort();
+        registry = new SimpleMeterRegistry();
+        coalescing = new AppACoalescing(port, new MetricsService(registry));
+    }
+
+    @Test
+    void testWaiters_ShareLeaderCall() throws Exception {
+        CompletableFuture<WorkResult> leader = coalescing.callWorkAsync("r1");
+        CompletableFuture<WorkResult> waiter1 = coalescing.callWorkAsync("r1");
+        CompletableFuture<WorkResult> waiter2 = coalescing.callWorkAsync("r1");
+
+        assertEquals(1, port.calls.size(), "Only the leader reaches the port");
+        port.calls.get(0).complete(OK);
+
+        assertSame(OK, leader.get(1, TimeUnit.SECONDS));
+        assertSame(OK, waiter1.get(1, TimeUnit.SECONDS));
+        assertSame(OK, waiter2.get(1, TimeUnit.SECONDS));
+        assertEquals(2.0, coalescedHits());
+    }
+
+    @Test
+    void testDifferentIds_NotCoalesced() {
+        coalescing.callWorkAsync("r1");
+        coalescing.callWorkAsync("r2");
+
+        assertEquals(2, port.calls.size());
+        assertEquals(2, coalescing.inFlightCount());
+    }
+
+    @Test
+    void testCompletion_RemovesEntry() throws Exception {
+        coalescing.callWorkAsync("r1");
+        port.calls.get(0).complete(OK);
+        assertEquals(0, coalescing.inFlightCount());
+
+        CompletableFuture<WorkResult> next = coalescing.callWorkAsync("r1");
+        assertEquals(2, port.calls.size(), "A caller after completion starts a fresh call");
+        port.calls.get(1).complete(OK);
+        assertSame(OK, next.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testLeaderFailure_ReachesWaitersAndRemovesEntry() {
+        CompletableFuture<WorkResult> leader = coalescing.callWorkAsync("r1");
+        CompletableFuture<WorkResult> waiter = coalescing.callWorkAsync("r1");
+
+        port.calls.get(0).completeExceptionally(new IllegalStateException("boom"));
+
+        assertInstanceOf(IllegalStateException.class, assertThrows(ExecutionException.class, leader::get).getCause());
+        assertInstanceOf(IllegalStateException.class, assertThrows(ExecutionException.class, waiter::get).getCause());
+        assertEquals(0, coalescing.inFlightCount());
+    }
+
+    @Test
+    void testOneCallerCancels_OthersStillServed() throws Exception {
+        CompletableFuture<WorkResult> leader = coalescing.callWorkAsync("r1");
+        CompletableFuture<WorkResult> waiter = coalescing.callWorkAsync("r1");
+
+        leader.cancel(true);
+        assertFalse(port.calls.get(0).isCancelled(), "A caller is still waiting");
+
+        port.calls.get(0).complete(OK);
+        assertSame(OK, waiter.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testAllCallersCancel_CancelsCall() throws Exception {
+        CompletableFuture<WorkResult> leader = coalescing.callWorkAsync("r1");
+        CompletableFuture<WorkResult> waiter = coalescing.callWorkAsync("r1");
+
+        waiter.cancel(true);
+        leader.cancel(true);
+
+        assertTrue(port.calls.get(0).isCancelled(), "Last interested caller gone: cancel the delegate call");
+        assertEquals(0, coalescing.inFlightCount());
+
+        CompletableFuture<WorkResult> next = coalescing.callWorkAsync("r1");
+        assertEquals(2, port.calls.size(), "A new caller starts a fresh call");
+        port.calls.get(1).complete(OK);
+        assertSame(OK, next.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testBlockingLeader_ServesAsyncWaiter() throws Exception {
+        CompletableFuture<WorkResult> blockingResult = CompletableFuture.supplyAsync(() -> coalescing.callWork("r1"));
+        assertTrue(port.blockingEntered.await(1, TimeUnit.SECONDS));
+
+        CompletableFuture<WorkResult> waiter = coalescing.callWorkAsync("r1");
+        waiter.cancel(true);   // the blocking leader is still interested
+        CompletableFuture<WorkResult> waiter2 = coalescing.callWorkAsync("r1");
+
+        port.blockingGate.complete(OK);
+        assertSame(OK, blockingResult.get(1, TimeUnit.SECONDS));
+        assertSame(OK, waiter2.get(1, TimeUnit.SECONDS));
+        assertEquals(1, port.blockingCalls.get());
+        assertTrue(port.calls.isEmpty());
+    }
+
+    private double coalescedHits() {
+        return registry.get("a_coalesced_total").counter().count();
+    }
+
+    /** Async calls complete when the test completes them; blocking calls wait on one gate. */
+    private static final class StubPort implements AppAPort {
+        final List<CompletableFuture<WorkResult>> calls = new CopyOnWriteArrayList<>();
+        final CompletableFuture<WorkResult> blockingGate = new CompletableFuture<>();
+        final CountDownLatch blockingEntered = new CountDownLatch(1);
+        final AtomicInteger blockingCalls = new AtomicInteger();
+
+        @Override
+        public WorkResult callWork(String requestId) {
+            blockingCalls.incrementAndGet();
+            blockingEntered.countDown();
+            return blockingGate.join();
+        }
+
+        @Override
+        public CompletableFuture<WorkResult> callWorkAsync(String requestId) {
+            CompletableFuture<WorkResult> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        }
+    }
+}
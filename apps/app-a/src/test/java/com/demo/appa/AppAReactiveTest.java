@@ -0,0 +1,89 @@
+package com.demo.appa;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AppAReactive's operator stack (CB → bulkhead), without gRPC.
+ *
+ * Breaker: last 4 calls, 50%; bulkhead: 1 permit, no waiting.
+ */
+class AppAReactiveTest {
+
+    private Bulkhead bulkhead;
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setup() {
+        bulkhead = Bulkhead.of("B", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .build();
+        circuitBreaker = CircuitBreaker.of("B", AppAReactive.reactiveBreakerConfig(config));
+    }
+
+    @Test
+    void testBulkheadFull_NotABreakerFailure() {
+        assertTrue(bulkhead.tryAcquirePermission(), "Hold the only permit");
+
+        for (int i = 0; i < 10; i++) {
+            Throwable error = errorOf(AppAReactive.protect(Mono.just("ok"), bulkhead, circuitBreaker));
+            assertInstanceOf(BulkheadFullException.class, error);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState(), "Overload alone must not trip the breaker");
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfBufferedCalls());
+    }
+
+    @Test
+    void testBulkheadFull_ReleasesBreakerPermission() {
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();   // 10 probes (default), counted
+        assertTrue(bulkhead.tryAcquirePermission());
+
+        for (int i = 0; i < 20; i++) {
+            errorOf(AppAReactive.protect(Mono.just("ok"), bulkhead, circuitBreaker));
+        }
+        bulkhead.onComplete();
+
+        assertNull(errorOf(AppAReactive.protect(Mono.just("ok"), bulkhead, circuitBreaker)),
+                "Rejected calls must give their probe permission back");
+    }
+
+    @Test
+    void testCallFailures_StillTripBreaker() {
+        for (int i = 0; i < 4; i++) {
+            Throwable error = errorOf(AppAReactive.protect(
+                    Mono.error(new IllegalStateException("B failed")), bulkhead, circuitBreaker));
+            assertInstanceOf(IllegalStateException.class, error);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertInstanceOf(CallNotPermittedException.class,
+                errorOf(AppAReactive.protect(Mono.just("ok"), bulkhead, circuitBreaker)));
+        assertEquals(1, bulkhead.getMetrics().getAvailableConcurrentCalls(), "OPEN breaker rejects before the bulkhead");
+    }
+
+    private static Throwable errorOf(Mono<String> mono) {
+        return mono.then(Mono.<Throwable>empty())
+                .onErrorResume(Mono::just)
+                .block();
+    }
+}
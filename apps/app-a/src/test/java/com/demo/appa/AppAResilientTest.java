@@ -0,0 +1,89 @@
+package com.demo.appa;
+
+import com.demo.grpc.BatchWorkReply;
+import com.demo.grpc.WorkReply;
+import io.grpc.Deadline;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AppAResilient's static helpers: batch overload detection and the
+ * request-deadline checks.
+ */
+class AppAResilientTest {
+
+    @Test
+    void testOverloadedItem_AllOk() {
+        assertNull(AppAResilient.overloadedItem(batch(ok(), ok())));
+    }
+
+    @Test
+    void testOverloadedItem_ShedItemFailsBatch() {
+        StatusRuntimeException failure = AppAResilient.overloadedItem(batch(ok(), failed("RESOURCE_EXHAUSTED")));
+
+        assertNotNull(failure, "A batch B shed is not a success for the breaker and limiter");
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, failure.getStatus().getCode());
+    }
+
+    @Test
+    void testOverloadedItem_UnavailableItemFailsBatch() {
+        StatusRuntimeException failure = AppAResilient.overloadedItem(batch(failed("UNAVAILABLE")));
+
+        assertNotNull(failure);
+        assertEquals(Status.Code.UNAVAILABLE, failure.getStatus().getCode());
+    }
+
+    @Test
+    void testOverloadedItem_OtherItemErrorsIgnored() {
+        assertNull(AppAResilient.overloadedItem(batch(failed("INVALID_ARGUMENT"), failed("NOT_A_STATUS"))),
+                "A bad item says nothing about B's capacity");
+    }
+
+    @Test
+    void testRetryFits_BackoffPlusAttemptBeforeDeadline() {
+        Deadline deadline = Deadline.after(500, TimeUnit.MILLISECONDS);
+
+        assertTrue(AppAResilient.retryFits(deadline, 50, 0), "No attempt latency known yet: backoff only");
+        assertTrue(AppAResilient.retryFits(deadline, 50, 200));
+        assertFalse(AppAResilient.retryFits(deadline, 50, 450), "Would be cut off by the request deadline");
+    }
+
+    @Test
+    void testRetryFits_ExpiredDeadline() {
+        Deadline expired = Deadline.after(-1, TimeUnit.MILLISECONDS);
+
+        assertFalse(AppAResilient.retryFits(expired, 0, 0));
+    }
+
+    @Test
+    void testCallerDeadlineExpired_OnlyTimeoutsAfterTheCallersDeadline() {
+        Deadline expired = Deadline.after(-1, TimeUnit.MILLISECONDS);
+        Deadline pending = Deadline.after(10, TimeUnit.SECONDS);
+        StatusRuntimeException timeout = Status.DEADLINE_EXCEEDED.asRuntimeException();
+
+        assertTrue(AppAResilient.callerDeadlineExpired(timeout, expired));
+        assertFalse(AppAResilient.callerDeadlineExpired(timeout, pending),
+                "Per-attempt deadline fired first: B was slow, counted as usual");
+        assertFalse(AppAResilient.callerDeadlineExpired(timeout, null));
+        assertFalse(AppAResilient.callerDeadlineExpired(Status.UNAVAILABLE.asRuntimeException(), expired));
+        assertFalse(AppAResilient.callerDeadlineExpired(null, expired));
+    }
+
+    private static BatchWorkReply batch(WorkReply... replies) {
+        return BatchWorkReply.newBuilder().addAllReplies(List.of(replies)).build();
+    }
+
+    private static WorkReply ok() {
+        return WorkReply.newBuilder().setOk(true).setCode("OK").build();
+    }
+
+    private static WorkReply failed(String code) {
+        return WorkReply.newBuilder().setOk(false).setCode(code).build();
+    }
+}
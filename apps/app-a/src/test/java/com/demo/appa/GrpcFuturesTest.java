@@ -0,0 +1,50 @@
+package com.demo.appa;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GrpcFutures.afterCompletion: the action runs before the caller's
+ * callbacks, outcomes pass through, cancellation reaches the source future.
+ */
+class GrpcFuturesTest {
+
+    @Test
+    void testAfterCompletion_ActionRunsBeforeCallerCallbacks() {
+        List<String> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFuture<String> result = GrpcFutures.afterCompletion(source, (r, error) -> order.add("action"));
+        result.whenComplete((r, error) -> order.add("caller"));
+
+        source.complete("ok");
+
+        assertEquals(List.of("action", "caller"), order);
+        assertEquals("ok", result.join());
+    }
+
+    @Test
+    void testAfterCompletion_FailurePassesThrough() {
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFuture<String> result = GrpcFutures.afterCompletion(source, (r, error) -> { });
+        IllegalStateException failure = new IllegalStateException("boom");
+
+        source.completeExceptionally(failure);
+
+        assertSame(failure, GrpcFutures.unwrap(assertThrows(Exception.class, result::join)));
+    }
+
+    @Test
+    void testAfterCompletion_CancelReachesSource() {
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFuture<String> result = GrpcFutures.afterCompletion(source, (r, error) -> { });
+
+        result.cancel(true);
+
+        assertTrue(source.isCancelled());
+    }
+}
@@ -0,0 +1,104 @@
+package com.demo.appa;
+
+import com.demo.appa.observability.CallOutcome;
+import com.demo.appa.observability.ErrorReason;
+import com.demo.appa.observability.GrpcErrorClassifier;
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for MetricsService hot-path recording.
+ *
+ * Validates that every label combination is registered at startup, that recording
+ * hits the right pre-registered meter, and that recording allocates nothing.
+ */
+class MetricsServiceTest {
+
+    private static final int CALLS = 10_000;
+
+    private SimpleMeterRegistry registry;
+    private MetricsService metrics;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        metrics = new MetricsService(registry);
+    }
+
+    @Test
+    void testAllSeriesRegisteredAtStartup() {
+        assertEquals(ErrorReason.values().length * 2,
+                registry.get("grpc_client_requests_total").tag("method", "Work").counters().size(),
+                "One counter per reason × retryable");
+        assertEquals(ErrorCode.values().length,
+                registry.get("a_downstream_errors_total").counters().size(),
+                "One counter per ErrorCode");
+    }
+
+    @Test
+    void testRecordCall_IncrementsMatchingSeries() {
+        metrics.recordCall("Work", 12, GrpcErrorClassifier.forStatus(Status.Code.RESOURCE_EXHAUSTED));
+
+        assertEquals(1.0, registry.get("grpc_client_requests_total")
+                .tags("method", "Work", "result", "FAILURE", "reason", "BACKEND_ERROR", "retryable", "true")
+                .counter().count());
+        assertEquals(0.0, registry.get("grpc_client_requests_total")
+                .tags("method", "Work", "reason", "BACKEND_ERROR", "retryable", "false")
+                .counter().count());
+        assertEquals(1, registry.get("grpc_client_latency_ms").tag("method", "Work").timer().count());
+    }
+
+    @Test
+    void testRecordCall_OtherMethodRegisteredOnFirstUse() {
+        metrics.recordCall("BatchWork", 3, CallOutcome.SUCCESS);
+
+        assertEquals(1.0, registry.get("grpc_client_requests_total")
+                .tags("method", "BatchWork", "result", "SUCCESS", "reason", "SUCCESS", "retryable", "false")
+                .counter().count());
+    }
+
+    @Test
+    void testRecordDownstreamCall_IncrementsCodeSeries() {
+        metrics.recordDownstreamCall(40, ErrorCode.DEADLINE_EXCEEDED);
+
+        assertEquals(1.0, registry.get("a_downstream_errors_total").tag("code", "DEADLINE_EXCEEDED").counter().count());
+        assertEquals(1, registry.get("a_downstream_latency_ms").timer().count());
+    }
+
+    @Test
+    void testHotPath_ZeroBytesAllocatedPerCall() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        CallOutcome success = CallOutcome.SUCCESS;
+        CallOutcome failure = GrpcErrorClassifier.forStatus(Status.Code.UNAVAILABLE);
+
+        // Warm up: JIT, lazily sized histogram buffers for this value range
+        for (int i = 0; i < 2 * CALLS; i++) {
+            recordPair(i, success, failure);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < CALLS; i++) {
+            recordPair(i, success, failure);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(0, allocated / CALLS,
+                "recordCall + recordDownstreamCall should not allocate, got " + allocated + " bytes for " + CALLS + " calls");
+    }
+
+    private void recordPair(int i, CallOutcome success, CallOutcome failure) {
+        boolean ok = (i & 1) == 0;
+        metrics.recordCall("Work", i & 127, ok ? success : failure);
+        metrics.recordDownstreamCall(i & 127, ok ? ErrorCode.SUCCESS : ErrorCode.UNAVAILABLE);
+    }
+}
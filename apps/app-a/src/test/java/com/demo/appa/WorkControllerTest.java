@@ -0,0 +1,98 @@
+package com.demo.appa;
+
+import io.grpc.Deadline;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit tests for WorkController: GET /api/work per execution mode, against a stub
+ * port that answers at once, and the request deadline taken from the timeout header.
+ */
+class WorkControllerTest {
+
+    private static final WorkResult OK = new WorkResult(true, "OK", 5, ErrorCode.SUCCESS);
+
+    private final WorkController controller = new WorkController(new StubPort(), () -> "generated", 2000);
+
+    @Test
+    void testBlockingWork_NoAsyncDispatch() throws Exception {
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new WorkController.BlockingWork(controller)).build();
+
+        mvc.perform(get("/api/work"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ok").value(true))
+                .andExpect(jsonPath("$.code").value("OK"));
+    }
+
+    @Test
+    void testAsyncWork_CompletesThroughAsyncDispatch() throws Exception {
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new WorkController.AsyncWork(controller)).build();
+
+        MvcResult started = mvc.perform(get("/api/work"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ok").value(true));
+    }
+
+    @Test
+    void testRequestDeadline_NoHeader() {
+        assertRemainingMs(2000, WorkController.requestDeadline(null, 2000));
+        assertNull(WorkController.requestDeadline(null, 0), "No header, no default: no deadline");
+    }
+
+    @Test
+    void testRequestDeadline_HeaderShortens() {
+        assertRemainingMs(300, WorkController.requestDeadline(300L, 2000));
+    }
+
+    @Test
+    void testRequestDeadline_AboveMax_Capped() {
+        assertRemainingMs(2000, WorkController.requestDeadline(60_000L, 2000));
+        assertRemainingMs(60_000, WorkController.requestDeadline(60_000L, 0));
+    }
+
+    @Test
+    void testRequestDeadline_ZeroOrNegative_RaisedToFloor() {
+        assertRemainingMs(WorkController.MIN_TIMEOUT_MS, WorkController.requestDeadline(0L, 2000));
+        assertRemainingMs(WorkController.MIN_TIMEOUT_MS, WorkController.requestDeadline(1L, 2000));
+        assertRemainingMs(WorkController.MIN_TIMEOUT_MS, WorkController.requestDeadline(-5L, 2000));
+        assertRemainingMs(WorkController.MIN_TIMEOUT_MS, WorkController.requestDeadline(-5L, 0));
+    }
+
+    /** Deadline set just now: between expectedMs - 100ms (slow test machine) and expectedMs. */
+    private static void assertRemainingMs(long expectedMs, Deadline deadline) {
+        assertNotNull(deadline);
+        long remaining = deadline.timeRemaining(TimeUnit.MILLISECONDS);
+        assertTrue(remaining <= expectedMs && remaining > expectedMs - 100,
+                "Expected ~" + expectedMs + "ms left, got " + remaining);
+    }
+
+    private static class StubPort implements AppAPort {
+        @Override
+        public WorkResult callWork(String requestId) {
+            return OK;
+        }
+
+        @Override
+        public CompletableFuture<WorkResult> callWorkAsync(String requestId) {
+            return CompletableFuture.completedFuture(OK);
+        }
+    }
+}
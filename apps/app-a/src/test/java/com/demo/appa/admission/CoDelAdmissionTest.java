@@ -0,0 +1,108 @@
+package com.demo.appa.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CoDelAdmission (real time, short intervals):
+ * - Free slot → admitted without waiting
+ * - Standing queue (min delay > target for an interval) → overloaded, SHEDDABLE shed
+ *   first, DEFAULT next; CRITICAL never shed by level
+ * - A calm interval lowers the shed level again
+ */
+class CoDelAdmissionTest {
+
+    private static final Duration TARGET = Duration.ofMillis(2);
+    private static final Duration INTERVAL = Duration.ofMillis(30);
+
+    @Test
+    void testFreeSlot_Admitted() throws Exception {
+        CoDelAdmission admission = new CoDelAdmission(2, TARGET, INTERVAL);
+
+        assertTrue(admission.tryAdmit(Criticality.SHEDDABLE));
+        assertTrue(admission.tryAdmit(Criticality.DEFAULT));
+        assertEquals(2, admission.getInflight());
+
+        admission.release();
+        assertEquals(1, admission.getInflight());
+    }
+
+    @Test
+    void testFull_WaitsAtMostInterval() throws Exception {
+        CoDelAdmission admission = new CoDelAdmission(1, TARGET, INTERVAL);
+        assertTrue(admission.tryAdmit(Criticality.DEFAULT));
+
+        long start = System.nanoTime();
+        assertFalse(admission.tryAdmit(Criticality.DEFAULT), "No slot freed within the interval");
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(waitedMs >= 25, "Should wait ~one interval before shedding, waited " + waitedMs);
+    }
+
+    @Test
+    void testStandingQueue_ShedsLowestCriticalityFirst() throws Exception {
+        CoDelAdmission admission = overloaded();
+        assertEquals(1, admission.getShedLevel());
+
+        long start = System.nanoTime();
+        assertFalse(admission.tryAdmit(Criticality.SHEDDABLE));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 5, "SHEDDABLE is rejected without waiting");
+
+        start = System.nanoTime();
+        assertFalse(admission.tryAdmit(Criticality.DEFAULT));   // still queued, but only waits the target
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 25, "Overloaded: DEFAULT waits target, not interval");
+
+        Thread.sleep(INTERVAL.toMillis() + 5);
+        assertFalse(admission.tryAdmit(Criticality.DEFAULT), "Second overloaded interval sheds DEFAULT too");
+        assertEquals(2, admission.getShedLevel());
+
+        admission.release();
+        assertTrue(admission.tryAdmit(Criticality.CRITICAL), "CRITICAL is never shed by level");
+    }
+
+    @Test
+    void testCalmInterval_LowersShedLevel() throws Exception {
+        CoDelAdmission admission = overloaded();
+        admission.release();
+
+        // Slot free again: the next request gets in without queueing
+        assertTrue(admission.tryAdmit(Criticality.CRITICAL));
+        admission.release();
+        Thread.sleep(INTERVAL.toMillis() + 5);
+
+        assertTrue(admission.tryAdmit(Criticality.SHEDDABLE));
+        assertFalse(admission.isOverloaded());
+        assertEquals(0, admission.getShedLevel());
+    }
+
+    @Test
+    void testInvalidArguments_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CoDelAdmission(0, TARGET, INTERVAL));
+        assertThrows(IllegalArgumentException.class, () -> new CoDelAdmission(1, INTERVAL, TARGET));
+    }
+
+    @Test
+    void testCriticality_FromHeader() {
+        assertEquals(Criticality.CRITICAL, Criticality.fromHeader("critical"));
+        assertEquals(Criticality.SHEDDABLE, Criticality.fromHeader(" SHEDDABLE "));
+        assertEquals(Criticality.DEFAULT, Criticality.fromHeader(null));
+        assertEquals(Criticality.DEFAULT, Criticality.fromHeader("urgent"));
+    }
+
+    /**
+     * One slot, held; one whole interval in which every request queued past the
+     * target. Returns right after the controller judged that interval (level 1).
+     */
+    private static CoDelAdmission overloaded() throws InterruptedException {
+        CoDelAdmission admission = new CoDelAdmission(1, TARGET, INTERVAL);
+        assertTrue(admission.tryAdmit(Criticality.CRITICAL));
+        Thread.sleep(INTERVAL.toMillis() + 5);
+        assertFalse(admission.tryAdmit(Criticality.DEFAULT));   // new interval; waits all of it
+        Thread.sleep(5);
+        assertFalse(admission.tryAdmit(Criticality.SHEDDABLE)); // judges it: overloaded, SHEDDABLE shed
+        assertTrue(admission.isOverloaded());
+        return admission;
+    }
+}
@@ -0,0 +1,120 @@
+package com.demo.appa.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BoundedFanOut.
+ *
+ * Validates the parallelism bound, results in completion order, synchronous
+ * completions without recursion, and how cancel / failures end the fan-out.
+ */
+class BoundedFanOutTest {
+
+    private final List<CompletableFuture<String>> pending = new ArrayList<>();
+    private final List<String> results = new ArrayList<>();
+
+    private CompletableFuture<String> manual(Integer item) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        pending.add(future);
+        return future;
+    }
+
+    @Test
+    void testParallelism_NextItemStartsOnCompletion() {
+        BoundedFanOut<Integer, String> fanOut =
+                new BoundedFanOut<>(List.of(0, 1, 2, 3, 4), 2, this::manual, (item, r) -> results.add(r));
+        CompletableFuture<Void> done = fanOut.start();
+        assertEquals(2, pending.size(), "Only parallelism items start");
+
+        pending.get(1).complete("b");
+        assertEquals(3, pending.size(), "A completion starts the next item");
+        assertEquals(List.of("b"), results, "Results are delivered in completion order");
+
+        pending.get(0).complete("a");
+        pending.get(2).complete("c");
+        pending.get(3).complete("d");
+        assertFalse(done.isDone());
+        pending.get(4).complete("e");
+
+        assertTrue(done.isDone());
+        assertEquals(List.of("b", "a", "c", "d", "e"), results);
+    }
+
+    @Test
+    void testSynchronousCompletions_NoStackOverflow() {
+        List<Integer> items = IntStream.range(0, 100_000).boxed().toList();
+        BoundedFanOut<Integer, String> fanOut = new BoundedFanOut<>(items, 4,
+                item -> CompletableFuture.completedFuture("r" + item), (item, r) -> results.add(r));
+
+        fanOut.start().join();
+
+        assertEquals(100_000, results.size());
+    }
+
+    @Test
+    void testEmpty_CompletesImmediately() {
+        BoundedFanOut<Integer, String> fanOut =
+                new BoundedFanOut<>(List.of(), 4, this::manual, (item, r) -> results.add(r));
+
+        assertTrue(fanOut.start().isDone());
+        assertTrue(pending.isEmpty());
+    }
+
+    @Test
+    void testCancel_StartsNoMoreItems() {
+        BoundedFanOut<Integer, String> fanOut =
+                new BoundedFanOut<>(List.of(0, 1, 2, 3), 1, this::manual, (item, r) -> results.add(r));
+        CompletableFuture<Void> done = fanOut.start();
+
+        fanOut.cancel();
+        assertFalse(done.isDone(), "The item in flight still completes");
+        pending.get(0).complete("a");
+
+        assertTrue(done.isDone());
+        assertEquals(1, pending.size());
+        assertEquals(List.of("a"), results);
+    }
+
+    @Test
+    void testCallFailure_OtherItemsStillRun() {
+        BoundedFanOut<Integer, String> fanOut = new BoundedFanOut<>(List.of(0, 1, 2), 1,
+                item -> item == 1
+                        ? CompletableFuture.failedFuture(new IllegalStateException("boom"))
+                        : CompletableFuture.completedFuture("r" + item),
+                (item, r) -> results.add(r));
+
+        CompletableFuture<Void> done = fanOut.start();
+
+        assertEquals(List.of("r0", "r2"), results);
+        CompletionException e = assertThrows(CompletionException.class, done::join);
+        assertEquals("boom", e.getCause().getMessage());
+    }
+
+    @Test
+    void testResultConsumerThrows_StopsFanOut() {
+        BoundedFanOut<Integer, String> fanOut = new BoundedFanOut<>(List.of(0, 1, 2, 3), 1, this::manual,
+                (item, r) -> {
+                    throw new IllegalStateException("client gone");
+                });
+        CompletableFuture<Void> done = fanOut.start();
+
+        pending.get(0).complete("a");
+
+        assertEquals(1, pending.size(), "No item starts after the consumer failed");
+        assertTrue(done.isCompletedExceptionally());
+    }
+
+    @Test
+    void testInvalidParallelism_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BoundedFanOut<>(List.of(1), 0, this::manual, (item, r) -> { }));
+    }
+}
@@ -0,0 +1,154 @@
+package com.demo.appa.batch;
+
+import com.demo.grpc.WorkReply;
+import com.demo.grpc.WorkRequest;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MicroBatcher.
+ *
+ * Validates both flush triggers (size, timer), reply fan-out in request order,
+ * and how batch- and item-level failures reach each caller.
+ */
+class MicroBatcherTest {
+
+    private ScheduledExecutorService scheduler;
+    private List<List<WorkRequest>> sent;
+
+    @BeforeEach
+    void setup() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        sent = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    void teardown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void testSizeFlush_OneRpcForFullBatch() throws Exception {
+        // Long delay: only the size trigger can flush within the test
+        MicroBatcher batcher = new MicroBatcher(3, TimeUnit.SECONDS.toMicros(10), this::echo, scheduler);
+
+        CompletableFuture<WorkReply> r1 = batcher.submit(request("a"));
+        CompletableFuture<WorkReply> r2 = batcher.submit(request("b"));
+        assertTrue(sent.isEmpty(), "Batch should wait until full");
+        CompletableFuture<WorkReply> r3 = batcher.submit(request("c"));
+
+        assertEquals(1, sent.size());
+        assertEquals(3, sent.get(0).size());
+        assertEquals("a", r1.get(1, TimeUnit.SECONDS).getCode());
+        assertEquals("b", r2.get(1, TimeUnit.SECONDS).getCode());
+        assertEquals("c", r3.get(1, TimeUnit.SECONDS).getCode());
+    }
+
+    @Test
+    void testTimerFlush_PartialBatchSentAfterDelay() throws Exception {
+        MicroBatcher batcher = new MicroBatcher(100, 1000, this::echo, scheduler);
+
+        CompletableFuture<WorkReply> r1 = batcher.submit(request("a"));
+
+        assertEquals("a", r1.get(1, TimeUnit.SECONDS).getCode());
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    void testTimerFlush_ItemsShareOneBatch() {
+        // Long delay: the test fires the timer itself, after both items are queued
+        MicroBatcher batcher = new MicroBatcher(100, TimeUnit.SECONDS.toMicros(10), this::echo, scheduler);
+
+        CompletableFuture<WorkReply> r1 = batcher.submit(request("a"));
+        CompletableFuture<WorkReply> r2 = batcher.submit(request("b"));
+        assertTrue(sent.isEmpty());
+        batcher.flushOnTimer();
+
+        assertEquals(1, sent.size(), "Both items should share one timer flush");
+        assertEquals("a", r1.join().getCode());
+        assertEquals("b", r2.join().getCode());
+        batcher.flushOnTimer();
+        assertEquals(1, sent.size(), "Nothing pending: a late timer sends nothing");
+    }
+
+    @Test
+    void testItemFailure_MappedToGrpcStatus() {
+        MicroBatcher batcher = new MicroBatcher(2, TimeUnit.SECONDS.toMicros(10), requests -> {
+            List<WorkReply> replies = new ArrayList<>();
+            replies.add(WorkReply.newBuilder().setOk(true).setCode("SUCCESS").build());
+            replies.add(WorkReply.newBuilder().setOk(false).setCode("RESOURCE_EXHAUSTED").build());
+            return CompletableFuture.completedFuture(replies);
+        }, scheduler);
+
+        CompletableFuture<WorkReply> ok = batcher.submit(request("a"));
+        CompletableFuture<WorkReply> failed = batcher.submit(request("b"));
+
+        assertTrue(ok.join().getOk(), "A failed item should not fail its neighbours");
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, statusOf(failed));
+    }
+
+    @Test
+    void testItemFailure_UnknownCodeMapsToUnknown() {
+        WorkReply reply = WorkReply.newBuilder().setOk(false).setCode("NOT_A_STATUS").build();
+
+        assertEquals(Status.Code.UNKNOWN, MicroBatcher.itemFailure(reply).getStatus().getCode());
+    }
+
+    @Test
+    void testRpcFailure_FailsEveryItem() {
+        MicroBatcher batcher = new MicroBatcher(2, TimeUnit.SECONDS.toMicros(10), requests ->
+                CompletableFuture.failedFuture(Status.UNAVAILABLE.asRuntimeException()), scheduler);
+
+        CompletableFuture<WorkReply> r1 = batcher.submit(request("a"));
+        CompletableFuture<WorkReply> r2 = batcher.submit(request("b"));
+
+        assertEquals(Status.Code.UNAVAILABLE, statusOf(r1));
+        assertEquals(Status.Code.UNAVAILABLE, statusOf(r2));
+    }
+
+    @Test
+    void testMissingReply_FailsWithInternal() {
+        MicroBatcher batcher = new MicroBatcher(2, TimeUnit.SECONDS.toMicros(10), requests ->
+                CompletableFuture.completedFuture(List.of(WorkReply.newBuilder().setOk(true).build())), scheduler);
+
+        CompletableFuture<WorkReply> r1 = batcher.submit(request("a"));
+        CompletableFuture<WorkReply> r2 = batcher.submit(request("b"));
+
+        assertTrue(r1.join().getOk());
+        assertEquals(Status.Code.INTERNAL, statusOf(r2));
+    }
+
+    /** Sender that answers each item with its id as the code, preserving order. */
+    private CompletableFuture<List<WorkReply>> echo(List<WorkRequest> requests) {
+        sent.add(requests);
+        List<WorkReply> replies = new ArrayList<>();
+        for (WorkRequest request : requests) {
+            replies.add(WorkReply.newBuilder().setOk(true).setCode(request.getId()).build());
+        }
+        return CompletableFuture.completedFuture(replies);
+    }
+
+    private static WorkRequest request(String id) {
+        return WorkRequest.newBuilder().setId(id).build();
+    }
+
+    private static Status.Code statusOf(CompletableFuture<WorkReply> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(StatusRuntimeException.class, e.getCause());
+        return ((StatusRuntimeException) e.getCause()).getStatus().getCode();
+    }
+}
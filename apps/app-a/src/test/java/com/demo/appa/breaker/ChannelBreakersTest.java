@@ -0,0 +1,160 @@
+package com.demo.appa.breaker;
+
+import com.demo.appa.observability.LatencyTracker;
+import com.demo.appa.pool.ChannelPicker;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChannelBreakers: routing around OPEN channels, failing fast only
+ * when every channel is OPEN, and the service-level state.
+ *
+ * 3 channels; each breaker: last 4 calls, 50%, 2 probes in HALF_OPEN.
+ */
+class ChannelBreakersTest {
+
+    private ChannelBreakers breakers;
+
+    @BeforeEach
+    void setup() {
+        breakers = new ChannelBreakers(registry(), "B", 3);
+    }
+
+    @Test
+    void testOpenChannel_RoutedAround() {
+        breakers.get(1).transitionToOpenState();
+        ChannelPicker picker = new ChannelPicker(3, breakers::isAvailable);
+
+        assertTrue(breakers.tryAcquire(), "Other channels are still closed");
+        for (int i = 0; i < 100; i++) {
+            int channel = breakers.pickChannel(picker, -1);
+            assertNotEquals(1, channel);
+            breakers.onRpcSuccess(channel, TimeUnit.MILLISECONDS.toNanos(5));
+        }
+    }
+
+    @Test
+    void testChannelOpenedAfterPick_TriesAnother() {
+        // The picker's view is stale: it still offers channel 0, whose breaker is OPEN
+        ChannelPicker picker = new ChannelPicker(3, i -> true, bound -> 0);
+        breakers.get(0).transitionToOpenState();
+
+        int channel = breakers.pickChannel(picker, -1);
+
+        assertEquals(1, channel);
+        breakers.onRpcSuccess(channel, TimeUnit.MILLISECONDS.toNanos(5));
+        assertEquals(1, breakers.get(1).getMetrics().getNumberOfBufferedCalls(),
+                "Counted on the channel the RPC ran on");
+        assertEquals(0, breakers.get(0).getMetrics().getNumberOfBufferedCalls());
+    }
+
+    @Test
+    void testFailures_OpenOnlyThatChannel() {
+        for (int i = 0; i < 4; i++) {
+            breakers.get(2).tryAcquirePermission();
+            breakers.onRpcError(2, TimeUnit.MILLISECONDS.toNanos(5), new IllegalStateException("B-2 down"));
+        }
+
+        assertFalse(breakers.isAvailable(2));
+        assertTrue(breakers.isAvailable(0));
+        assertTrue(breakers.tryAcquire());
+        assertTrue(breakers.allowsRetry());
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.getState());
+    }
+
+    @Test
+    void testAllOpen_FailsFast() {
+        breakers.get(0).transitionToOpenState();
+        breakers.get(1).transitionToOpenState();
+        assertTrue(breakers.tryAcquire(), "One channel left: not yet");
+        assertFalse(breakers.allOpen());
+
+        breakers.get(2).transitionToOpenState();
+
+        assertTrue(breakers.allOpen());
+        assertFalse(breakers.tryAcquire());
+        assertFalse(breakers.allowsRetry());
+        assertEquals(CircuitBreaker.State.OPEN, breakers.getState());
+        ChannelPicker picker = new ChannelPicker(3, breakers::isAvailable);
+        assertThrows(CircuitOpenException.class, () -> breakers.pickChannel(picker, -1));
+        assertEquals("All 3 channel circuit breakers of 'B' are OPEN and do not permit further calls",
+                breakers.notPermitted().getMessage(), "Names the scope, not one channel");
+    }
+
+    @Test
+    void testNoProbesLeft_NotPermitted() {
+        ChannelPicker picker = new ChannelPicker(2, i -> true);
+        ChannelBreakers two = new ChannelBreakers(registry(), "B", 2);
+        for (int i = 0; i < 2; i++) {
+            two.get(i).transitionToOpenState();
+            two.get(i).transitionToHalfOpenState();
+        }
+
+        for (int i = 0; i < 4; i++) {
+            two.pickChannel(picker, -1);   // 2 probes per channel
+        }
+        assertEquals(CircuitBreaker.State.HALF_OPEN, two.getState());
+        assertThrows(CircuitOpenException.class, () -> two.pickChannel(picker, -1));
+
+        two.onRpcCancelled(0);
+        assertEquals(0, two.pickChannel(picker, -1), "A cancelled RPC gives its probe back");
+    }
+
+    @Test
+    void testExcludedChannel_NeverUsedAsFallback() {
+        ChannelPicker picker = new ChannelPicker(3, i -> true, bound -> 0);
+        breakers.get(1).transitionToOpenState();
+
+        // Excluding 0 (the primary's channel), the picker offers 1 (OPEN), then 0: a hedge
+        // must not ride the primary's connection, so it is refused rather than sent there
+        assertThrows(CircuitOpenException.class, () -> breakers.pickChannel(picker, 0));
+        assertEquals(0, breakers.get(0).getMetrics().getNumberOfBufferedCalls()
+                + breakers.get(0).getMetrics().getNumberOfNotPermittedCalls());
+    }
+
+    @Test
+    void testState_HalfOpenWhenNoneClosed() {
+        breakers.get(0).transitionToOpenState();
+        breakers.get(1).transitionToOpenState();
+        breakers.get(1).transitionToHalfOpenState();
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.getState(), "Channel 2 is closed");
+
+        breakers.get(2).transitionToOpenState();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breakers.getState());
+    }
+
+    @Test
+    void testLatencyTrigger_OpensSlowChannelOnly() {
+        ChannelBreakers slo = new ChannelBreakers(registry(), "B", 2,
+                () -> new LatencySloTrigger(99, 150, 5, () -> new LatencyTracker(Duration.ofSeconds(10), 10,
+                        Duration.ZERO, 10_000)));
+
+        for (int i = 0; i < 10 && slo.isAvailable(0); i++) {
+            slo.get(0).tryAcquirePermission();
+            slo.onRpcSuccess(0, TimeUnit.MILLISECONDS.toNanos(400));
+            slo.get(1).tryAcquirePermission();
+            slo.onRpcSuccess(1, TimeUnit.MILLISECONDS.toNanos(5));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, slo.get(0).getState());
+        assertEquals(CircuitBreaker.State.CLOSED, slo.get(1).getState());
+        assertEquals(0, slo.getLatencyTrigger(0).getPercentileMs(), "Reset when the breaker opened");
+    }
+
+    private static CircuitBreakerRegistry registry() {
+        return CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .permittedNumberOfCallsInHalfOpenState(2)
+                .build());
+    }
+}
@@ -0,0 +1,57 @@
+package com.demo.appa.breaker;
+
+import com.demo.appa.observability.LatencyTracker;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GlobalBreaker's latency trigger: it judges the successful attempt's
+ * RTT, not the whole call (retries, backoff and hedge wait are A's time, not B's).
+ *
+ * SLO: p99 <= 150ms over at least 5 samples.
+ */
+class GlobalBreakerTest {
+
+    private GlobalBreaker breaker;
+
+    @BeforeEach
+    void setup() {
+        breaker = new GlobalBreaker(CircuitBreaker.ofDefaults("B"),
+                new LatencySloTrigger(99, 150, 5, () -> new LatencyTracker(Duration.ofSeconds(10), 10,
+                        Duration.ZERO, 10_000)));
+    }
+
+    @Test
+    void testSlowCallFastAttempt_StaysClosed() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onCallSuccess(400, TimeUnit.MILLISECONDS.toNanos(5));   // 395ms of retry backoff
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testSlowAttempt_Opens() {
+        for (int i = 0; i < 10 && breaker.tryAcquire(); i++) {
+            breaker.onCallSuccess(400, TimeUnit.MILLISECONDS.toNanos(400));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testUnknownRtt_UsesCallLatency() {
+        for (int i = 0; i < 10 && breaker.tryAcquire(); i++) {
+            breaker.onCallSuccess(400, -1);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
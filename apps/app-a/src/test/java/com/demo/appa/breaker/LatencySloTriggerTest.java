@@ -0,0 +1,134 @@
+package com.demo.appa.breaker;
+
+import com.demo.appa.observability.LatencyTracker;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatencySloTrigger.
+ *
+ * Uses a manual clock: p99 over a 10s window (10 buckets), SLO 150ms, at least 20
+ * samples. The window's snapshot refreshes every 100ms, so each test advances the
+ * clock before the sample that should be judged.
+ */
+class LatencySloTriggerTest {
+
+    private AtomicLong clock;
+    private LatencySloTrigger trigger;
+
+    @BeforeEach
+    void setup() {
+        clock = new AtomicLong(0);
+        trigger = new LatencySloTrigger(99, 150, 20,
+                () -> new LatencyTracker(Duration.ofSeconds(10), 10, Duration.ofMillis(100), 10_000, clock::get));
+    }
+
+    @Test
+    void testBelowMinSamples_DoesNotFire() {
+        for (int i = 0; i < 10; i++) {
+            trigger.record(500);
+        }
+        advance(Duration.ofMillis(100));
+        assertFalse(trigger.record(500), "11 samples are below minSamples=20");
+    }
+
+    @Test
+    void testFastCalls_DoNotFire() {
+        recordMany(100, 50);
+        advance(Duration.ofMillis(100));
+        assertFalse(trigger.record(50));
+        assertEquals(50, trigger.getPercentileMs());
+    }
+
+    @Test
+    void testP99AboveSlo_FiresOncePerWindow() {
+        recordMany(95, 50);
+        recordMany(5, 400);
+        advance(Duration.ofMillis(100));
+
+        assertTrue(trigger.record(50), "p99 = 400ms > 150ms should fire");
+        assertTrue(trigger.getPercentileMs() > trigger.getSloMs());
+
+        advance(Duration.ofMillis(100));
+        assertFalse(trigger.record(400), "Already fired in this window");
+    }
+
+    @Test
+    void testReset_StartsFreshWindow() {
+        recordMany(100, 400);
+        advance(Duration.ofMillis(100));
+        assertTrue(trigger.record(400));
+
+        trigger.reset();
+        assertEquals(0, trigger.getPercentileMs());
+
+        recordMany(5, 400);
+        advance(Duration.ofMillis(100));
+        assertFalse(trigger.record(400), "New window has too few samples");
+
+        recordMany(20, 400);
+        advance(Duration.ofMillis(100));
+        assertTrue(trigger.record(400), "New window can fire again");
+    }
+
+    @Test
+    void testSlowSamples_AgeOut() {
+        recordMany(100, 400);
+        advance(Duration.ofMillis(100));
+        assertTrue(trigger.getPercentileMs() > trigger.getSloMs());
+        advance(Duration.ofSeconds(11));
+
+        recordMany(100, 50);
+        advance(Duration.ofMillis(100));
+        assertFalse(trigger.record(50), "Slow samples left the window before it was judged");
+        assertEquals(50, trigger.getPercentileMs());
+    }
+
+    @Test
+    void testHalfOpen_DoesNotUseUpTrip() {
+        CircuitBreaker breaker = CircuitBreaker.ofDefaults("B");
+        breaker.transitionToOpenState();
+        trigger.reset();   // as the breaker's OPEN listener does
+        breaker.transitionToHalfOpenState();
+
+        for (int i = 0; i < 30; i++) {
+            assertFalse(trigger.recordAndTrip(breaker, 400));
+            advance(Duration.ofMillis(10));
+        }
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(), "HALF_OPEN is left to the probes");
+
+        breaker.transitionToClosedState();
+        advance(Duration.ofMillis(100));
+        assertTrue(trigger.recordAndTrip(breaker, 400), "Still slow once CLOSED: trips");
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(trigger.recordAndTrip(breaker, 400), "Not CLOSED anymore");
+    }
+
+    @Test
+    void testInvalidArgs_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LatencySloTrigger(0, 150, 20, this::tracker));
+        assertThrows(IllegalArgumentException.class, () -> new LatencySloTrigger(101, 150, 20, this::tracker));
+        assertThrows(IllegalArgumentException.class, () -> new LatencySloTrigger(99, -1, 20, this::tracker));
+        assertThrows(IllegalArgumentException.class, () -> new LatencySloTrigger(99, 150, 0, this::tracker));
+    }
+
+    private LatencyTracker tracker() {
+        return new LatencyTracker(Duration.ofSeconds(10), 10, Duration.ofMillis(100), 10_000, clock::get);
+    }
+
+    private void recordMany(int count, long latencyMs) {
+        for (int i = 0; i < count; i++) {
+            trigger.record(latencyMs);
+        }
+    }
+
+    private void advance(Duration d) {
+        clock.addAndGet(d.toNanos());
+    }
+}
@@ -0,0 +1,76 @@
+package com.demo.appa.cache;
+
+import com.demo.appa.ErrorCode;
+import com.demo.appa.WorkResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ResultCache.
+ *
+ * Validates what gets cached (SUCCESS only), what a hit looks like, and the
+ * memory accounting behind a_result_cache_memory_bytes.
+ */
+class ResultCacheTest {
+
+    private ResultCache cache;
+
+    @BeforeEach
+    void setup() {
+        cache = new ResultCache(1024 * 1024, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testSuccess_CachedWithZeroLatency() {
+        cache.put("req-1", new WorkResult(true, "OK", 120, ErrorCode.SUCCESS));
+
+        WorkResult hit = cache.getIfPresent("req-1");
+
+        assertNotNull(hit);
+        assertTrue(hit.isOk());
+        assertEquals("OK", hit.getCode());
+        assertEquals(0, hit.getLatencyMs(), "A hit makes no call, so reports no call latency");
+        assertEquals(ErrorCode.SUCCESS, hit.getErrorCode());
+    }
+
+    @Test
+    void testFailures_NotCached() {
+        cache.put("req-1", new WorkResult(false, "BACKEND_ERROR", 5, ErrorCode.BACKEND_ERROR));
+        cache.put("req-2", new WorkResult(false, "DEADLINE_EXCEEDED", 800, ErrorCode.DEADLINE_EXCEEDED));
+        cache.put("req-3", new WorkResult(false, "CIRCUIT_OPEN", 0, ErrorCode.CIRCUIT_OPEN));
+
+        assertNull(cache.getIfPresent("req-1"), "Failures must stay retryable");
+        assertNull(cache.getIfPresent("req-2"));
+        assertNull(cache.getIfPresent("req-3"));
+    }
+
+    @Test
+    void testMiss_ReturnsNull() {
+        assertNull(cache.getIfPresent("unknown"));
+    }
+
+    @Test
+    void testEstimatedBytes_TracksEntries() {
+        assertEquals(0, cache.estimatedBytes());
+
+        WorkResult result = new WorkResult(true, "OK", 10, ErrorCode.SUCCESS);
+        cache.put("req-1", result);
+        cache.put("req-2", result);
+        cache.nativeCache().cleanUp();   // apply buffered writes (Caffeine maintenance)
+
+        assertEquals(2L * ResultCache.estimateBytes("req-1", result), cache.estimatedBytes());
+    }
+
+    @Test
+    void testEstimateBytes_GrowsWithKeyLength() {
+        WorkResult result = new WorkResult(true, "OK", 10, ErrorCode.SUCCESS);
+        int shortKey = ResultCache.estimateBytes("a", result);
+        int uuidKey = ResultCache.estimateBytes("123e4567-e89b-12d3-a456-426614174000", result);
+
+        assertEquals(35, uuidKey - shortKey);
+    }
+}
@@ -0,0 +1,175 @@
+package com.demo.appa.hedge;
+
+import com.demo.appa.observability.LatencyTracker;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Hedger and HedgeBudget.
+ *
+ * Primary/hedge RPCs are plain CompletableFutures completed by the test (or by a
+ * delayed executor), so winner selection and cancellation are checked without gRPC.
+ */
+class HedgerTest {
+
+    /** Primary reply delay: still pending when the 1ms hedge delay (warmUp(1)) ends, even on a loaded machine. */
+    private static final long PRIMARY_DELAY_MS = 200;
+
+    private LatencyTracker latencies;
+    private List<HedgeOutcome> outcomes;
+
+    @BeforeEach
+    void setup() {
+        latencies = new LatencyTracker(Duration.ofSeconds(30), 6, Duration.ZERO, 10_000);
+        outcomes = new ArrayList<>();
+    }
+
+    @Test
+    void testWarmup_NoHedgeDelay() {
+        Hedger hedger = hedger(new HedgeBudget(100, 10));
+        assertEquals(-1, hedger.hedgeDelayMs(), "Too few samples: no hedging yet");
+
+        String reply = hedger.call(() -> CompletableFuture.completedFuture("primary"), HedgerTest::neverCalled);
+
+        assertEquals("primary", reply);
+        assertEquals(List.of(HedgeOutcome.NOT_HEDGED), outcomes);
+    }
+
+    @Test
+    void testHedgeDelay_FollowsPercentileWithFloor() {
+        warmUp(20);
+        assertEquals(20, hedger(new HedgeBudget(100, 10)).hedgeDelayMs());
+
+        Hedger floored = new Hedger(latencies, new HedgeBudget(100, 10), 95, 50, 10, outcomes::add);
+        assertEquals(50, floored.hedgeDelayMs());
+    }
+
+    @Test
+    void testFastPrimary_NotHedged() {
+        warmUp(20);
+        Hedger hedger = hedger(new HedgeBudget(100, 10));
+
+        String reply = hedger.call(() -> CompletableFuture.completedFuture("primary"), HedgerTest::neverCalled);
+
+        assertEquals("primary", reply);
+        assertEquals(List.of(HedgeOutcome.NOT_HEDGED), outcomes);
+    }
+
+    @Test
+    void testSlowPrimary_HedgeWins_LoserCancelled() {
+        warmUp(5);
+        Hedger hedger = hedger(new HedgeBudget(100, 10));
+        CompletableFuture<String> primary = new CompletableFuture<>();
+
+        String reply = hedger.call(() -> primary, () -> CompletableFuture.completedFuture("hedge"));
+
+        assertEquals("hedge", reply);
+        assertTrue(primary.isCancelled(), "Losing primary should be cancelled");
+        assertEquals(List.of(HedgeOutcome.HEDGE_WON), outcomes);
+    }
+
+    @Test
+    void testHedgeFails_PrimaryStillWins() {
+        warmUp(1);
+        Hedger hedger = hedger(new HedgeBudget(100, 10));
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(PRIMARY_DELAY_MS, TimeUnit.MILLISECONDS)
+                .execute(() -> primary.complete("primary"));
+
+        String reply = hedger.call(() -> primary,
+                () -> CompletableFuture.failedFuture(new StatusRuntimeException(Status.UNAVAILABLE)));
+
+        assertEquals("primary", reply);
+        assertEquals(List.of(HedgeOutcome.PRIMARY_WON), outcomes);
+    }
+
+    @Test
+    void testBothFail_ErrorPropagated() {
+        warmUp(1);
+        Hedger hedger = hedger(new HedgeBudget(100, 10));
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(PRIMARY_DELAY_MS, TimeUnit.MILLISECONDS)
+                .execute(() -> primary.completeExceptionally(new StatusRuntimeException(Status.DEADLINE_EXCEEDED)));
+
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class, () -> hedger.call(() -> primary,
+                () -> CompletableFuture.failedFuture(new StatusRuntimeException(Status.UNAVAILABLE))));
+
+        assertEquals(Status.Code.DEADLINE_EXCEEDED, e.getStatus().getCode(), "Last failure should propagate");
+        assertEquals(List.of(HedgeOutcome.BOTH_FAILED), outcomes);
+    }
+
+    @Test
+    void testFastFailure_NotHedged() {
+        warmUp(20);
+        Hedger hedger = hedger(new HedgeBudget(100, 10));
+
+        assertThrows(StatusRuntimeException.class, () -> hedger.call(
+                () -> CompletableFuture.failedFuture(new StatusRuntimeException(Status.RESOURCE_EXHAUSTED)),
+                HedgerTest::neverCalled));
+        assertEquals(List.of(HedgeOutcome.NOT_HEDGED), outcomes);
+    }
+
+    @Test
+    void testBudgetExhausted_WaitsForPrimary() {
+        warmUp(1);
+        Hedger hedger = hedger(new HedgeBudget(0, 10));
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(PRIMARY_DELAY_MS, TimeUnit.MILLISECONDS)
+                .execute(() -> primary.complete("primary"));
+
+        String reply = hedger.call(() -> primary, HedgerTest::neverCalled);
+
+        assertEquals("primary", reply);
+        assertEquals(List.of(HedgeOutcome.BUDGET_EXHAUSTED), outcomes);
+    }
+
+    @Test
+    void testBudget_CapsHedgesAtPercent() {
+        HedgeBudget budget = new HedgeBudget(10, 10);
+        int hedges = 0;
+        for (int i = 0; i < 1000; i++) {
+            budget.onRequest();
+            if (budget.tryAcquire()) {
+                hedges++;
+            }
+        }
+        assertEquals(100, hedges, "10% budget should allow 100 hedges per 1000 requests");
+    }
+
+    @Test
+    void testBudget_BurstCapped() {
+        HedgeBudget budget = new HedgeBudget(50, 3);
+        for (int i = 0; i < 1000; i++) {
+            budget.onRequest();
+        }
+        int burst = 0;
+        while (budget.tryAcquire()) {
+            burst++;
+        }
+        assertEquals(3, burst, "Idle credit should cap at maxBurst hedges");
+    }
+
+    private Hedger hedger(HedgeBudget budget) {
+        return new Hedger(latencies, budget, 95, 1, 10, outcomes::add);
+    }
+
+    private void warmUp(long latencyMs) {
+        for (int i = 0; i < 10; i++) {
+            latencies.record(latencyMs);
+        }
+    }
+
+    private static CompletableFuture<String> neverCalled() {
+        throw new AssertionError("hedge should not be sent");
+    }
+}
@@ -0,0 +1,67 @@
+package com.demo.appa.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the request id generators:
+ * - random: valid version-4 UUID strings, unique
+ * - ulid: 26 Crockford base32 chars, timestamp prefix, ordered across milliseconds
+ */
+class RequestIdGeneratorTest {
+
+    @Test
+    void testRandom_IsVersion4Uuid() {
+        RequestIdGenerator generator = new RandomRequestIdGenerator();
+        for (int i = 0; i < 100; i++) {
+            UUID uuid = UUID.fromString(generator.next());
+            assertEquals(4, uuid.version());
+            assertEquals(2, uuid.variant());
+        }
+    }
+
+    @Test
+    void testRandom_Unique() {
+        assertUnique(new RandomRequestIdGenerator());
+    }
+
+    @Test
+    void testUlid_Format() {
+        // 1469918176385 ms → "01ARYZ6S41" (reference value from the ULID spec)
+        String id = new UlidRequestIdGenerator(() -> 1469918176385L).next();
+
+        assertEquals(26, id.length());
+        assertEquals("01ARYZ6S41", id.substring(0, 10));
+        assertTrue(id.matches("[0-9A-HJKMNP-TV-Z]{26}"), id);
+    }
+
+    @Test
+    void testUlid_OrderedAcrossMilliseconds() {
+        AtomicLong now = new AtomicLong(1_700_000_000_000L);
+        RequestIdGenerator generator = new UlidRequestIdGenerator(now::get);
+
+        String earlier = generator.next();
+        now.incrementAndGet();
+        String later = generator.next();
+
+        assertTrue(earlier.compareTo(later) < 0, earlier + " should sort before " + later);
+    }
+
+    @Test
+    void testUlid_UniqueWithinMillisecond() {
+        assertUnique(new UlidRequestIdGenerator(() -> 1_700_000_000_000L));
+    }
+
+    private static void assertUnique(RequestIdGenerator generator) {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(ids.add(generator.next()), "Duplicate id");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.demo.appa.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GradientConcurrencyLimiter.
+ *
+ * Each helper fills the limit with in-flight calls and completes a whole window,
+ * so the limiter sees a saturated bulkhead (not app-limited):
+ * - Stable RTT → limit grows (probe for more capacity)
+ * - Inflated RTT (B queueing) → limit shrinks
+ * - Drops (timeouts / RESOURCE_EXHAUSTED) → multiplicative decrease
+ * - Limit stays within [min, max]
+ */
+class GradientConcurrencyLimiterTest {
+
+    private static final int WINDOW = 10;
+
+    @Test
+    void testTryAcquire_RejectsAtLimit() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(2, 1, 10, WINDOW);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire(), "Third call should be rejected at limit=2");
+
+        limiter.onIgnore();
+        assertTrue(limiter.tryAcquire(), "Released permit should be reusable");
+    }
+
+    @Test
+    void testStableRtt_LimitGrows() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 1, 200, WINDOW);
+
+        for (int i = 0; i < 20; i++) {
+            saturatedWindow(limiter, 5);
+        }
+
+        assertTrue(limiter.getLimit() > 10, "Limit should grow while RTT stays at no-load, got " + limiter.getLimit());
+    }
+
+    @Test
+    void testInflatedRtt_LimitShrinks() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(20, 1, 200, WINDOW);
+        saturatedWindow(limiter, 5);   // establishes no-load RTT
+        int before = limiter.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            saturatedWindow(limiter, 50);   // B queueing: 10x no-load RTT
+        }
+
+        assertTrue(limiter.getLimit() < before,
+                "Limit should shrink when RTT inflates, before=" + before + " after=" + limiter.getLimit());
+    }
+
+    @Test
+    void testDrops_MultiplicativeDecrease() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(100, 1, 200, WINDOW);
+
+        for (int i = 0; i < WINDOW; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        for (int i = 0; i < WINDOW; i++) {
+            limiter.onDropped();
+        }
+
+        assertEquals(90, limiter.getLimit(), "One window with drops should back off by 10%");
+    }
+
+    @Test
+    void testLimit_BoundedByMinAndMax() {
+        GradientConcurrencyLimiter grower = new GradientConcurrencyLimiter(10, 1, 15, WINDOW);
+        for (int i = 0; i < 100; i++) {
+            saturatedWindow(grower, 5);
+        }
+        assertEquals(15, grower.getLimit(), "Limit should cap at max");
+
+        GradientConcurrencyLimiter shrinker = new GradientConcurrencyLimiter(10, 3, 200, WINDOW);
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < WINDOW; j++) {
+                shrinker.tryAcquire();
+                shrinker.onDropped();
+            }
+        }
+        assertEquals(3, shrinker.getLimit(), "Limit should floor at min");
+    }
+
+    @Test
+    void testAppLimited_NoGrowth() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(20, 1, 200, WINDOW);
+
+        // One call at a time: far below the limit, latency says nothing about capacity
+        for (int i = 0; i < 20 * WINDOW; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.onSuccess(5, TimeUnit.MILLISECONDS);
+        }
+
+        assertEquals(20, limiter.getLimit(), "Limit should not grow when app-limited");
+    }
+
+    @Test
+    void testFixedLimiter_NeverMoves() {
+        FixedConcurrencyLimiter limiter = new FixedConcurrencyLimiter(10);
+
+        assertTrue(limiter.tryAcquire());
+        assertEquals(1, limiter.getInflight());
+        limiter.onDropped();
+
+        assertEquals(10, limiter.getLimit());
+        assertEquals(0, limiter.getInflight());
+    }
+
+    /** Hold {@code WINDOW} permits at once (or as many as the limit allows), then complete them. */
+    private static void saturatedWindow(GradientConcurrencyLimiter limiter, long rttMs) {
+        int completed = 0;
+        while (completed < WINDOW) {
+            int acquired = 0;
+            while (acquired < WINDOW - completed && limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.onSuccess(rttMs, TimeUnit.MILLISECONDS);
+            }
+            completed += acquired;
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package com.demo.appa.observability;
 
+import com.demo.appa.ErrorCode;
+import com.demo.appa.breaker.CircuitOpenException;
+import com.demo.appa.limit.BulkheadFullException;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class GrpcErrorClassifierTest {
@@ -76,6 +82,13 @@ class GrpcErrorClassifierTest {
         assertEquals("CIRCUIT_OPEN", outcome.grpcStatus());
     }
 
+    @Test
+    void testChannelBreakersOpen() {
+        CallOutcome outcome = classifier.classify(new CircuitOpenException("all channels open"));
+        assertEquals(ErrorReason.CIRCUIT_OPEN, outcome.reason());
+        assertFalse(outcome.retryable());
+    }
+
     @Test
     void testBulkheadRejected() {
         CallOutcome outcome = classifier.classify(null, "BULKHEAD_REJECTED");
@@ -98,4 +111,82 @@ class GrpcErrorClassifierTest {
         assertEquals("FAILURE", classifier.classify(
             new StatusRuntimeException(Status.UNAVAILABLE), null).resultLabel());
     }
+
+    @Test
+    void testOutcomesInterned_NoAllocationPerCall() {
+        assertSame(CallOutcome.SUCCESS, classifier.classify(null, null));
+        assertSame(classifier.classify(new StatusRuntimeException(Status.UNAVAILABLE), null),
+            classifier.classify(new StatusRuntimeException(Status.UNAVAILABLE), null),
+            "Same status should return the same interned outcome");
+        assertSame(GrpcErrorClassifier.forStatus(Status.Code.RESOURCE_EXHAUSTED),
+            classifier.classify(new StatusRuntimeException(Status.RESOURCE_EXHAUSTED)));
+    }
+
+    @Test
+    void testOutcomeCarriesErrorCode() {
+        assertEquals(ErrorCode.DEADLINE_EXCEEDED, GrpcErrorClassifier.forStatus(Status.Code.DEADLINE_EXCEEDED).errorCode());
+        assertEquals(ErrorCode.BACKEND_ERROR, GrpcErrorClassifier.forStatus(Status.Code.RESOURCE_EXHAUSTED).errorCode());
+        assertEquals(ErrorCode.UNAVAILABLE, GrpcErrorClassifier.forStatus(Status.Code.CANCELLED).errorCode());
+        assertEquals(ErrorCode.QUEUE_FULL, CallOutcome.BULKHEAD_REJECTED.errorCode());
+    }
+
+    @Test
+    void testClassifiedException_OutcomeReadNotRecomputed() {
+        ClassifiedException classified = classifier.classified(new StatusRuntimeException(Status.UNAVAILABLE));
+
+        assertSame(GrpcErrorClassifier.forStatus(Status.Code.UNAVAILABLE), classified.outcome());
+        assertSame(classified.outcome(), classifier.classify(classified));
+        assertSame(classified, classifier.classified(classified), "Already classified: no second wrapper");
+        assertInstanceOf(StatusRuntimeException.class, classified.getCause());
+    }
+
+    @Test
+    void testBulkheadFullException_IsProtectionEvent() {
+        assertSame(CallOutcome.BULKHEAD_REJECTED, classifier.classify(new BulkheadFullException("full")));
+    }
+
+    @Test
+    void testAttempt_WrapsFailure() {
+        ClassifiedException e = assertThrows(ClassifiedException.class, () -> classifier.attempt(() -> {
+            throw new StatusRuntimeException(Status.RESOURCE_EXHAUSTED);
+        }));
+        assertEquals(ErrorReason.BACKEND_ERROR, e.outcome().reason());
+        assertEquals("ok", classifier.attempt(() -> "ok"));
+    }
+
+    @Test
+    void testAttemptAsync_WrapsFailure() {
+        CompletableFuture<String> failed = classifier.attemptAsync(() ->
+            CompletableFuture.failedFuture(new StatusRuntimeException(Status.DEADLINE_EXCEEDED)));
+
+        ExecutionException e = assertThrows(ExecutionException.class, failed::get);
+        ClassifiedException cause = assertInstanceOf(ClassifiedException.class, e.getCause());
+        assertEquals(ErrorReason.TIMEOUT, cause.outcome().reason());
+    }
+
+    @Test
+    void testAttempt_RetryVetoed_OutcomeFinal() {
+        ClassifiedException e = assertThrows(ClassifiedException.class, () -> classifier.attempt(() -> {
+            throw new StatusRuntimeException(Status.UNAVAILABLE);
+        }, () -> false));
+
+        assertEquals(ErrorReason.CONNECTION_FAILURE, e.outcome().reason(), "Reason is kept for metrics");
+        assertEquals(ErrorCode.UNAVAILABLE, e.outcome().errorCode());
+        assertFalse(e.outcome().retryable(), "No time for another attempt: final");
+    }
+
+    @Test
+    void testAttemptAsync_RetryVetoAskedOnlyForRetryableFailures() {
+        int[] asked = {0};
+        CompletableFuture<String> timeout = classifier.attemptAsync(() ->
+            CompletableFuture.failedFuture(new StatusRuntimeException(Status.DEADLINE_EXCEEDED)), () -> {
+                asked[0]++;
+                return false;
+            });
+
+        ExecutionException e = assertThrows(ExecutionException.class, timeout::get);
+        ClassifiedException cause = assertInstanceOf(ClassifiedException.class, e.getCause());
+        assertSame(GrpcErrorClassifier.forStatus(Status.Code.DEADLINE_EXCEEDED), cause.outcome());
+        assertEquals(0, asked[0], "Non-retryable failure: nothing to veto");
+    }
 }
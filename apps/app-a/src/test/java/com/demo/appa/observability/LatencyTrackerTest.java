@@ -0,0 +1,92 @@
+package com.demo.appa.observability;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatencyTracker.
+ *
+ * Uses a manual clock: 60s window, 6 buckets of 10s, refresh every 100ms.
+ */
+class LatencyTrackerTest {
+
+    private AtomicLong clock;
+    private LatencyTracker tracker;
+
+    @BeforeEach
+    void setup() {
+        clock = new AtomicLong(0);
+        tracker = new LatencyTracker(Duration.ofSeconds(60), 6, Duration.ofMillis(100), 10_000, clock::get);
+    }
+
+    @Test
+    void testEmpty_ZeroPercentile() {
+        advance(Duration.ofSeconds(1));
+        assertEquals(0, tracker.getTotalCount());
+        assertEquals(0, tracker.getValueAtPercentile(95));
+    }
+
+    @Test
+    void testPercentile_OverWindow() {
+        for (int i = 1; i <= 100; i++) {
+            tracker.record(i);
+        }
+        advance(Duration.ofSeconds(1));
+
+        assertEquals(100, tracker.getTotalCount());
+        assertEquals(95, tracker.getValueAtPercentile(95));
+        assertEquals(50, tracker.getValueAtPercentile(50));
+    }
+
+    @Test
+    void testSnapshot_RefreshedAtMostPerInterval() {
+        tracker.record(10);
+        advance(Duration.ofSeconds(1));
+        assertEquals(1, tracker.getTotalCount());
+
+        tracker.record(20);
+        assertEquals(1, tracker.getTotalCount(), "Same refresh interval should reuse the snapshot");
+
+        advance(Duration.ofMillis(100));
+        assertEquals(2, tracker.getTotalCount());
+    }
+
+    @Test
+    void testOldSamples_AgeOut() {
+        tracker.record(200);
+        advance(Duration.ofSeconds(1));
+        assertEquals(200, tracker.getValueAtPercentile(99));
+
+        // Still inside the 60s window
+        advance(Duration.ofSeconds(40));
+        tracker.record(5);
+        advance(Duration.ofSeconds(1));
+        assertEquals(2, tracker.getTotalCount());
+
+        // The slow sample's bucket has rotated out; the recent one remains
+        advance(Duration.ofSeconds(25));
+        assertEquals(1, tracker.getTotalCount());
+        assertEquals(5, tracker.getValueAtPercentile(99));
+    }
+
+    @Test
+    void testRecord_ClampsToHighestTrackable() {
+        // Small range so the clamped value is exact at 2 significant digits
+        LatencyTracker small = new LatencyTracker(Duration.ofSeconds(60), 6, Duration.ofMillis(100), 250, clock::get);
+        small.record(1_000_000);
+        small.record(-5);
+        advance(Duration.ofSeconds(1));
+
+        assertEquals(250, small.getValueAtPercentile(100));
+        assertEquals(0, small.getValueAtPercentile(1));
+    }
+
+    private void advance(Duration d) {
+        clock.addAndGet(d.toNanos());
+    }
+}
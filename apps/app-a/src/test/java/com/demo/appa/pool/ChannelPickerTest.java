@@ -0,0 +1,93 @@
+package com.demo.appa.pool;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChannelPicker (power of two choices, least outstanding):
+ * - Of the two sampled channels, the one with fewer RPCs in flight wins
+ * - Unavailable channels (TRANSIENT_FAILURE) are skipped while any other is usable
+ * - pickExcept() never returns the excluded channel when there is another
+ */
+class ChannelPickerTest {
+
+    @Test
+    void testPick_LessLoadedOfTwoSamplesWins() {
+        // random() yields 0 then 0 → samples channel 0 and channel 1
+        ChannelPicker picker = new ChannelPicker(4, i -> true, bound -> 0);
+        picker.onStart(0);
+        picker.onStart(0);
+        picker.onStart(1);
+
+        assertEquals(1, picker.pick(), "Channel 1 has fewer RPCs in flight than channel 0");
+
+        picker.onComplete(0);
+        picker.onComplete(0);
+        assertEquals(0, picker.pick(), "Channel 0 is now the less loaded one");
+    }
+
+    @Test
+    void testPick_TwoSamplesAreDistinct() {
+        // First sample: last channel; second: offset bound-1 from it → wraps to channel 1
+        ChannelPicker picker = new ChannelPicker(3, i -> true, bound -> bound - 1);
+        picker.onStart(2);
+
+        assertEquals(1, picker.pick(), "Samples 2 and 1 → 1 is idle");
+    }
+
+    @Test
+    void testPick_SkipsUnavailable() {
+        ChannelPicker picker = new ChannelPicker(4, i -> i != 0 && i != 1, bound -> 0);
+
+        int picked = picker.pick();
+
+        assertTrue(picked == 2 || picked == 3, "Both samples down → least loaded available, got " + picked);
+    }
+
+    @Test
+    void testPick_AllUnavailable_StillPicks() {
+        ChannelPicker picker = new ChannelPicker(3, i -> false, bound -> 0);
+        picker.onStart(0);
+        picker.onStart(1);
+
+        assertEquals(2, picker.pick(), "No channel available → least loaded overall (call fails fast)");
+    }
+
+    @Test
+    void testPickExcept_NeverReturnsExcluded() {
+        ChannelPicker picker = new ChannelPicker(4, i -> true);
+        Set<Integer> seen = new HashSet<>();
+
+        for (int i = 0; i < 1000; i++) {
+            int picked = picker.pickExcept(2);
+            assertNotEquals(2, picked);
+            seen.add(picked);
+        }
+
+        assertEquals(Set.of(0, 1, 3), seen, "Every other channel should be reachable");
+    }
+
+    @Test
+    void testSingleChannelPool() {
+        ChannelPicker picker = new ChannelPicker(1, i -> false);
+
+        assertEquals(0, picker.pick());
+        assertEquals(0, picker.pickExcept(0), "Pool of one: the hedge shares the only channel");
+    }
+
+    @Test
+    void testOutstandingTracking() {
+        ChannelPicker picker = new ChannelPicker(2, i -> true);
+
+        picker.onStart(1);
+        picker.onStart(1);
+        picker.onComplete(1);
+
+        assertEquals(0, picker.outstanding(0));
+        assertEquals(1, picker.outstanding(1));
+    }
+}
@@ -0,0 +1,53 @@
+package com.demo.appa.pool;
+
+import com.demo.grpc.DemoServiceGrpc;
+import com.demo.grpc.WorkRequest;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.ManagedChannel;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NettyChannelFactory construction per executor mode, and which
+ * thread runs the RPC callback (an RPC to a closed port fails fast with UNAVAILABLE).
+ */
+class NettyChannelFactoryTest {
+
+    @Test
+    void testDefaultExecutor_CallbackOffTheEventLoop() throws Exception {
+        String thread = callbackThread("default");
+
+        assertFalse(thread.startsWith("app-a-grpc-netty-"), thread);
+    }
+
+    @Test
+    void testBoundedExecutor_CallbackOnCallbackPool() throws Exception {
+        assertTrue(callbackThread("BOUNDED").startsWith("app-a-grpc-callback-"));
+    }
+
+    @Test
+    void testDirectExecutor_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new NettyChannelFactory(1, "direct", 1, 1 << 20, 1 << 22));
+    }
+
+    private static String callbackThread(String executorMode) throws Exception {
+        try (NettyChannelFactory factory = new NettyChannelFactory(1, executorMode, 1, 1 << 20, 1 << 22)) {
+            ManagedChannel channel = factory.forTarget("localhost:1").usePlaintext().build();
+            try {
+                CompletableFuture<String> thread = new CompletableFuture<>();
+                DemoServiceGrpc.newFutureStub(channel)
+                        .withDeadlineAfter(5, TimeUnit.SECONDS)
+                        .work(WorkRequest.newBuilder().setId("r1").build())
+                        .addListener(() -> thread.complete(Thread.currentThread().getName()),
+                                MoreExecutors.directExecutor());
+                return thread.get(10, TimeUnit.SECONDS);
+            } finally {
+                channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.demo.appa.pool;
+
+import io.grpc.Status;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OutlierDetector (fake clock):
+ * - N channel failures in a row eject; B errors and cancellations don't count
+ * - Failure rate over a window ejects
+ * - Ejection time doubles on re-ejection, resets after a clean probation
+ * - Never more than maxEjectionPercent of the pool (and never all of it)
+ */
+class OutlierDetectorTest {
+
+    private static final long BASE = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<Integer> ejected = new ArrayList<>();
+
+    private OutlierDetector detector(int size, int maxEjectionPercent) {
+        return new OutlierDetector(size, 5, 50, 20, BASE, 32 * BASE, maxEjectionPercent,
+                clock::get, ejected::add);
+    }
+
+    @Test
+    void testConsecutiveFailures_Eject() {
+        OutlierDetector detector = detector(4, 50);
+
+        fail(detector, 0, 4);
+        assertFalse(detector.isEjected(0), "4 failures in a row: below threshold");
+
+        fail(detector, 0, 1);
+        assertTrue(detector.isEjected(0), "5th failure in a row ejects");
+        assertEquals(List.of(0), ejected);
+    }
+
+    @Test
+    void testSuccessResetsConsecutive() {
+        OutlierDetector detector = detector(4, 50);
+
+        fail(detector, 0, 4);
+        detector.onResult(0, Status.Code.OK);
+        fail(detector, 0, 4);
+
+        assertFalse(detector.isEjected(0));
+    }
+
+    @Test
+    void testBackendErrorsAndCancellations_Ignored() {
+        OutlierDetector detector = detector(4, 50);
+
+        for (int i = 0; i < 50; i++) {
+            detector.onResult(0, Status.Code.RESOURCE_EXHAUSTED);
+            detector.onResult(0, Status.Code.CANCELLED);
+        }
+
+        assertFalse(detector.isEjected(0), "B's own errors hit every channel alike");
+    }
+
+    @Test
+    void testFailureRate_Ejects() {
+        OutlierDetector detector = detector(4, 50);
+
+        // Alternate failure/success: never 5 in a row, but 50% over the 20-call window
+        for (int i = 0; i < 10; i++) {
+            detector.onResult(0, Status.Code.UNAVAILABLE);
+            detector.onResult(0, Status.Code.OK);
+        }
+
+        assertTrue(detector.isEjected(0));
+    }
+
+    @Test
+    void testEjectionTime_GrowsThenResetsAfterProbation() {
+        OutlierDetector detector = detector(4, 50);
+
+        fail(detector, 0, 5);
+        clock.addAndGet(BASE);
+        assertFalse(detector.isEjected(0), "Back after base ejection time");
+
+        // Fails on probation → re-ejected for 2x base
+        detector.onResult(0, Status.Code.UNAVAILABLE);
+        assertTrue(detector.isEjected(0));
+        clock.addAndGet(BASE);
+        assertTrue(detector.isEjected(0), "Second ejection lasts 2x base");
+        clock.addAndGet(BASE);
+        assertFalse(detector.isEjected(0));
+
+        // Clean probation (5 successes) → healthy, multiplier reset
+        for (int i = 0; i < 5; i++) {
+            detector.onResult(0, Status.Code.OK);
+        }
+        fail(detector, 0, 5);
+        clock.addAndGet(BASE);
+        assertFalse(detector.isEjected(0), "After a clean probation the next ejection is base again");
+    }
+
+    @Test
+    void testMaxEjectionPercent_Cap() {
+        OutlierDetector detector = detector(4, 50);
+
+        for (int channel = 0; channel < 4; channel++) {
+            fail(detector, channel, 5);
+        }
+
+        assertEquals(List.of(0, 1), ejected, "50% of 4 channels: at most 2 ejected at once");
+        assertFalse(detector.isEjected(2));
+        assertFalse(detector.isEjected(3));
+    }
+
+    @Test
+    void testNeverEjectsWholePool() {
+        OutlierDetector single = detector(1, 100);
+        fail(single, 0, 10);
+        assertFalse(single.isEjected(0), "A pool of one is never ejected");
+
+        OutlierDetector pair = detector(2, 100);
+        fail(pair, 0, 5);
+        fail(pair, 1, 5);
+        assertTrue(pair.isEjected(0));
+        assertFalse(pair.isEjected(1), "100% allowed, but one channel always stays");
+    }
+
+    private static void fail(OutlierDetector detector, int channel, int times) {
+        for (int i = 0; i < times; i++) {
+            detector.onResult(channel, Status.Code.UNAVAILABLE);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.demo.appa.retry;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongBinaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AsyncRetryExecutor:
+ * - Decorrelated jitter stays within [base, min(max, 3 × previous)]
+ * - execute() retries from the timer until success, maxAttempts, or a non-retryable error
+ * - call() is the same loop on the calling thread
+ * - Cancelling the result stops further attempts
+ */
+class AsyncRetryExecutorTest {
+
+    private static final StatusRuntimeException UNAVAILABLE = new StatusRuntimeException(Status.UNAVAILABLE);
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void shutdown() {
+        timer.shutdownNow();
+    }
+
+    @Test
+    void testNextDelay_DecorrelatedJitterBounds() {
+        AsyncRetryExecutor upper = executor(5, 50, 1000, (min, max) -> max);
+        assertEquals(150, upper.nextDelayMs(0), "First retry: up to 3 × base");
+        assertEquals(450, upper.nextDelayMs(150), "Up to 3 × the previous delay");
+        assertEquals(1000, upper.nextDelayMs(450), "Capped at max");
+
+        AsyncRetryExecutor lower = executor(5, 50, 1000, (min, max) -> min);
+        assertEquals(50, lower.nextDelayMs(400), "Never below base");
+    }
+
+    @Test
+    void testNextDelay_RandomSpread() {
+        AsyncRetryExecutor jittered = new AsyncRetryExecutor(3, Duration.ofMillis(50), Duration.ofMillis(1000),
+                e -> true, timer);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            long delay = jittered.nextDelayMs(100);
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+        }
+
+        assertTrue(min >= 50 && max <= 300, "Delays within [50, 300], got [" + min + ", " + max + "]");
+        assertTrue(max - min > 100, "Retries spread out, not synchronized: [" + min + ", " + max + "]");
+    }
+
+    @Test
+    void testExecute_RetriesUntilSuccess() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = executor(3, 1, 5, (min, max) -> min).execute(() ->
+                attempts.incrementAndGet() < 3
+                        ? CompletableFuture.failedFuture(UNAVAILABLE)
+                        : CompletableFuture.completedFuture("ok"));
+
+        assertEquals("ok", result.get(1, TimeUnit.SECONDS));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testExecute_StopsAtMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = executor(3, 1, 5, (min, max) -> min).execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(UNAVAILABLE);
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertSame(UNAVAILABLE, e.getCause());
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testExecute_NonRetryableFailsImmediately() {
+        AtomicInteger attempts = new AtomicInteger();
+        AsyncRetryExecutor executor = new AsyncRetryExecutor(3, Duration.ofMillis(1), Duration.ofMillis(5),
+                e -> false, timer);
+        CompletableFuture<String> result = executor.execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(UNAVAILABLE);
+        });
+
+        assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testExecute_CancelStopsRetries() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = executor(3, 200, 200, (min, max) -> min).execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(UNAVAILABLE);
+        });
+
+        assertTrue(result.cancel(true));
+        Thread.sleep(300);
+        assertEquals(1, attempts.get(), "Cancelled during backoff: no further attempt");
+    }
+
+    @Test
+    void testCall_BlockingRetries() {
+        AtomicInteger attempts = new AtomicInteger();
+        String reply = executor(3, 1, 5, (min, max) -> min).call(() -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw UNAVAILABLE;
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", reply);
+        assertEquals(2, attempts.get());
+    }
+
+    private AsyncRetryExecutor executor(int maxAttempts, long baseMs, long maxMs,
+                                        LongBinaryOperator random) {
+        return new AsyncRetryExecutor(maxAttempts, Duration.ofMillis(baseMs), Duration.ofMillis(maxMs),
+                e -> true, timer, random);
+    }
+}
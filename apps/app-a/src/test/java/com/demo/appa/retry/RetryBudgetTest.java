@@ -0,0 +1,82 @@
+package com.demo.appa.retry;
+
+import com.demo.appa.observability.GrpcErrorClassifier;
+import io.grpc.Status;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RetryBudget and its use by RetryDecisionPolicy:
+ * - Starts full (maxBurst retries), then denies until successes earn credit
+ * - percent% of a retry per success, balance capped at maxBurst
+ * - Non-retryable errors never spend credit
+ */
+class RetryBudgetTest {
+
+    @Test
+    void testStartsFull_ThenDenied() {
+        RetryBudget budget = new RetryBudget(10, 3);
+
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire(), "Fourth retry should exceed maxBurst=3");
+        assertEquals(1, budget.getDenied());
+    }
+
+    @Test
+    void testSuccessesEarnRetries_AtPercent() {
+        RetryBudget budget = new RetryBudget(10, 3);
+        drain(budget);
+
+        for (int i = 0; i < 9; i++) {
+            budget.onSuccess();
+        }
+        assertFalse(budget.tryAcquire(), "9 successes at 10% earn less than one retry");
+
+        budget.onSuccess();
+        assertTrue(budget.tryAcquire(), "10 successes at 10% earn one retry");
+        assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    void testBalance_CappedAtMaxBurst() {
+        RetryBudget budget = new RetryBudget(50, 2);
+        for (int i = 0; i < 1000; i++) {
+            budget.onSuccess();
+        }
+
+        assertEquals(2.0, budget.getTokens(), 0.0001);
+    }
+
+    @Test
+    void testPolicy_BudgetGatesRetryableErrorsOnly() {
+        RetryBudget budget = new RetryBudget(10, 1);
+        RetryDecisionPolicy policy = new RetryDecisionPolicy(new GrpcErrorClassifier(), budget);
+
+        assertFalse(policy.shouldRetry(GrpcErrorClassifier.forStatus(Status.Code.DEADLINE_EXCEEDED)));
+        assertEquals(1.0, budget.getTokens(), 0.0001, "Non-retryable error must not spend credit");
+
+        assertTrue(policy.shouldRetry(GrpcErrorClassifier.forStatus(Status.Code.UNAVAILABLE)));
+        assertFalse(policy.shouldRetry(GrpcErrorClassifier.forStatus(Status.Code.UNAVAILABLE)),
+                "Retryable error is not retried once the budget is spent");
+
+        for (int i = 0; i < 10; i++) {
+            policy.onSuccess();
+        }
+        assertTrue(policy.shouldRetry(GrpcErrorClassifier.forStatus(Status.Code.UNAVAILABLE)));
+    }
+
+    @Test
+    void testInvalidArguments_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RetryBudget(101, 1));
+        assertThrows(IllegalArgumentException.class, () -> new RetryBudget(10, 0));
+    }
+
+    private static void drain(RetryBudget budget) {
+        while (budget.tryAcquire()) {
+            // spend the initial burst
+        }
+    }
+}
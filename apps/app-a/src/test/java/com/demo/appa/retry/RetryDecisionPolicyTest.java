@@ -1,5 +1,6 @@
 package com.demo.appa.retry;
 
+import com.demo.appa.observability.CallOutcome;
 import com.demo.appa.observability.GrpcErrorClassifier;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
@@ -111,4 +112,18 @@ class RetryDecisionPolicyTest {
 
         assertFalse(shouldRetry, "Protection events override exception type (safety takes precedence)");
     }
+
+    @Test
+    void testClassifiedOutcome_NoReclassification() {
+        assertTrue(policy.shouldRetry(GrpcErrorClassifier.forStatus(Status.Code.UNAVAILABLE)));
+        assertFalse(policy.shouldRetry(GrpcErrorClassifier.forStatus(Status.Code.DEADLINE_EXCEEDED)));
+        assertFalse(policy.shouldRetry(CallOutcome.CIRCUIT_OPEN), "CIRCUIT_OPEN MUST NOT be retryable");
+        assertFalse(policy.shouldRetry(CallOutcome.SUCCESS));
+    }
+
+    @Test
+    void testThrottled_NotRetryable() {
+        assertFalse(policy.shouldRetry(null, "THROTTLED"), "THROTTLED MUST NOT be retryable (re-sends the shed excess)");
+        assertFalse(policy.shouldRetry(CallOutcome.THROTTLED));
+    }
 }
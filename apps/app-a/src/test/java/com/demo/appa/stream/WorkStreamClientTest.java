@@ -0,0 +1,169 @@
+package com.demo.appa.stream;
+
+import com.demo.grpc.WorkReply;
+import com.demo.grpc.WorkRequest;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WorkStreamClient against a fake WorkStream (no network).
+ *
+ * Validates reply correlation by id, per-message deadlines, and that a stream
+ * reset fails its pending calls with UNAVAILABLE and is re-opened on next use.
+ */
+class WorkStreamClientTest {
+
+    private static final long DEADLINE_MS = 5000;
+
+    private ScheduledExecutorService scheduler;
+    private List<FakeStream> opened;
+    private AtomicInteger resets;
+    private WorkStreamClient client;
+
+    @BeforeEach
+    void setup() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        opened = new CopyOnWriteArrayList<>();
+        resets = new AtomicInteger();
+        client = new WorkStreamClient(List.of(replies -> {
+            FakeStream stream = new FakeStream(replies);
+            opened.add(stream);
+            return stream;
+        }), 1, scheduler, resets::incrementAndGet);
+    }
+
+    @AfterEach
+    void teardown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void testRepliesCorrelatedById_OutOfOrder() throws Exception {
+        CompletableFuture<WorkReply> r1 = client.call(request("a"), DEADLINE_MS);
+        CompletableFuture<WorkReply> r2 = client.call(request("b"), DEADLINE_MS);
+        FakeStream stream = opened.get(0);
+
+        stream.replies.onNext(reply("b", true, "SUCCESS"));
+        stream.replies.onNext(reply("a", true, "SUCCESS"));
+
+        assertEquals("a", r1.get(1, TimeUnit.SECONDS).getId());
+        assertEquals("b", r2.get(1, TimeUnit.SECONDS).getId());
+        assertEquals(1, opened.size(), "Both calls should share one stream");
+        assertEquals(2, stream.sent.size());
+    }
+
+    @Test
+    void testItemFailure_MappedToGrpcStatus() {
+        CompletableFuture<WorkReply> r1 = client.call(request("a"), DEADLINE_MS);
+
+        opened.get(0).replies.onNext(reply("a", false, "RESOURCE_EXHAUSTED"));
+
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, statusOf(r1));
+    }
+
+    @Test
+    void testDeadline_FailsMessageWithDeadlineExceeded() {
+        CompletableFuture<WorkReply> r1 = client.call(request("slow"), 20);
+
+        assertEquals(Status.Code.DEADLINE_EXCEEDED, statusOf(r1));
+
+        // A late reply must not blow up or complete anything
+        opened.get(0).replies.onNext(reply("slow", true, "SUCCESS"));
+        assertEquals(0, resets.get());
+    }
+
+    @Test
+    void testStreamReset_FailsPendingWithUnavailableAndReopens() throws Exception {
+        CompletableFuture<WorkReply> r1 = client.call(request("a"), DEADLINE_MS);
+        CompletableFuture<WorkReply> r2 = client.call(request("b"), DEADLINE_MS);
+
+        opened.get(0).replies.onError(Status.UNAVAILABLE.withDescription("connection reset").asRuntimeException());
+
+        assertEquals(Status.Code.UNAVAILABLE, statusOf(r1));
+        assertEquals(Status.Code.UNAVAILABLE, statusOf(r2));
+        assertEquals(1, resets.get());
+
+        CompletableFuture<WorkReply> r3 = client.call(request("c"), DEADLINE_MS);
+        assertEquals(2, opened.size(), "Next call should open a fresh stream");
+        opened.get(1).replies.onNext(reply("c", true, "SUCCESS"));
+        assertTrue(r3.get(1, TimeUnit.SECONDS).getOk());
+    }
+
+    @Test
+    void testDuplicateIdInFlight_SentOnce() throws Exception {
+        CompletableFuture<WorkReply> first = client.call(request("dup"), DEADLINE_MS);
+        CompletableFuture<WorkReply> second = client.call(request("dup"), DEADLINE_MS);
+
+        assertEquals(1, opened.get(0).sent.size(), "Duplicate id should share the pending message");
+        opened.get(0).replies.onNext(reply("dup", true, "SUCCESS"));
+
+        assertTrue(first.get(1, TimeUnit.SECONDS).getOk());
+        assertTrue(second.get(1, TimeUnit.SECONDS).getOk());
+    }
+
+    @Test
+    void testShutdown_HalfClosesWithoutCountingReset() {
+        client.call(request("a"), DEADLINE_MS);
+        FakeStream stream = opened.get(0);
+
+        client.shutdown();
+        stream.replies.onCompleted();
+
+        assertTrue(stream.halfClosed);
+        assertEquals(0, resets.get(), "Our own close is not a reset");
+    }
+
+    private static WorkRequest request(String id) {
+        return WorkRequest.newBuilder().setId(id).build();
+    }
+
+    private static WorkReply reply(String id, boolean ok, String code) {
+        return WorkReply.newBuilder().setId(id).setOk(ok).setCode(code).build();
+    }
+
+    private static Status.Code statusOf(CompletableFuture<WorkReply> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(StatusRuntimeException.class, e.getCause());
+        return ((StatusRuntimeException) e.getCause()).getStatus().getCode();
+    }
+
+    /** Request side of a fake WorkStream; the test answers through {@code replies}. */
+    private static final class FakeStream implements StreamObserver<WorkRequest> {
+        final StreamObserver<WorkReply> replies;
+        final List<WorkRequest> sent = new CopyOnWriteArrayList<>();
+        volatile boolean halfClosed;
+
+        FakeStream(StreamObserver<WorkReply> replies) {
+            this.replies = replies;
+        }
+
+        @Override
+        public void onNext(WorkRequest request) {
+            sent.add(request);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+            halfClosed = true;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.demo.appa.throttle;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AdaptiveThrottle (fake clock, fixed random draw):
+ * - B accepting everything → probability 0, nothing throttled
+ * - B refusing → probability follows (requests - K × accepts) / (requests + 1)
+ * - Throttled calls count as requests; old buckets age out of the window
+ */
+class AdaptiveThrottleTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(10);
+
+    private final AtomicLong now = new AtomicLong();
+
+    private AdaptiveThrottle throttle(double k, double draw) {
+        return new AdaptiveThrottle(k, WINDOW, 10, now::get, () -> draw);
+    }
+
+    @Test
+    void testAllAccepted_NeverThrottles() {
+        AdaptiveThrottle throttle = throttle(2.0, 0.0);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(throttle.tryAcquire());
+            throttle.onAccepted();
+        }
+        assertEquals(0.0, throttle.getRejectProbability());
+        assertEquals(0, throttle.getThrottled());
+    }
+
+    @Test
+    void testRefusals_ProbabilityFollowsFormula() {
+        AdaptiveThrottle throttle = throttle(2.0, 0.99);
+        for (int i = 0; i < 20; i++) {
+            throttle.onAccepted();
+        }
+        for (int i = 0; i < 79; i++) {
+            throttle.onRefused();
+        }
+        // requests=99, accepts=20: (99 - 40) / 100
+        assertEquals(0.59, throttle.getRejectProbability(), 1e-9);
+    }
+
+    @Test
+    void testDrawBelowProbability_ThrottledAndCountedAsRequest() {
+        AdaptiveThrottle throttle = throttle(1.0, 0.1);
+        for (int i = 0; i < 9; i++) {
+            throttle.onRefused();
+        }
+        // requests=9, accepts=0: 9/10
+        assertEquals(0.9, throttle.getRejectProbability(), 1e-9);
+
+        assertFalse(throttle.tryAcquire());
+        assertEquals(1, throttle.getThrottled());
+        assertEquals(10.0 / 11, throttle.getRejectProbability(), 1e-9);
+    }
+
+    @Test
+    void testDrawAboveProbability_Allowed() {
+        AdaptiveThrottle throttle = throttle(2.0, 0.5);
+        throttle.onAccepted();
+        for (int i = 0; i < 5; i++) {
+            throttle.onRefused();
+        }
+        // requests=6, accepts=1: (6 - 2) / 7 ≈ 0.57 > 0.5
+        assertFalse(throttle.tryAcquire());
+        throttle.onAccepted();
+        throttle.onAccepted();
+        // requests=9, accepts=3: (9 - 6) / 10 = 0.3 < 0.5
+        assertTrue(throttle.tryAcquire());
+    }
+
+    @Test
+    void testWindow_OldBucketsAgeOut() {
+        AdaptiveThrottle throttle = throttle(2.0, 0.0);
+        for (int i = 0; i < 50; i++) {
+            throttle.onRefused();
+        }
+        assertTrue(throttle.getRejectProbability() > 0.9);
+
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertTrue(throttle.getRejectProbability() > 0.9, "Still inside the window");
+
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+        assertEquals(0.0, throttle.getRejectProbability(), "Refusals older than the window are forgotten");
+
+        // A reused bucket starts from zero
+        throttle.onAccepted();
+        assertEquals(0.0, throttle.getRejectProbability());
+    }
+
+    @Test
+    void testInvalidArguments_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveThrottle(0.5, WINDOW, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveThrottle(2.0, WINDOW, 0));
+    }
+}
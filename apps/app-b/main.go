@@ -20,6 +20,7 @@ package main
 import (
 	"context"
 	"fmt"
+	"io"
 	"log"
 	"math/rand"
 	"net"
@@ -34,6 +35,7 @@ import (
 
 	"github.com/prometheus/client_golang/prometheus"
 	"github.com/prometheus/client_golang/prometheus/promhttp"
+	"google.golang.org/genproto/googleapis/rpc/code"
 	"google.golang.org/grpc"
 	"google.golang.org/grpc/codes"
 	"google.golang.org/grpc/health"
@@ -221,6 +223,86 @@ func (s *server) Work(ctx context.Context, req *pb.WorkRequest) (*pb.WorkReply,
 	return reply, nil
 }
 
+// BatchWork runs each item through the same Work() path (idempotency cache, fail
+// injection, single-thread worker), so per-item metrics and semantics are unchanged.
+//
+// LEARNING: Batching amortizes per-RPC cost (HTTP/2 HEADERS frame, stream setup,
+// handler dispatch) across many tiny WorkRequest{id} payloads. It does NOT add
+// capacity: items still queue for the single worker mutex one at a time.
+//
+// Per-item errors are returned in-band (ok=false, code=gRPC status name) so one
+// RESOURCE_EXHAUSTED item doesn't fail its batch neighbours. The client maps the
+// code back to a gRPC status, keeping App-A's per-item ErrorCode classification.
+func (s *server) BatchWork(ctx context.Context, req *pb.BatchWorkRequest) (*pb.BatchWorkReply, error) {
+	replies := make([]*pb.WorkReply, 0, len(req.GetRequests()))
+	for _, item := range req.GetRequests() {
+		// Client gave up (deadline/cancel): stop spending worker time on this batch.
+		if err := ctx.Err(); err != nil {
+			return nil, status.FromContextError(err).Err()
+		}
+		reply, err := s.Work(ctx, item)
+		if err != nil {
+			replies = append(replies, &pb.WorkReply{
+				Ok:   false,
+				Code: code.Code(status.Code(err)).String(), // e.g. "RESOURCE_EXHAUSTED"
+			})
+			continue
+		}
+		replies = append(replies, reply)
+	}
+	return &pb.BatchWorkReply{Replies: replies}, nil
+}
+
+// WorkStream serves a long-lived bidi stream: each received item runs through Work()
+// on its own goroutine (items still queue on the single worker mutex, exactly like
+// concurrent unary calls) and its reply is sent as soon as it is ready.
+//
+// LEARNING: A unary call pays for stream setup and a HEADERS frame per request; on a
+// stream, each item is only a length-prefixed DATA frame. Replies are sent in
+// completion order, so reply.Id is what lets the client match them to callers.
+//
+// stream.Send is not safe for concurrent use - sendMu serializes the goroutines.
+// The handler waits for every in-flight item before returning, because sending on
+// a stream after its handler has returned is not allowed.
+func (s *server) WorkStream(stream pb.DemoService_WorkStreamServer) error {
+	ctx := stream.Context()
+	var sendMu sync.Mutex
+	var inflight sync.WaitGroup
+	defer inflight.Wait()
+
+	for {
+		req, err := stream.Recv()
+		if err == io.EOF {
+			return nil // client half-closed: finish in-flight items, then end the stream
+		}
+		if err != nil {
+			return err // stream reset or cancelled
+		}
+
+		inflight.Add(1)
+		go func(req *pb.WorkRequest) {
+			defer inflight.Done()
+			// Stream already gone: don't spend worker time on an unreachable reply.
+			if ctx.Err() != nil {
+				return
+			}
+			reply := &pb.WorkReply{Id: req.GetId()}
+			if r, err := s.Work(ctx, req); err != nil {
+				reply.Ok = false
+				reply.Code = code.Code(status.Code(err)).String() // e.g. "RESOURCE_EXHAUSTED"
+			} else {
+				// Copy: r may be the shared idempotency-cache entry
+				reply.Ok, reply.Code, reply.LatencyMs = r.GetOk(), r.GetCode(), r.GetLatencyMs()
+			}
+			sendMu.Lock()
+			defer sendMu.Unlock()
+			if err := stream.Send(reply); err != nil {
+				log.Printf("WorkStream send failed for id=%s: %v", req.GetId(), err)
+			}
+		}(req)
+	}
+}
+
 // LEARNING: Metrics handler combines hand-rolled counters + promhttp histograms.
 // Why not use prometheus client for everything?
 // - Flow counters (received/started/completed/failed) need atomic increments in hot path
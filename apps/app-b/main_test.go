@@ -2,10 +2,16 @@ package main
 
 import (
 	"context"
+	"io"
+	"sync"
 	"sync/atomic"
 	"testing"
 
 	pb "app-b/gen"
+
+	"google.golang.org/grpc"
+	"google.golang.org/grpc/codes"
+	"google.golang.org/grpc/status"
 )
 
 // resetState clears all counters and caches between tests.
@@ -116,3 +122,141 @@ func TestMetricRelationships(t *testing.T) {
 		t.Errorf("invariant violated: started(%d) < completed(%d)", started, completed)
 	}
 }
+
+// TestBatchWork verifies that each batch item goes through the normal Work()
+// path and that per-item failures are returned in-band, not as an RPC error.
+func TestBatchWork(t *testing.T) {
+	resetState()
+	s := &server{}
+
+	reply, err := s.BatchWork(context.Background(), &pb.BatchWorkRequest{
+		Requests: []*pb.WorkRequest{{Id: "b-1"}, {Id: "b-2"}, {Id: "b-1"}},
+	})
+	if err != nil {
+		t.Fatalf("unexpected error: %v", err)
+	}
+	if len(reply.GetReplies()) != 3 {
+		t.Fatalf("replies=%d, want 3", len(reply.GetReplies()))
+	}
+	for i, r := range reply.GetReplies() {
+		if !r.GetOk() || r.GetCode() != "SUCCESS" {
+			t.Errorf("reply[%d]: ok=%v code=%s, want ok SUCCESS", i, r.GetOk(), r.GetCode())
+		}
+	}
+
+	assertCounter(t, "received", atomic.LoadInt64(&requestsReceivedTotal), 3)
+	assertCounter(t, "started", atomic.LoadInt64(&requestsStartedTotal), 2) // third item is a cache hit
+	assertCounter(t, "completed", atomic.LoadInt64(&requestsCompletedTotal), 2)
+}
+
+// TestBatchWorkItemFailure verifies per-item failures carry the gRPC status name.
+func TestBatchWorkItemFailure(t *testing.T) {
+	resetState()
+	failRate = 1.0
+	s := &server{}
+
+	reply, err := s.BatchWork(context.Background(), &pb.BatchWorkRequest{
+		Requests: []*pb.WorkRequest{{Id: "f-1"}, {Id: "f-2"}},
+	})
+	if err != nil {
+		t.Fatalf("per-item failures must not fail the RPC: %v", err)
+	}
+	for i, r := range reply.GetReplies() {
+		if r.GetOk() || r.GetCode() != "RESOURCE_EXHAUSTED" {
+			t.Errorf("reply[%d]: ok=%v code=%s, want RESOURCE_EXHAUSTED", i, r.GetOk(), r.GetCode())
+		}
+	}
+	assertCounter(t, "failed", atomic.LoadInt64(&requestsFailedTotal), 2)
+}
+
+// TestBatchWorkCancelled verifies a cancelled batch stops before doing any work.
+func TestBatchWorkCancelled(t *testing.T) {
+	resetState()
+	s := &server{}
+	ctx, cancel := context.WithCancel(context.Background())
+	cancel()
+
+	_, err := s.BatchWork(ctx, &pb.BatchWorkRequest{Requests: []*pb.WorkRequest{{Id: "c-1"}}})
+	if status.Code(err) != codes.Canceled {
+		t.Fatalf("got %v, want Canceled", err)
+	}
+	assertCounter(t, "received", atomic.LoadInt64(&requestsReceivedTotal), 0)
+}
+
+// fakeWorkStream feeds queued requests to WorkStream, then io.EOF (client half-close).
+type fakeWorkStream struct {
+	grpc.ServerStream
+	ctx      context.Context
+	requests []*pb.WorkRequest
+	mu       sync.Mutex
+	replies  []*pb.WorkReply
+}
+
+func (f *fakeWorkStream) Context() context.Context { return f.ctx }
+
+func (f *fakeWorkStream) Recv() (*pb.WorkRequest, error) {
+	if len(f.requests) == 0 {
+		return nil, io.EOF
+	}
+	req := f.requests[0]
+	f.requests = f.requests[1:]
+	return req, nil
+}
+
+func (f *fakeWorkStream) Send(reply *pb.WorkReply) error {
+	f.mu.Lock()
+	defer f.mu.Unlock()
+	f.replies = append(f.replies, reply)
+	return nil
+}
+
+// TestWorkStream verifies every item gets exactly one reply tagged with its id,
+// and that the handler only returns after all in-flight items were answered.
+func TestWorkStream(t *testing.T) {
+	resetState()
+	stream := &fakeWorkStream{
+		ctx:      context.Background(),
+		requests: []*pb.WorkRequest{{Id: "s-1"}, {Id: "s-2"}, {Id: "s-3"}},
+	}
+
+	if err := (&server{}).WorkStream(stream); err != nil {
+		t.Fatalf("unexpected error: %v", err)
+	}
+	if len(stream.replies) != 3 {
+		t.Fatalf("replies=%d, want 3", len(stream.replies))
+	}
+	seen := map[string]bool{}
+	for _, r := range stream.replies {
+		if !r.GetOk() || r.GetCode() != "SUCCESS" {
+			t.Errorf("reply %s: ok=%v code=%s, want ok SUCCESS", r.GetId(), r.GetOk(), r.GetCode())
+		}
+		seen[r.GetId()] = true
+	}
+	for _, id := range []string{"s-1", "s-2", "s-3"} {
+		if !seen[id] {
+			t.Errorf("no reply for id %s", id)
+		}
+	}
+	assertCounter(t, "completed", atomic.LoadInt64(&requestsCompletedTotal), 3)
+}
+
+// TestWorkStreamItemFailure verifies failures are returned in-band with the id set.
+func TestWorkStreamItemFailure(t *testing.T) {
+	resetState()
+	failRate = 1.0
+	stream := &fakeWorkStream{
+		ctx:      context.Background(),
+		requests: []*pb.WorkRequest{{Id: "f-1"}},
+	}
+
+	if err := (&server{}).WorkStream(stream); err != nil {
+		t.Fatalf("item failure should not fail the stream: %v", err)
+	}
+	if len(stream.replies) != 1 {
+		t.Fatalf("replies=%d, want 1", len(stream.replies))
+	}
+	r := stream.replies[0]
+	if r.GetId() != "f-1" || r.GetOk() || r.GetCode() != "RESOURCE_EXHAUSTED" {
+		t.Errorf("got id=%s ok=%v code=%s, want f-1 false RESOURCE_EXHAUSTED", r.GetId(), r.GetOk(), r.GetCode())
+	}
+}
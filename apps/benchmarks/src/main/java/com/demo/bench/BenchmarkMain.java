@@ -0,0 +1,52 @@
+package com.demo.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Entry point of target/benchmarks.jar: the standard JMH command line, with
+ * different defaults.
+ *
+ * LEARNING: The interesting number on a hot path is often not ns/op but B/op -
+ * allocation is what turns into GC pauses (and p99) at 200+ QPS. So every run
+ * attaches the GC profiler (gc.alloc.rate.norm = bytes allocated per call) and
+ * writes JSON results that can be diffed between commits, unless the command line
+ * says otherwise (-prof, -rf, -rff).
+ */
+public final class BenchmarkMain {
+
+    static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListProfilers()
+                || cli.shouldListResultFormats() || cli.shouldListWithParams()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (cli.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!cli.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cli.getResult().hasValue()) {
+            // relative to the working directory, which need not have a target/ yet
+            Files.createDirectories(Path.of(DEFAULT_RESULT_FILE).toAbsolutePath().getParent());
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        new Runner(options.build()).run();
+    }
+}
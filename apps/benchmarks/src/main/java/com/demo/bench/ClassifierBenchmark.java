@@ -0,0 +1,83 @@
+package com.demo.bench;
+
+import com.demo.appa.observability.CallOutcome;
+import com.demo.appa.observability.ClassifiedException;
+import com.demo.appa.observability.GrpcErrorClassifier;
+import com.demo.appa.retry.RetryDecisionPolicy;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GrpcErrorClassifier.classify and RetryDecisionPolicy.shouldRetry, once per failed
+ * attempt on every port.
+ *
+ * Exceptions are built once in setup: the benchmark measures classification, not
+ * the cost of constructing (and filling the stack trace of) the exception.
+ * - raw:        the exception as thrown by the stub (table lookup by status code)
+ * - classified: the ClassifiedException carried between layers (field read)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassifierBenchmark {
+
+    @Param({"UNAVAILABLE", "DEADLINE_EXCEEDED", "RESOURCE_EXHAUSTED", "CIRCUIT_OPEN"})
+    public String failure;
+
+    private GrpcErrorClassifier classifier;
+    private RetryDecisionPolicy retryPolicy;
+    private Throwable raw;
+    private ClassifiedException classified;
+    private CallOutcome outcome;
+
+    @Setup
+    public void setup() {
+        classifier = new GrpcErrorClassifier();
+        retryPolicy = new RetryDecisionPolicy(classifier);
+        if ("CIRCUIT_OPEN".equals(failure)) {
+            raw = CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("bench"));
+        } else {
+            raw = new StatusRuntimeException(Status.fromCode(Status.Code.valueOf(failure)).withDescription("bench"));
+        }
+        classified = classifier.classified(raw);
+        outcome = classified.outcome();
+    }
+
+    @Benchmark
+    public CallOutcome classifyRaw() {
+        return classifier.classify(raw);
+    }
+
+    @Benchmark
+    public CallOutcome classifyClassified() {
+        return classifier.classify(classified);
+    }
+
+    @Benchmark
+    public boolean shouldRetryThrowable() {
+        return retryPolicy.shouldRetry(raw, null);
+    }
+
+    @Benchmark
+    public boolean shouldRetryOutcome() {
+        return retryPolicy.shouldRetry(outcome);
+    }
+}
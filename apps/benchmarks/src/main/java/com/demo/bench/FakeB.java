@@ -0,0 +1,84 @@
+package com.demo.bench;
+
+import com.demo.grpc.BatchWorkReply;
+import com.demo.grpc.BatchWorkRequest;
+import com.demo.grpc.DemoServiceGrpc;
+import com.demo.grpc.WorkReply;
+import com.demo.grpc.WorkRequest;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service B stand-in running inside the benchmark JVM: every call succeeds at once.
+ *
+ * It listens on a loopback port rather than an InProcessChannel because AppAResilient
+ * builds its own channels from b.service.url - so the measured path is the one
+ * production runs (Netty, HTTP/2 framing, protobuf), minus B's simulated work.
+ */
+final class FakeB implements AutoCloseable {
+
+    private static final WorkReply OK = WorkReply.newBuilder().setOk(true).setCode("SUCCESS").build();
+
+    private final Server server;
+
+    FakeB() throws IOException {
+        server = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(new Service())
+                .build()
+                .start();
+    }
+
+    String target() {
+        return "localhost:" + server.getPort();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static final class Service extends DemoServiceGrpc.DemoServiceImplBase {
+
+        @Override
+        public void work(WorkRequest request, StreamObserver<WorkReply> responseObserver) {
+            responseObserver.onNext(OK);
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void batchWork(BatchWorkRequest request, StreamObserver<BatchWorkReply> responseObserver) {
+            BatchWorkReply.Builder reply = BatchWorkReply.newBuilder();
+            for (int i = 0; i < request.getRequestsCount(); i++) {
+                reply.addReplies(OK);
+            }
+            responseObserver.onNext(reply.build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public StreamObserver<WorkRequest> workStream(StreamObserver<WorkReply> responseObserver) {
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(WorkRequest request) {
+                    // Replies are sent inline on the inbound thread, so no send lock is needed
+                    responseObserver.onNext(OK.toBuilder().setId(request.getId()).build());
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    // Client went away; nothing in flight to clean up
+                }
+
+                @Override
+                public void onCompleted() {
+                    responseObserver.onCompleted();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.demo.bench;
+
+import java.lang.reflect.Field;
+
+/**
+ * Reflective access to private fields of app-a beans, for setup only.
+ *
+ * app-a injects collaborators with field @Autowired and keeps its protection state
+ * (breaker, limiter) private; benchmarks reach in here rather than widening app-a's API.
+ */
+final class Fields {
+
+    private Fields() {
+    }
+
+    static void set(Object target, String name, Object value) {
+        try {
+            field(target, name).set(target, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T get(Object target, String name) {
+        try {
+            return (T) field(target, name).get(target);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Field field(Object target, String name) {
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException ignored) {
+                // keep walking up
+            }
+        }
+        throw new IllegalArgumentException("No field '" + name + "' on " + target.getClass().getName());
+    }
+}
@@ -0,0 +1,66 @@
+package com.demo.bench;
+
+import com.demo.appa.MetricsService;
+import com.demo.appa.observability.CallOutcome;
+import com.demo.appa.observability.GrpcErrorClassifier;
+import io.grpc.Status;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MetricsService.recordCall against the registry production uses (Prometheus).
+ *
+ * Expect gc.alloc.rate.norm ≈ 0 B/op for the pre-registered method ("Work"): the
+ * meters are looked up in EnumMaps, never built on the request path. "other" is the
+ * computeIfAbsent fallback for a method that was not pre-registered (after its
+ * first call it is a map hit too).
+ *
+ * Shared state + 4 threads: meter updates are contended the way they are under load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class MetricsBenchmark {
+
+    private MetricsService metrics;
+    private CallOutcome unavailable;
+
+    @Setup
+    public void setup() {
+        metrics = new MetricsService(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        Fields.set(metrics, "classifier", new GrpcErrorClassifier());
+        unavailable = GrpcErrorClassifier.forStatus(Status.Code.UNAVAILABLE);
+    }
+
+    @Benchmark
+    public void recordSuccess() {
+        metrics.recordCall("Work", 5, CallOutcome.SUCCESS);
+    }
+
+    @Benchmark
+    public void recordFailure() {
+        metrics.recordCall("Work", 5, unavailable);
+    }
+
+    @Benchmark
+    public void recordOtherMethod() {
+        metrics.recordCall("Other", 5, CallOutcome.SUCCESS);
+    }
+}
@@ -0,0 +1,78 @@
+package com.demo.bench;
+
+import com.demo.appa.WorkResult;
+import com.demo.appa.breaker.GlobalBreaker;
+import com.demo.appa.limit.ConcurrencyLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full AppAResilient.callWork: cache check, breaker, bulkhead, retry, gRPC call to
+ * a FakeB and metrics - in each protection state.
+ * - CLOSED:        the whole path, including the network round trip
+ * - OPEN:          rejected at layer 1 (breaker); should cost ~1μs and no network
+ * - BULKHEAD_FULL: breaker passes, rejected at layer 2 (all limiter permits held)
+ *
+ * app-a's per-rejection WARN log is below the benchmark's log level (logback.xml),
+ * so OPEN/BULKHEAD_FULL measure the rejection itself, not console output.
+ *
+ * OPEN uses the breaker's FORCED_OPEN state so it cannot drift to HALF_OPEN after
+ * the wait duration in the middle of a measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResilientCallBenchmark {
+
+    @Param({"CLOSED", "OPEN", "BULKHEAD_FULL"})
+    public String protection;
+
+    private ResilientFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        fixture = new ResilientFixture(Map.of());
+        switch (protection) {
+            case "OPEN" -> {
+                GlobalBreaker breakers = Fields.get(fixture.app, "breakers");
+                breakers.getBreaker().transitionToForcedOpenState();
+            }
+            case "BULKHEAD_FULL" -> {
+                ConcurrencyLimiter limiter = Fields.get(fixture.app, "limiter");
+                while (limiter.tryAcquire()) {
+                    // hold every permit for the whole trial
+                }
+            }
+            default -> {
+                // CLOSED: as constructed
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    @Benchmark
+    public WorkResult callWork() {
+        return fixture.app.callWork("bench");
+    }
+}
@@ -0,0 +1,51 @@
+package com.demo.bench;
+
+import com.demo.appa.AppAResilient;
+import com.demo.appa.MetricsService;
+import com.demo.appa.breaker.BreakerConfig;
+import com.demo.appa.observability.GrpcErrorClassifier;
+import com.demo.appa.retry.RetryDecisionPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AppAResilient wired by Spring exactly as in the app (@Value config, @Autowired
+ * collaborators, @PostConstruct/@PreDestroy), pointed at a FakeB.
+ *
+ * Only the beans AppAResilient needs are registered - no web server, no actuator.
+ */
+final class ResilientFixture implements AutoCloseable {
+
+    private final FakeB fakeB;
+    private final AnnotationConfigApplicationContext context;
+    final AppAResilient app;
+
+    ResilientFixture(Map<String, Object> properties) throws Exception {
+        fakeB = new FakeB();
+
+        Map<String, Object> config = new HashMap<>();
+        config.put("resilience.enabled", "true");
+        config.put("b.service.url", fakeB.target());
+        config.putAll(properties);
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", config));
+        context.registerBean(MeterRegistry.class, () -> new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        context.register(GrpcErrorClassifier.class, RetryDecisionPolicy.class, MetricsService.class,
+                BreakerConfig.class, AppAResilient.class);
+        context.refresh();
+        app = context.getBean(AppAResilient.class);
+    }
+
+    @Override
+    public void close() throws Exception {
+        context.close();
+        fakeB.close();
+    }
+}
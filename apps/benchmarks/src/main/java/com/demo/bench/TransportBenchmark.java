@@ -0,0 +1,88 @@
+package com.demo.bench;
+
+import com.demo.appa.WorkResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput of AppAResilient.callWork per b.transport, with 8 concurrent callers.
+ * - unary:  one HTTP/2 stream (headers + trailers) per call
+ * - stream: calls multiplexed as messages on long-lived WorkStream streams
+ * - batch:  calls coalesced into BatchWork RPCs (up to b.batch.max.size items)
+ *
+ * Concurrency matters here: with a single caller, batch would wait out
+ * b.batch.max.delay.us on every call and stream would have nothing to multiplex.
+ * The bulkhead is raised so it does not cap the 8 callers, and each caller uses its
+ * own request ids (WorkStreamClient shares one in-flight message per id).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class TransportBenchmark {
+
+    @Param({"unary", "stream", "batch"})
+    public String transport;
+
+    private ResilientFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        fixture = new ResilientFixture(Map.of(
+                "b.transport", transport,
+                "b.inflight.max", "64"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    @Benchmark
+    public WorkResult callWork(Caller caller) {
+        return fixture.app.callWork(caller.nextId());
+    }
+
+    /** Per-thread ring of pre-built request ids: unique among in-flight calls, no allocation per call. */
+    @State(Scope.Thread)
+    public static class Caller {
+        private static final int IDS = 1024;
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        private final String[] ids = new String[IDS];
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            int thread = THREADS.getAndIncrement();
+            for (int i = 0; i < IDS; i++) {
+                ids[i] = "bench-" + thread + "-" + i;
+            }
+        }
+
+        String nextId() {
+            String id = ids[next];
+            next = (next + 1) & (IDS - 1);
+            return id;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.demo.loadgen;
+
+import com.demo.appa.ErrorCode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A fixed number of callers, each waiting for its reply before sending again - how
+ * a thread pool in front of A behaves.
+ *
+ * Paced (callerIntervalNanos > 0): each caller follows its own schedule, and latency
+ * counts from the scheduled send, so a stall is charged to every send it delayed.
+ * Unpaced: intended start == actual send, and the result is NOT corrected for
+ * coordinated omission (LoadReport says so).
+ */
+final class ClosedLoopDriver extends Driver {
+
+    private final int concurrency;
+    private final long callerIntervalNanos;
+
+    ClosedLoopDriver(Target target, LatencyRecorder recorder, int concurrency, long callerIntervalNanos) {
+        super(target, recorder);
+        this.concurrency = concurrency;
+        this.callerIntervalNanos = callerIntervalNanos;
+    }
+
+    @Override
+    void run(Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        List<Thread> callers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            // Stagger first sends so paced callers don't fire in lockstep
+            long first = start + callerIntervalNanos * i / concurrency;
+            callers.add(Thread.ofPlatform().name("loadgen-caller-" + i).start(() -> callLoop(first, end)));
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+    }
+
+    private void callLoop(long firstIntended, long end) {
+        long intended = firstIntended;
+        while (intended - end < 0) {
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            recorder.onSent();
+            long sendNanos = System.nanoTime();
+            ErrorCode code;
+            try {
+                code = target.send(nextRequestId()).join();
+            } catch (CompletionException e) {
+                code = ErrorCode.UNKNOWN;
+            }
+            long replyNanos = System.nanoTime();
+            recorder.record(code, callerIntervalNanos > 0 ? intended : sendNanos, sendNanos, replyNanos);
+
+            // Unpaced: the next send is due now
+            intended = callerIntervalNanos > 0 ? intended + callerIntervalNanos : replyNanos;
+        }
+    }
+
+    @Override
+    int drain(Duration timeout) {
+        return 0;   // every caller waited for its last reply
+    }
+}
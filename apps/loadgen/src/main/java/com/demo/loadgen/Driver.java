@@ -0,0 +1,40 @@
+package com.demo.loadgen;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Sends load at a Target for one phase (warm-up or measurement). */
+abstract class Driver {
+
+    protected final Target target;
+    protected final LatencyRecorder recorder;
+    private final String idPrefix = "lg-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+    private final AtomicLong nextId = new AtomicLong();
+
+    Driver(Target target, LatencyRecorder recorder) {
+        this.target = target;
+        this.recorder = recorder;
+    }
+
+    /** Generate load for the given duration. */
+    abstract void run(Duration duration) throws InterruptedException;
+
+    /**
+     * Wait up to timeout for calls still in flight after run() returned.
+     *
+     * @return calls that were still in flight at the timeout (never recorded)
+     */
+    abstract int drain(Duration timeout) throws InterruptedException;
+
+    /** Unique per call, so no layer (cache, coalescing, B's idempotency) turns load into hits. */
+    protected String nextRequestId() {
+        return idPrefix + nextId.getAndIncrement();
+    }
+
+    static Driver create(LoadConfig config, Target target, LatencyRecorder recorder) {
+        return switch (config.mode()) {
+            case OPEN -> new OpenLoopDriver(target, recorder, config.rate(), config.maxOutstanding());
+            case CLOSED -> new ClosedLoopDriver(target, recorder, config.concurrency(), config.callerIntervalNanos());
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.demo.loadgen;
+
+import com.demo.appa.ErrorCode;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * GET {base}/api/work over HTTP, the way clients (and the scenarios) reach A.
+ *
+ * A answers 200 with {ok, code, latencyMs}; code is SUCCESS or an ErrorCode name.
+ * Failures that never got that far are attributed on the client side:
+ * - request timeout         → DEADLINE_EXCEEDED
+ * - connection / I/O error  → UNAVAILABLE
+ * - non-2xx, unparseable    → UNKNOWN
+ */
+final class HttpTarget implements Target {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final HttpClient client;
+    private final HttpRequest request;
+
+    HttpTarget(String baseUrl, Duration timeout) {
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+        this.request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/work"))
+                .timeout(timeout)
+                // Tell app-a when we give up, so it stops retrying for us after that
+                .header("X-Request-Timeout-Ms", String.valueOf(timeout.toMillis()))
+                .GET()
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<ErrorCode> send(String requestId) {
+        // /api/work assigns its own request id
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> error == null ? fromResponse(response) : fromFailure(error));
+    }
+
+    static ErrorCode fromResponse(HttpResponse<String> response) {
+        // 503 carries a WorkResponse too when app-a's ingress admission sheds (code SHED)
+        if (response.statusCode() / 100 != 2 && response.statusCode() != 503) {
+            return ErrorCode.UNKNOWN;
+        }
+        return fromBody(response.body());
+    }
+
+    static ErrorCode fromBody(String body) {
+        try {
+            JsonNode json = JSON.readTree(body);
+            if (json.path("ok").asBoolean(false)) {
+                return ErrorCode.SUCCESS;
+            }
+            return ErrorCode.valueOf(json.path("code").asText());
+        } catch (IOException | IllegalArgumentException e) {
+            return ErrorCode.UNKNOWN;
+        }
+    }
+
+    static ErrorCode fromFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpTimeoutException) {
+            return ErrorCode.DEADLINE_EXCEEDED;
+        }
+        if (cause instanceof IOException) {
+            return ErrorCode.UNAVAILABLE;
+        }
+        return ErrorCode.UNKNOWN;
+    }
+
+    @Override
+    public void close() {
+        client.shutdownNow();
+    }
+}
@@ -0,0 +1,112 @@
+package com.demo.loadgen;
+
+import com.demo.appa.ErrorCode;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency of every completed call, per ErrorCode, in microseconds.
+ *
+ * LEARNING: Coordinated omission. A load generator that waits for each reply before
+ * sending the next stops sending exactly while the system is stalled - so a 2s stall
+ * shows up as ONE slow sample instead of the hundreds of users who would have arrived
+ * during it. The tail it reports is the tail the system chose to show.
+ *
+ * The fix is to measure from when a request SHOULD have been sent (its intended
+ * start on the arrival schedule), not from when it was actually sent:
+ * - open loop: intended start = start + i / rate, sent regardless of replies
+ * - closed loop with --rate: each caller has its own schedule; after a stall the
+ *   overdue sends go out at once and carry the time they spent waiting
+ * Both histograms are kept: "corrected" (from intended start) is what users see,
+ * "service" (from actual send) is what A saw. A large gap between them means the
+ * system stalled and a naive measurement would have hidden it.
+ *
+ * A send the open loop skipped (max-outstanding reached) was due exactly while A was
+ * stalled, so dropping it would omit the worst samples all over again. It is counted
+ * in the corrected total with the time until sending resumed - a lower bound, since
+ * the user it stands for would have waited at least that long.
+ */
+public class LatencyRecorder {
+
+    static final long HIGHEST_TRACKABLE_US = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<ErrorCode, Recorder> corrected = new EnumMap<>(ErrorCode.class);
+    private final Recorder service = new Recorder(HIGHEST_TRACKABLE_US, SIGNIFICANT_DIGITS);
+    private final Recorder skipped = new Recorder(HIGHEST_TRACKABLE_US, SIGNIFICANT_DIGITS);
+    private final LongAdder sent = new LongAdder();
+
+    public LatencyRecorder() {
+        for (ErrorCode code : ErrorCode.values()) {
+            corrected.put(code, new Recorder(HIGHEST_TRACKABLE_US, SIGNIFICANT_DIGITS));
+        }
+    }
+
+    public void onSent() {
+        sent.increment();
+    }
+
+    /**
+     * A scheduled send that was not made (open loop, too many calls in flight).
+     *
+     * @param intendedStartNanos when the schedule said to send
+     * @param resumedNanos       when sending resumed (or the phase ended): its latency so far
+     */
+    public void onSkipped(long intendedStartNanos, long resumedNanos) {
+        skipped.recordValue(toMicros(resumedNanos - intendedStartNanos));
+    }
+
+    /**
+     * @param intendedStartNanos when the schedule said to send (== sendNanos when unpaced)
+     * @param sendNanos          when the call was actually made
+     * @param endNanos           when the reply (or failure) arrived
+     */
+    public void record(ErrorCode code, long intendedStartNanos, long sendNanos, long endNanos) {
+        corrected.get(code).recordValue(toMicros(endNanos - intendedStartNanos));
+        service.recordValue(toMicros(endNanos - sendNanos));
+    }
+
+    /** Everything recorded since the previous snapshot (the recorder starts over). */
+    public Snapshot snapshot() {
+        Map<ErrorCode, Histogram> byCode = new EnumMap<>(ErrorCode.class);
+        for (Map.Entry<ErrorCode, Recorder> entry : corrected.entrySet()) {
+            byCode.put(entry.getKey(), entry.getValue().getIntervalHistogram());
+        }
+        return new Snapshot(byCode, service.getIntervalHistogram(), skipped.getIntervalHistogram(), sent.sumThenReset());
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.max(0, Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_US));
+    }
+
+    /**
+     * @param corrected per-ErrorCode latency from intended start (µs)
+     * @param service   all codes, latency from actual send (µs)
+     * @param unsent    skipped sends, from intended start until sending resumed (µs)
+     */
+    public record Snapshot(Map<ErrorCode, Histogram> corrected, Histogram service, Histogram unsent, long sent) {
+
+        /** Corrected latency over all codes, skipped sends included. */
+        public Histogram correctedTotal() {
+            Histogram total = new Histogram(HIGHEST_TRACKABLE_US, SIGNIFICANT_DIGITS);
+            for (Histogram histogram : corrected.values()) {
+                total.add(histogram);
+            }
+            total.add(unsent);
+            return total;
+        }
+
+        public long skipped() {
+            return unsent.getTotalCount();
+        }
+
+        public long completed() {
+            return service.getTotalCount();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.demo.loadgen;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line of the load generator. Every option is {@code --name=value}; options
+ * the generator does not know are passed through to Spring for {@code --target=port}
+ * (e.g. {@code --resilience.enabled=true --b.service.url=localhost:50051}).
+ *
+ * @param mode           open (constant arrival rate) or closed (fixed number of callers)
+ * @param target         "http://host:port" for /api/work, or "port" to call AppAPort in-process
+ * @param rate           requests/s; required for open, optional pacing for closed (0 = unpaced)
+ * @param concurrency    callers in closed mode
+ * @param warmup         run, then discard, before measuring
+ * @param duration       measured run
+ * @param timeout        HTTP request timeout; also how long to wait for stragglers at the end
+ * @param maxOutstanding open mode: calls in flight beyond this are not sent (reported as skipped)
+ * @param jsonOut        optional path for the JSON report
+ * @param springArgs     pass-through arguments for --target=port
+ */
+public record LoadConfig(Mode mode, String target, double rate, int concurrency, Duration warmup,
+                         Duration duration, Duration timeout, int maxOutstanding, String jsonOut,
+                         String[] springArgs) {
+
+    public enum Mode { OPEN, CLOSED }
+
+    static final String PORT_TARGET = "port";
+
+    public static LoadConfig parse(String... args) {
+        Mode mode = Mode.OPEN;
+        String target = "http://localhost:8080";
+        double rate = 0;
+        int concurrency = 16;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(60);
+        Duration timeout = Duration.ofSeconds(30);
+        int maxOutstanding = 10_000;
+        String jsonOut = null;
+        List<String> springArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (name) {
+                case "mode" -> mode = Mode.valueOf(value.toUpperCase());
+                case "target" -> target = value;
+                case "rate" -> rate = Double.parseDouble(value);
+                case "concurrency" -> concurrency = Integer.parseInt(value);
+                case "warmup" -> warmup = parseDuration(value);
+                case "duration" -> duration = parseDuration(value);
+                case "timeout" -> timeout = parseDuration(value);
+                case "max-outstanding" -> maxOutstanding = Integer.parseInt(value);
+                case "json" -> jsonOut = value;
+                default -> springArgs.add(arg);
+            }
+        }
+
+        if (mode == Mode.OPEN && rate <= 0) {
+            throw new IllegalArgumentException("--mode=open needs --rate > 0 (requests/s)");
+        }
+        if (concurrency < 1 || maxOutstanding < 1) {
+            throw new IllegalArgumentException("--concurrency and --max-outstanding must be >= 1");
+        }
+        if (!PORT_TARGET.equals(target) && !target.startsWith("http://") && !target.startsWith("https://")) {
+            throw new IllegalArgumentException("--target must be http(s)://host:port or 'port', got: " + target);
+        }
+        return new LoadConfig(mode, target, rate, concurrency, warmup, duration, timeout, maxOutstanding,
+                jsonOut, springArgs.toArray(new String[0]));
+    }
+
+    /** "500ms", "30s", "2m", or plain seconds. */
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    /** Closed mode: time between one caller's intended sends, or 0 when unpaced. */
+    long callerIntervalNanos() {
+        return rate > 0 ? (long) (1e9 * concurrency / rate) : 0;
+    }
+}
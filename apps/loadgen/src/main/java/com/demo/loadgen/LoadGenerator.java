@@ -0,0 +1,58 @@
+package com.demo.loadgen;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Load generator for app-a: drives /api/work (or AppAPort in-process) with an open
+ * or closed loop and prints a latency report with coordinated omission corrected.
+ *
+ * Examples:
+ *   java -jar loadgen.jar --mode=open --rate=200 --duration=60s
+ *   java -jar loadgen.jar --mode=closed --concurrency=32 --rate=200 --json=report.json
+ *   java -jar loadgen.jar --target=port --rate=200 --resilience.enabled=true \
+ *       --b.service.url=localhost:50051
+ */
+public final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.parse(args);
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        try (Target target = LoadConfig.PORT_TARGET.equals(config.target())
+                ? new PortTarget(config.springArgs())
+                : new HttpTarget(config.target(), config.timeout())) {
+            Driver driver = Driver.create(config, target, recorder);
+
+            if (!config.warmup().isZero()) {
+                System.out.printf("warm-up %ds...%n", config.warmup().toSeconds());
+                driver.run(config.warmup());
+                driver.drain(config.timeout());
+                recorder.snapshot();   // discard
+            }
+
+            System.out.printf("measuring %ds...%n", config.duration().toSeconds());
+            long start = System.nanoTime();
+            driver.run(config.duration());
+            int incomplete = driver.drain(config.timeout());
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+            LoadReport report = new LoadReport(config, recorder.snapshot(), elapsedSeconds, incomplete);
+            System.out.println();
+            System.out.print(report.toText());
+            if (config.jsonOut() != null) {
+                write(Path.of(config.jsonOut()), report.toJson());
+            }
+        }
+        System.exit(0);   // HttpClient / gRPC threads are not all daemons
+    }
+
+    private static void write(Path path, String json) throws IOException {
+        Files.writeString(path, json);
+        System.out.println("report written to " + path);
+    }
+}
@@ -0,0 +1,155 @@
+package com.demo.loadgen;
+
+import com.demo.appa.ErrorCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of one measured phase: throughput, latency percentiles (corrected and
+ * service time) and the breakdown by ErrorCode, as text or JSON.
+ *
+ * Rejections are A's fail-fast answers (QUEUE_FULL, CIRCUIT_OPEN, THROTTLED, SHED): fast by
+ * design, so their share is reported next to the latency they keep low.
+ */
+public class LoadReport {
+
+    static final Set<ErrorCode> REJECTIONS = EnumSet.of(
+            ErrorCode.QUEUE_FULL, ErrorCode.CIRCUIT_OPEN, ErrorCode.THROTTLED, ErrorCode.SHED);
+    private static final double[] PERCENTILES = {50.0, 99.0, 99.9};
+
+    private final LoadConfig config;
+    private final LatencyRecorder.Snapshot snapshot;
+    private final double elapsedSeconds;
+    private final int incomplete;
+
+    public LoadReport(LoadConfig config, LatencyRecorder.Snapshot snapshot, double elapsedSeconds, int incomplete) {
+        this.config = config;
+        this.snapshot = snapshot;
+        this.elapsedSeconds = elapsedSeconds;
+        this.incomplete = incomplete;
+    }
+
+    public double throughput() {
+        return elapsedSeconds > 0 ? snapshot.completed() / elapsedSeconds : 0;
+    }
+
+    public double rejectionRate() {
+        long completed = snapshot.completed();
+        if (completed == 0) {
+            return 0;
+        }
+        long rejected = 0;
+        for (ErrorCode code : REJECTIONS) {
+            rejected += snapshot.corrected().get(code).getTotalCount();
+        }
+        return (double) rejected / completed;
+    }
+
+    /**
+     * True if sends were skipped (open loop, max-outstanding): their latency only counts
+     * until sending resumed, so the corrected percentiles are a lower bound.
+     */
+    public boolean percentilesLowerBound() {
+        return snapshot.skipped() > 0;
+    }
+
+    /** False for an unpaced closed loop: nothing to measure the intended start against. */
+    public boolean correctedForCoordinatedOmission() {
+        return config.mode() == LoadConfig.Mode.OPEN || config.callerIntervalNanos() > 0;
+    }
+
+    public String toText() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "mode=%s target=%s rate=%s concurrency=%s elapsed=%.1fs%n",
+                config.mode().name().toLowerCase(Locale.ROOT), config.target(),
+                config.rate() > 0 ? String.format(Locale.ROOT, "%.0f/s", config.rate()) : "unpaced",
+                config.mode() == LoadConfig.Mode.CLOSED ? config.concurrency() : "-", elapsedSeconds));
+        out.append(String.format(Locale.ROOT, "sent=%d completed=%d skipped=%d incomplete=%d%n",
+                snapshot.sent(), snapshot.completed(), snapshot.skipped(), incomplete));
+        out.append(String.format(Locale.ROOT, "throughput=%.1f/s rejection_rate=%.2f%%%n",
+                throughput(), rejectionRate() * 100));
+        if (!correctedForCoordinatedOmission()) {
+            out.append("WARNING: unpaced closed loop - latency is NOT corrected for coordinated omission"
+                    + " (add --rate)\n");
+        }
+        if (percentilesLowerBound()) {
+            out.append(String.format(Locale.ROOT, "WARNING: %d sends skipped (--max-outstanding) - corrected"
+                    + " latency is a LOWER BOUND (skipped sends count only until sending resumed)%n",
+                    snapshot.skipped()));
+        }
+
+        out.append(String.format(Locale.ROOT, "%n%-18s %10s %8s %10s %10s %10s %10s%n",
+                "latency (ms)", "count", "share", "p50", "p99", "p99.9", "max"));
+        appendRow(out, "all (corrected)", snapshot.correctedTotal());
+        appendRow(out, "all (service)", snapshot.service());
+        if (snapshot.skipped() > 0) {
+            appendRow(out, "skipped (>=)", snapshot.unsent());
+        }
+        for (Map.Entry<ErrorCode, Histogram> entry : snapshot.corrected().entrySet()) {
+            if (entry.getValue().getTotalCount() > 0) {
+                appendRow(out, entry.getKey().name(), entry.getValue());
+            }
+        }
+        return out.toString();
+    }
+
+    private void appendRow(StringBuilder out, String label, Histogram histogram) {
+        long scheduled = snapshot.completed() + snapshot.skipped();
+        out.append(String.format(Locale.ROOT, "%-18s %10d %7.2f%%", label, histogram.getTotalCount(),
+                scheduled > 0 ? 100.0 * histogram.getTotalCount() / scheduled : 0));
+        for (double percentile : PERCENTILES) {
+            out.append(String.format(Locale.ROOT, " %10.2f", millis(histogram.getValueAtPercentile(percentile))));
+        }
+        out.append(String.format(Locale.ROOT, " %10.2f%n", millis(histogram.getMaxValue())));
+    }
+
+    public String toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("mode", config.mode().name().toLowerCase(Locale.ROOT));
+        json.put("target", config.target());
+        json.put("rate", config.rate());
+        json.put("concurrency", config.concurrency());
+        json.put("elapsedSeconds", elapsedSeconds);
+        json.put("sent", snapshot.sent());
+        json.put("completed", snapshot.completed());
+        json.put("skipped", snapshot.skipped());
+        json.put("incomplete", incomplete);
+        json.put("throughput", throughput());
+        json.put("rejectionRate", rejectionRate());
+        json.put("correctedForCoordinatedOmission", correctedForCoordinatedOmission());
+        json.put("percentilesLowerBound", percentilesLowerBound());
+        json.put("corrected", latency(snapshot.correctedTotal()));
+        json.put("service", latency(snapshot.service()));
+        Map<String, Object> byCode = new LinkedHashMap<>();
+        for (Map.Entry<ErrorCode, Histogram> entry : snapshot.corrected().entrySet()) {
+            byCode.put(entry.getKey().name(), latency(entry.getValue()));
+        }
+        json.put("byErrorCode", byCode);
+        try {
+            return new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, Object> latency(Histogram histogram) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", histogram.getTotalCount());
+        latency.put("p50Ms", millis(histogram.getValueAtPercentile(50.0)));
+        latency.put("p99Ms", millis(histogram.getValueAtPercentile(99.0)));
+        latency.put("p999Ms", millis(histogram.getValueAtPercentile(99.9)));
+        latency.put("maxMs", millis(histogram.getMaxValue()));
+        return latency;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
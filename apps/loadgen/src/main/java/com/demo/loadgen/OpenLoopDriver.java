@@ -0,0 +1,100 @@
+package com.demo.loadgen;
+
+import com.demo.appa.ErrorCode;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Constant arrival rate: request i is due at start + i / rate, whether or not
+ * earlier requests have been answered - like independent users, and unlike a
+ * thread pool of callers, a stalled A does not slow the arrivals down.
+ *
+ * One dispatcher thread keeps the schedule; replies are recorded from completion
+ * callbacks. If the dispatcher falls behind (GC, slow send), overdue requests go out
+ * at once and their latency still counts from the time they were due.
+ *
+ * With maxOutstanding calls in flight, due sends are skipped (bounded memory if A
+ * stops answering). Each one is recorded when the window reopens - at the next send,
+ * or at the end of drain() - with the time it had waited by then.
+ */
+final class OpenLoopDriver extends Driver {
+
+    private final double periodNanos;
+    private final int maxOutstanding;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    // Intended starts of skipped sends not yet recorded; dispatcher thread only
+    private long[] skippedIntended = new long[64];
+    private int skippedPending;
+
+    OpenLoopDriver(Target target, LatencyRecorder recorder, double ratePerSecond, int maxOutstanding) {
+        super(target, recorder);
+        this.periodNanos = 1e9 / ratePerSecond;
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    @Override
+    void run(Duration duration) {
+        long start = System.nanoTime();
+        long durationNanos = duration.toNanos();
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * periodNanos);
+            if (intended - start >= durationNanos) {
+                return;
+            }
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+
+            // Bound memory if A stops answering entirely; skipped sends still enter the
+            // latency distribution, once we know how long they would have waited.
+            if (outstanding.get() >= maxOutstanding) {
+                skip(intended);
+                continue;
+            }
+            recordSkipped(System.nanoTime());
+            send(intended);
+        }
+    }
+
+    private void send(long intended) {
+        outstanding.incrementAndGet();
+        recorder.onSent();
+        long sendNanos = System.nanoTime();
+        target.send(nextRequestId()).whenComplete((code, error) -> {
+            long end = System.nanoTime();
+            recorder.record(error == null ? code : ErrorCode.UNKNOWN, intended, sendNanos, end);
+            outstanding.decrementAndGet();
+        });
+    }
+
+    private void skip(long intended) {
+        if (skippedPending == skippedIntended.length) {
+            skippedIntended = Arrays.copyOf(skippedIntended, skippedPending * 2);
+        }
+        skippedIntended[skippedPending++] = intended;
+    }
+
+    /** Sending resumed (or the phase ended) at {@code now}: record the skipped sends. */
+    private void recordSkipped(long now) {
+        for (int i = 0; i < skippedPending; i++) {
+            recorder.onSkipped(skippedIntended[i], now);
+        }
+        skippedPending = 0;
+    }
+
+    @Override
+    int drain(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        recordSkipped(System.nanoTime());
+        return outstanding.get();
+    }
+}
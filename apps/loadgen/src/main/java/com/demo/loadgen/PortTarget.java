@@ -0,0 +1,46 @@
+package com.demo.loadgen;
+
+import com.demo.appa.AppAPort;
+import com.demo.appa.Application;
+import com.demo.appa.ErrorCode;
+import com.demo.appa.WorkResult;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Calls AppAPort.callWorkAsync in-process: app-a boots inside the generator (no web
+ * server) and the active port is chosen by the same properties as in the app, passed
+ * through from the command line. Takes HTTP, Tomcat and JSON out of the measurement,
+ * leaving A's protection layers and the gRPC call to B.
+ */
+final class PortTarget implements Target {
+
+    private final ConfigurableApplicationContext context;
+    private final AppAPort port;
+
+    PortTarget(String[] springArgs) {
+        this.context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run(springArgs);
+        this.port = context.getBean(AppAPort.class);
+    }
+
+    @Override
+    public CompletableFuture<ErrorCode> send(String requestId) {
+        CompletableFuture<WorkResult> call;
+        try {
+            call = port.callWorkAsync(requestId);
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(ErrorCode.UNKNOWN);
+        }
+        return call.handle((result, error) -> error == null ? result.getErrorCode() : ErrorCode.UNKNOWN);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,18 @@
+package com.demo.loadgen;
+
+import com.demo.appa.ErrorCode;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * What the generator calls. send() must not block: the open-loop dispatcher keeps
+ * its schedule only as long as sending is cheap.
+ */
+public interface Target extends AutoCloseable {
+
+    /** One call; completes with the call's ErrorCode (SUCCESS when it worked), never exceptionally. */
+    CompletableFuture<ErrorCode> send(String requestId);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,72 @@
+package com.demo.loadgen;
+
+import com.demo.appa.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Coordinated omission, demonstrated: one caller paced at 100/s, the first call
+ * stalls 500ms, every other call is instant.
+ * - service time sees ONE slow call
+ * - corrected latency also charges the ~50 sends the stall delayed
+ */
+class ClosedLoopDriverTest {
+
+    @Test
+    void testPaced_StallChargedToDelayedSends() throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+        ClosedLoopDriver driver = new ClosedLoopDriver(new StallOnceTarget(500), recorder, 1,
+                TimeUnit.MILLISECONDS.toNanos(10));
+
+        driver.run(Duration.ofSeconds(1));
+        LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+
+        assertTrue(snapshot.completed() >= 90, "Overdue sends still go out, got " + snapshot.completed());
+        long correctedP75Ms = snapshot.correctedTotal().getValueAtPercentile(75.0) / 1000;
+        long serviceP75Ms = snapshot.service().getValueAtPercentile(75.0) / 1000;
+        assertTrue(correctedP75Ms >= 100, "Corrected p75 should include the stall, got " + correctedP75Ms + "ms");
+        assertTrue(serviceP75Ms < 50, "Service p75 hides the stall, got " + serviceP75Ms + "ms");
+    }
+
+    @Test
+    void testUnpaced_CorrectedEqualsService() throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+        ClosedLoopDriver driver = new ClosedLoopDriver(new StallOnceTarget(100), recorder, 2, 0);
+
+        driver.run(Duration.ofMillis(300));
+        LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+
+        assertEquals(snapshot.service().getMaxValue(), snapshot.correctedTotal().getMaxValue(),
+                "Without a schedule there is no intended start to correct against");
+        assertEquals(0, driver.drain(Duration.ZERO));
+    }
+
+    /** Replies SUCCESS at once, except the very first call, which takes stallMs. */
+    private static final class StallOnceTarget implements Target {
+        private final long stallMs;
+        private final AtomicBoolean stalled = new AtomicBoolean();
+
+        StallOnceTarget(long stallMs) {
+            this.stallMs = stallMs;
+        }
+
+        @Override
+        public CompletableFuture<ErrorCode> send(String requestId) {
+            if (stalled.compareAndSet(false, true)) {
+                return CompletableFuture.supplyAsync(() -> ErrorCode.SUCCESS,
+                        CompletableFuture.delayedExecutor(stallMs, TimeUnit.MILLISECONDS));
+            }
+            return CompletableFuture.completedFuture(ErrorCode.SUCCESS);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
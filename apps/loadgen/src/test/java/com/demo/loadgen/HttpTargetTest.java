@@ -0,0 +1,36 @@
+package com.demo.loadgen;
+
+import com.demo.appa.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HttpTarget's mapping of /api/work answers and client-side failures
+ * to ErrorCode.
+ */
+class HttpTargetTest {
+
+    @Test
+    void testFromBody() {
+        assertEquals(ErrorCode.SUCCESS, HttpTarget.fromBody("{\"ok\":true,\"code\":\"SUCCESS\",\"latencyMs\":5}"));
+        assertEquals(ErrorCode.QUEUE_FULL, HttpTarget.fromBody("{\"ok\":false,\"code\":\"QUEUE_FULL\",\"latencyMs\":0}"));
+        assertEquals(ErrorCode.SHED, HttpTarget.fromBody("{\"ok\":false,\"code\":\"SHED\",\"latencyMs\":0}"));
+        assertEquals(ErrorCode.UNKNOWN, HttpTarget.fromBody("{\"ok\":false,\"code\":\"SOMETHING_NEW\"}"));
+        assertEquals(ErrorCode.UNKNOWN, HttpTarget.fromBody("<html>"));
+    }
+
+    @Test
+    void testFromFailure() {
+        assertEquals(ErrorCode.DEADLINE_EXCEEDED,
+                HttpTarget.fromFailure(new CompletionException(new HttpTimeoutException("timed out"))));
+        assertEquals(ErrorCode.UNAVAILABLE, HttpTarget.fromFailure(new CompletionException(new ConnectException())));
+        assertEquals(ErrorCode.UNAVAILABLE, HttpTarget.fromFailure(new IOException("reset")));
+        assertEquals(ErrorCode.UNKNOWN, HttpTarget.fromFailure(new IllegalStateException()));
+    }
+}
@@ -0,0 +1,87 @@
+package com.demo.loadgen;
+
+import com.demo.appa.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatencyRecorder: corrected vs service latency, per-ErrorCode
+ * breakdown, and snapshot() starting a new phase.
+ */
+class LatencyRecorderTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void testRecord_CorrectedCountsFromIntendedStart() {
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        // Due at 0, sent late at 90ms (generator or A stalled), answered at 100ms
+        recorder.record(ErrorCode.SUCCESS, 0, 90 * MS, 100 * MS);
+
+        LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+        assertEquals(100, snapshot.corrected().get(ErrorCode.SUCCESS).getMaxValue() / 1000, 1);
+        assertEquals(10, snapshot.service().getMaxValue() / 1000, 1);
+    }
+
+    @Test
+    void testRecord_BreakdownByErrorCode() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record(ErrorCode.SUCCESS, 0, 0, 5 * MS);
+        recorder.record(ErrorCode.SUCCESS, 0, 0, 6 * MS);
+        recorder.record(ErrorCode.QUEUE_FULL, 0, 0, MS);
+
+        LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+        assertEquals(2, snapshot.corrected().get(ErrorCode.SUCCESS).getTotalCount());
+        assertEquals(1, snapshot.corrected().get(ErrorCode.QUEUE_FULL).getTotalCount());
+        assertEquals(0, snapshot.corrected().get(ErrorCode.CIRCUIT_OPEN).getTotalCount());
+        assertEquals(3, snapshot.correctedTotal().getTotalCount());
+        assertEquals(3, snapshot.completed());
+    }
+
+    @Test
+    void testSnapshot_StartsNewPhase() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.onSent();
+        recorder.onSkipped(0, MS);
+        recorder.record(ErrorCode.SUCCESS, 0, 0, MS);
+
+        LatencyRecorder.Snapshot warmup = recorder.snapshot();
+        LatencyRecorder.Snapshot measured = recorder.snapshot();
+
+        assertEquals(1, warmup.sent());
+        assertEquals(1, warmup.skipped());
+        assertEquals(0, measured.sent());
+        assertEquals(0, measured.skipped());
+        assertEquals(0, measured.completed(), "Warm-up samples must not leak into the measurement");
+    }
+
+    @Test
+    void testSkipped_CountedInCorrectedTotalOnly() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record(ErrorCode.SUCCESS, 0, 0, 5 * MS);
+        // Due at 10ms, skipped; sending resumed at 2s
+        recorder.onSkipped(10 * MS, 2000 * MS);
+
+        LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+        assertEquals(1, snapshot.skipped());
+        assertEquals(1, snapshot.completed(), "Never sent: not a completed call");
+        assertEquals(2, snapshot.correctedTotal().getTotalCount());
+        assertEquals(1990, snapshot.correctedTotal().getMaxValue() / 1000, 2);
+        assertEquals(5, snapshot.service().getMaxValue() / 1000, 1);
+    }
+
+    @Test
+    void testRecord_ClampsOutOfRange() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record(ErrorCode.SUCCESS, 10 * MS, 10 * MS, 0);   // clock went backwards
+        recorder.record(ErrorCode.SUCCESS, 0, 0, TimeUnit.HOURS.toNanos(1));
+
+        LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+        assertEquals(2, snapshot.completed());
+        assertTrue(snapshot.service().getMaxValue() >= LatencyRecorder.HIGHEST_TRACKABLE_US);
+    }
+}
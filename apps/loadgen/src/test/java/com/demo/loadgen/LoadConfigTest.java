@@ -0,0 +1,54 @@
+package com.demo.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LoadConfig: option parsing, validation and Spring pass-through.
+ */
+class LoadConfigTest {
+
+    @Test
+    void testParse_OpenLoop() {
+        LoadConfig config = LoadConfig.parse("--mode=open", "--rate=200", "--duration=30s", "--warmup=500ms");
+
+        assertEquals(LoadConfig.Mode.OPEN, config.mode());
+        assertEquals(200.0, config.rate());
+        assertEquals(Duration.ofSeconds(30), config.duration());
+        assertEquals(Duration.ofMillis(500), config.warmup());
+        assertEquals("http://localhost:8080", config.target());
+    }
+
+    @Test
+    void testParse_OpenLoopNeedsRate() {
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.parse("--mode=open"));
+    }
+
+    @Test
+    void testParse_UnknownOptionsPassThroughToSpring() {
+        LoadConfig config = LoadConfig.parse("--target=port", "--mode=closed",
+                "--resilience.enabled=true", "--b.service.url=localhost:50051");
+
+        assertEquals(LoadConfig.PORT_TARGET, config.target());
+        assertArrayEquals(new String[]{"--resilience.enabled=true", "--b.service.url=localhost:50051"},
+                config.springArgs());
+    }
+
+    @Test
+    void testCallerInterval() {
+        LoadConfig paced = LoadConfig.parse("--mode=closed", "--concurrency=10", "--rate=100");
+        LoadConfig unpaced = LoadConfig.parse("--mode=closed", "--concurrency=10");
+
+        assertEquals(100_000_000L, paced.callerIntervalNanos(), "10 callers at 100/s → each every 100ms");
+        assertEquals(0, unpaced.callerIntervalNanos());
+    }
+
+    @Test
+    void testParse_RejectsMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.parse("--rate", "200"));
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.parse("--target=localhost:8080", "--rate=1"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.demo.loadgen;
+
+import com.demo.appa.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Skipped sends are not omitted: 100/s with at most one call in flight, the first
+ * call stalls 500ms, so the ~49 sends due during the stall are skipped - and still
+ * show up in the corrected latency with the time they waited for the window.
+ */
+class OpenLoopDriverTest {
+
+    @Test
+    void testSkippedSends_CountedInCorrectedLatency() throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+        OpenLoopDriver driver = new OpenLoopDriver(new StallFirstTarget(500), recorder, 100, 1);
+
+        driver.run(Duration.ofSeconds(1));
+        assertEquals(0, driver.drain(Duration.ofSeconds(1)));
+        LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+
+        assertTrue(snapshot.skipped() >= 40, "Sends due during the stall are skipped, got " + snapshot.skipped());
+        assertEquals(snapshot.completed() + snapshot.skipped(), snapshot.correctedTotal().getTotalCount());
+        long skippedMaxMs = snapshot.unsent().getMaxValue() / 1000;
+        assertTrue(skippedMaxMs >= 400, "First skipped send waited for most of the stall, got " + skippedMaxMs + "ms");
+        long serviceP50Ms = snapshot.service().getValueAtPercentile(50.0) / 1000;
+        assertTrue(serviceP50Ms < 50, "Service time sees one slow call, got p50 " + serviceP50Ms + "ms");
+    }
+
+    @Test
+    void testSkippedAtEnd_RecordedByDrain() throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+        OpenLoopDriver driver = new OpenLoopDriver(new StallFirstTarget(2000), recorder, 100, 1);
+
+        driver.run(Duration.ofMillis(300));
+        assertEquals(0, recorder.snapshot().skipped(), "Window never reopened during run()");
+
+        driver.drain(Duration.ofMillis(100));
+        assertTrue(recorder.snapshot().skipped() >= 20);
+    }
+
+    /** Replies SUCCESS at once, except the very first call, which takes stallMs. */
+    private static final class StallFirstTarget implements Target {
+        private final long stallMs;
+        private final AtomicBoolean stalled = new AtomicBoolean();
+
+        StallFirstTarget(long stallMs) {
+            this.stallMs = stallMs;
+        }
+
+        @Override
+        public CompletableFuture<ErrorCode> send(String requestId) {
+            if (stalled.compareAndSet(false, true)) {
+                return CompletableFuture.supplyAsync(() -> ErrorCode.SUCCESS,
+                        CompletableFuture.delayedExecutor(stallMs, TimeUnit.MILLISECONDS));
+            }
+            return CompletableFuture.completedFuture(ErrorCode.SUCCESS);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}